@@ -359,7 +359,8 @@ public final class Instant
      * @throws DateTimeParseException if the text cannot be parsed
      */
     public static Instant parse(final CharSequence text) {
-        return DateTimeFormatter.ISO_INSTANT.parse(text, Instant.FROM);
+        Instant instant = IsoParser.parseInstant(text);
+        return (instant != null ? instant : DateTimeFormatter.ISO_INSTANT.parse(text, Instant.FROM));
     }
 
     //-----------------------------------------------------------------------
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp;
+
+import org.threeten.bp.format.DateTimeFormatter;
+import org.threeten.bp.jdk8.Jdk8Methods;
+
+/**
+ * Direct parsers for the canonical forms of the ISO-8601 formats.
+ * <p>
+ * The {@code parse(CharSequence)} methods of the date-time classes use these to avoid
+ * the general parsing engine for text such as {@code 2007-12-03T10:15:30.123Z}.
+ * Each parser accepts a four digit year, upper-case separators, offsets of the form
+ * {@code Z}, {@code +HH:MM} or {@code +HH:MM:SS}, and only valid field values.
+ * Anything else, such as an extended year, a leap second or an invalid date,
+ * returns null so that the caller uses the {@link DateTimeFormatter} instead,
+ * which produces the same result or exception as it always has.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is thread-safe.
+ */
+final class IsoParser {
+
+    /**
+     * The value returned by the offset parser on failure.
+     */
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+    /**
+     * Powers of ten used to scale the fraction of a second.
+     */
+    private static final int[] POWERS = {
+        1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000,
+    };
+
+    /**
+     * Private constructor since this is a utility class.
+     */
+    private IsoParser() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Parses text in the form of {@link DateTimeFormatter#ISO_LOCAL_DATE}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed date, null if the general parser must be used
+     */
+    static LocalDate parseLocalDate(CharSequence text) {
+        Jdk8Methods.requireNonNull(text, "text");
+        int date = (text.length() == 10 ? parseDate(text, 0) : -1);
+        return (date < 0 ? null : LocalDate.of(date / 10000, (date / 100) % 100, date % 100));
+    }
+
+    /**
+     * Parses text in the form of {@link DateTimeFormatter#ISO_LOCAL_TIME}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed time, null if the general parser must be used
+     */
+    static LocalTime parseLocalTime(CharSequence text) {
+        Jdk8Methods.requireNonNull(text, "text");
+        long nanoOfDay = parseTime(text, 0, text.length(), false);
+        return (nanoOfDay < 0 ? null : LocalTime.ofNanoOfDay(nanoOfDay));
+    }
+
+    /**
+     * Parses text in the form of {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed date-time, null if the general parser must be used
+     */
+    static LocalDateTime parseLocalDateTime(CharSequence text) {
+        Jdk8Methods.requireNonNull(text, "text");
+        return parseDateTime(text, text.length());
+    }
+
+    /**
+     * Parses text in the form of {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed date-time, null if the general parser must be used
+     */
+    static OffsetDateTime parseOffsetDateTime(CharSequence text) {
+        Jdk8Methods.requireNonNull(text, "text");
+        int timeEnd = scanTime(text);
+        LocalDateTime dateTime = parseDateTime(text, timeEnd);
+        int offsetSecs = parseOffset(text, timeEnd, text.length());
+        if (dateTime == null || offsetSecs == NO_OFFSET) {
+            return null;
+        }
+        return OffsetDateTime.of(dateTime, ZoneOffset.ofTotalSeconds(offsetSecs));
+    }
+
+    /**
+     * Parses text in the form of {@link DateTimeFormatter#ISO_ZONED_DATE_TIME}.
+     * <p>
+     * A zone in brackets is only parsed here if it is a known region ID containing a slash.
+     * As with the formatter, the local date-time is then placed in the region ignoring the offset.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed date-time, null if the general parser must be used
+     */
+    static ZonedDateTime parseZonedDateTime(CharSequence text) {
+        Jdk8Methods.requireNonNull(text, "text");
+        int length = text.length();
+        int timeEnd = scanTime(text);
+        int offsetEnd = timeEnd;
+        while (offsetEnd < length && text.charAt(offsetEnd) != '[') {
+            offsetEnd++;
+        }
+        LocalDateTime dateTime = parseDateTime(text, timeEnd);
+        int offsetSecs = parseOffset(text, timeEnd, offsetEnd);
+        if (dateTime == null || offsetSecs == NO_OFFSET) {
+            return null;
+        }
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSecs);
+        if (offsetEnd == length) {
+            return ZonedDateTime.of(dateTime, offset);
+        }
+        ZoneId zone = parseRegion(text, offsetEnd + 1, length - 1);
+        if (zone == null || text.charAt(length - 1) != ']') {
+            return null;
+        }
+        return ZonedDateTime.of(dateTime, zone);  // the resolver places the local date-time in the region
+    }
+
+    /**
+     * Parses text in the form of {@link DateTimeFormatter#ISO_INSTANT}.
+     *
+     * @param text  the text to parse, not null
+     * @return the parsed instant, null if the general parser must be used
+     */
+    static Instant parseInstant(CharSequence text) {
+        Jdk8Methods.requireNonNull(text, "text");
+        int length = text.length();
+        if (length < 20 || text.charAt(10) != 'T' || text.charAt(length - 1) != 'Z') {
+            return null;
+        }
+        int date = parseDate(text, 0);
+        long nanoOfDay = parseTime(text, 11, length - 1, true);
+        if (date < 0 || nanoOfDay < 0) {
+            return null;
+        }
+        long epochSec = toEpochDay(date / 10000, (date / 100) % 100, date % 100) * 86400L + nanoOfDay / 1000000000L;
+        return Instant.ofEpochSecond(epochSec, nanoOfDay % 1000000000L);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Parses a local date-time from the start of the text to the end of the time.
+     */
+    private static LocalDateTime parseDateTime(CharSequence text, int timeEnd) {
+        if (text.length() < 16 || text.charAt(10) != 'T') {
+            return null;
+        }
+        int date = parseDate(text, 0);
+        long nanoOfDay = parseTime(text, 11, timeEnd, false);
+        if (date < 0 || nanoOfDay < 0) {
+            return null;
+        }
+        return LocalDateTime.of(
+                LocalDate.of(date / 10000, (date / 100) % 100, date % 100), LocalTime.ofNanoOfDay(nanoOfDay));
+    }
+
+    /**
+     * Parses a valid date of the form 'yyyy-MM-dd' packed as year * 10000 + month * 100 + day.
+     *
+     * @return the packed date, negative if invalid
+     */
+    private static int parseDate(CharSequence text, int pos) {
+        if (text.length() < pos + 10 || text.charAt(pos + 4) != '-' || text.charAt(pos + 7) != '-') {
+            return -1;
+        }
+        int year = parseDigits(text, pos, 4);
+        int month = parseDigits(text, pos + 5, 2);
+        int day = parseDigits(text, pos + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return -1;
+        }
+        if (day > 28 && day > Month.of(month).length(Year.isLeap(year))) {
+            return -1;
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Parses a valid time of the form 'HH:mm[:ss[.S]]' filling the range.
+     *
+     * @return the nano-of-day, negative if invalid
+     */
+    private static long parseTime(CharSequence text, int pos, int end, boolean secondsRequired) {
+        int length = end - pos;
+        if (length < 5 || text.charAt(pos + 2) != ':') {
+            return -1;
+        }
+        int hour = parseDigits(text, pos, 2);
+        int minute = parseDigits(text, pos + 3, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        long nanoOfDay = (hour * 60L + minute) * 60L * 1000000000L;
+        if (length == 5) {
+            return (secondsRequired ? -1 : nanoOfDay);
+        }
+        if (length < 8 || text.charAt(pos + 5) != ':') {
+            return -1;
+        }
+        int second = parseDigits(text, pos + 6, 2);
+        if (second < 0 || second > 59) {
+            return -1;
+        }
+        nanoOfDay += second * 1000000000L;
+        if (length == 8) {
+            return nanoOfDay;
+        }
+        int digits = length - 9;
+        if (digits < 1 || digits > 9 || text.charAt(pos + 8) != '.') {
+            return -1;
+        }
+        int fraction = parseDigits(text, pos + 9, digits);
+        return (fraction < 0 ? -1 : nanoOfDay + fraction * POWERS[9 - digits]);
+    }
+
+    /**
+     * Finds the end of the time that starts at index 11.
+     *
+     * @return the index of the first character after the time
+     */
+    private static int scanTime(CharSequence text) {
+        int length = text.length();
+        int pos = Math.min(11, length);
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if ((ch < '0' || ch > '9') && ch != ':' && ch != '.') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Parses an offset of the form 'Z', '+HH:MM' or '+HH:MM:SS' filling the range.
+     *
+     * @return the total seconds of the offset, {@code NO_OFFSET} if invalid
+     */
+    private static int parseOffset(CharSequence text, int pos, int end) {
+        int length = end - pos;
+        if (length == 1 && text.charAt(pos) == 'Z') {
+            return 0;
+        }
+        if ((length != 6 && length != 9) || text.charAt(pos + 3) != ':') {
+            return NO_OFFSET;
+        }
+        char sign = text.charAt(pos);
+        int hours = parseDigits(text, pos + 1, 2);
+        int minutes = parseDigits(text, pos + 4, 2);
+        int seconds = 0;
+        if (length == 9) {
+            seconds = (text.charAt(pos + 6) == ':' ? parseDigits(text, pos + 7, 2) : -1);
+        }
+        if ((sign != '+' && sign != '-') || hours < 0 || hours > 18 || minutes < 0 || minutes > 59 ||
+                seconds < 0 || seconds > 59) {
+            return NO_OFFSET;
+        }
+        int totalSecs = hours * 3600 + minutes * 60 + seconds;
+        if (totalSecs > 18 * 3600) {
+            return NO_OFFSET;
+        }
+        return (sign == '-' ? -totalSecs : totalSecs);
+    }
+
+    /**
+     * Parses a known region ID containing a slash, such as 'Europe/Paris', filling the range.
+     * <p>
+     * IDs that the general parser treats specially, such as those starting 'UTC' or 'GMT',
+     * are not parsed here.
+     *
+     * @return the zone, null if not a known region ID
+     */
+    private static ZoneId parseRegion(CharSequence text, int pos, int end) {
+        if (end - pos < 3) {
+            return null;
+        }
+        char first = text.charAt(pos);
+        if ((first < 'A' || first > 'Z') && (first < 'a' || first > 'z')) {
+            return null;
+        }
+        boolean slash = false;
+        for (int i = pos; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch == '/') {
+                slash = true;
+            } else if ((ch < 'A' || ch > 'Z') && (ch < 'a' || ch > 'z') && (ch < '0' || ch > '9') &&
+                    ch != '_' && ch != '-' && ch != '+' && ch != '.' && ch != '~') {
+                return null;
+            }
+        }
+        String id = text.subSequence(pos, end).toString();
+        if (slash == false || id.startsWith("UT") || id.startsWith("GMT")) {
+            return null;
+        }
+        try {
+            return ZoneId.of(id);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a fixed number of ASCII digits.
+     *
+     * @return the value, negative if a character is not a digit
+     */
+    private static int parseDigits(CharSequence text, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Converts a valid date with a year from 0 to 9999 to the epoch-day.
+     * <p>
+     * This matches {@link LocalDate#toEpochDay()} without creating the date.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        long y = year;
+        long m = month;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += ((367 * m - 362) / 12);
+        total += day - 1;
+        if (m > 2) {
+            total--;
+            if (Year.isLeap(year) == false) {
+                total--;
+            }
+        }
+        return total - LocalDate.DAYS_0000_TO_1970;
+    }
+
+}
@@ -349,7 +349,8 @@ public final class LocalDate
      * @throws DateTimeParseException if the text cannot be parsed
      */
     public static LocalDate parse(CharSequence text) {
-        return parse(text, DateTimeFormatter.ISO_LOCAL_DATE);
+        LocalDate date = IsoParser.parseLocalDate(text);
+        return (date != null ? date : parse(text, DateTimeFormatter.ISO_LOCAL_DATE));
     }
 
     /**
@@ -354,7 +354,7 @@ public final class LocalDateTime
         Jdk8Methods.requireNonNull(instant, "instant");
         Jdk8Methods.requireNonNull(zone, "zone");
         ZoneRules rules = zone.getRules();
-        ZoneOffset offset = rules.getOffset(instant);
+        ZoneOffset offset = rules.getOffset(instant.getEpochSecond());
         return ofEpochSecond(instant.getEpochSecond(), instant.getNano(), offset);
     }
 
@@ -426,7 +426,8 @@ public final class LocalDateTime
      * @throws DateTimeParseException if the text cannot be parsed
      */
     public static LocalDateTime parse(CharSequence text) {
-        return parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        LocalDateTime dateTime = IsoParser.parseLocalDateTime(text);
+        return (dateTime != null ? dateTime : parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
     }
 
     /**
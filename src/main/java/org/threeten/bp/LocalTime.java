@@ -419,7 +419,8 @@ public final class LocalTime
      * @throws DateTimeParseException if the text cannot be parsed
      */
     public static LocalTime parse(CharSequence text) {
-        return parse(text, DateTimeFormatter.ISO_LOCAL_TIME);
+        LocalTime time = IsoParser.parseLocalTime(text);
+        return (time != null ? time : parse(text, DateTimeFormatter.ISO_LOCAL_TIME));
     }
 
     /**
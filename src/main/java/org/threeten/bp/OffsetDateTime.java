@@ -287,7 +287,7 @@ public final class OffsetDateTime
         Jdk8Methods.requireNonNull(instant, "instant");
         Jdk8Methods.requireNonNull(zone, "zone");
         ZoneRules rules = zone.getRules();
-        ZoneOffset offset = rules.getOffset(instant);
+        ZoneOffset offset = rules.getOffset(instant.getEpochSecond());
         LocalDateTime ldt = LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(), offset);
         return new OffsetDateTime(ldt, offset);
     }
@@ -341,7 +341,8 @@ public final class OffsetDateTime
      * @throws DateTimeParseException if the text cannot be parsed
      */
     public static OffsetDateTime parse(CharSequence text) {
-        return parse(text, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        OffsetDateTime dateTime = IsoParser.parseOffsetDateTime(text);
+        return (dateTime != null ? dateTime : parse(text, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
     }
 
     /**
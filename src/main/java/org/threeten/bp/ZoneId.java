@@ -37,10 +37,13 @@ import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.threeten.bp.format.DateTimeFormatterBuilder;
 import org.threeten.bp.format.TextStyle;
@@ -228,6 +231,18 @@ public abstract class ZoneId implements Serializable {
      * Serialization version.
      */
     private static final long serialVersionUID = 8352817235686L;
+    /**
+     * The maximum number of entries in each cache of zone IDs.
+     */
+    private static final int CACHE_SIZE = 1024;
+    /**
+     * The cache of prefixed offset-based zone IDs created by {@link #of(String)}.
+     */
+    private static final ConcurrentMap<String, ZoneId> PREFIXED_CACHE = new ConcurrentHashMap<String, ZoneId>(16, 0.75f, 4);
+    /**
+     * The cache of region IDs created by {@link #of(String)}, replaced when the providers change.
+     */
+    private static volatile IdCache cache;
 
     //-----------------------------------------------------------------------
     /**
@@ -321,6 +336,12 @@ public abstract class ZoneId implements Serializable {
      *  This is compatible with most IDs from {@link java.util.TimeZone}.
      * </ul>
      *
+     * <p>
+     * The region and prefixed offset-based IDs created are cached, thus calling this
+     * method again with the same ID is a single lookup returning the same instance.
+     * The cache is bounded in size, and the region IDs are discarded when the zone rules
+     * providers are registered or refreshed. Offset IDs use the cache of {@code ZoneOffset}.
+     *
      * @param zoneId  the time-zone ID, not null
      * @return the zone ID, not null
      * @throws DateTimeException if the zone ID has an invalid format
@@ -337,6 +358,39 @@ public abstract class ZoneId implements Serializable {
         if (zoneId.startsWith("+") || zoneId.startsWith("-")) {
             return ZoneOffset.of(zoneId);
         }
+        // prefixed offset-based IDs do not need the providers, so must not load them
+        if (zoneId.startsWith("UT") || zoneId.startsWith("GMT")) {
+            ZoneId cached = PREFIXED_CACHE.get(zoneId);
+            if (cached != null) {
+                return cached;
+            }
+            ZoneId prefixed = ofPrefixed(zoneId);
+            if (prefixed != null) {
+                return putBounded(PREFIXED_CACHE, zoneId, prefixed);
+            }
+        }
+        // the set of available IDs is replaced whenever the providers change
+        Set<String> availableZoneIds = ZoneRulesProvider.getAvailableZoneIds();
+        IdCache current = cache;
+        if (current == null || current.availableZoneIds != availableZoneIds) {
+            current = new IdCache(availableZoneIds);
+            cache = current;
+        }
+        ZoneId cached = current.ids.get(zoneId);
+        if (cached != null) {
+            return cached;
+        }
+        return putBounded(current.ids, zoneId, ZoneRegion.ofId(zoneId, true));
+    }
+
+    /**
+     * Creates a prefixed offset-based zone ID, such as 'UTC' or 'GMT+02:00'.
+     *
+     * @param zoneId  the time-zone ID, not null
+     * @return the zone ID, null if not a prefixed offset-based ID
+     * @throws DateTimeException if the offset has an invalid format
+     */
+    private static ZoneId ofPrefixed(String zoneId) {
         if (zoneId.equals("UTC") || zoneId.equals("GMT") || zoneId.equals("UT")) {
             return new ZoneRegion(zoneId, ZoneOffset.UTC.getRules());
         }
@@ -355,7 +409,27 @@ public abstract class ZoneId implements Serializable {
             }
             return new ZoneRegion("UT" + offset.getId(), offset.getRules());
         }
-        return ZoneRegion.ofId(zoneId, true);
+        return null;
+    }
+
+    /**
+     * Adds a zone ID to a cache, evicting a single entry if the cache is full.
+     *
+     * @param ids  the cache, not null
+     * @param zoneId  the ID passed to {@link #of(String)}, not null
+     * @param created  the zone ID created, not null
+     * @return the cached zone ID, not null
+     */
+    private static ZoneId putBounded(ConcurrentMap<String, ZoneId> ids, String zoneId, ZoneId created) {
+        if (ids.size() >= CACHE_SIZE) {
+            Iterator<String> it = ids.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        ZoneId existing = ids.putIfAbsent(zoneId, created);
+        return (existing != null ? existing : created);
     }
 
     /**
@@ -562,4 +636,23 @@ public abstract class ZoneId implements Serializable {
     //-----------------------------------------------------------------------
     abstract void write(DataOutput out) throws IOException;
 
+    //-----------------------------------------------------------------------
+    /**
+     * The cache of zone IDs for a single set of available zone IDs.
+     */
+    private static final class IdCache {
+        /**
+         * The available zone IDs when the cache was created, compared by identity.
+         */
+        final Set<String> availableZoneIds;
+        /**
+         * The zone IDs, keyed by the ID passed to {@link ZoneId#of(String)}.
+         */
+        final ConcurrentMap<String, ZoneId> ids = new ConcurrentHashMap<String, ZoneId>(64, 0.75f, 4);
+
+        IdCache(Set<String> availableZoneIds) {
+            this.availableZoneIds = availableZoneIds;
+        }
+    }
+
 }
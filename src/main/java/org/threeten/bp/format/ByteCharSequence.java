@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A view of ASCII bytes as characters, used to parse bytes without decoding them to a string.
+ * <p>
+ * Text containing non-ASCII bytes is decoded as UTF-8 to a string instead,
+ * with {@link #byteIndex(CharSequence, int)} converting indices back to bytes.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is immutable if the bytes are not altered, but is not thread-safe
+ * when backed by a {@code ByteBuffer} as the buffer's state is not.
+ */
+final class ByteCharSequence implements CharSequence {
+
+    /**
+     * The UTF-8 character set.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The array of bytes, null if backed by a buffer.
+     */
+    private final byte[] array;
+    /**
+     * The buffer of bytes, null if backed by an array.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The index of the first byte.
+     */
+    private final int start;
+    /**
+     * The number of bytes.
+     */
+    private final int length;
+
+    /**
+     * Obtains the text of a range of bytes.
+     *
+     * @param bytes  the bytes of the text, not null
+     * @param offset  the offset of the first byte
+     * @param length  the number of bytes
+     * @return the text, not null
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    static CharSequence of(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException("Invalid range: " + offset + ", " + length);
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, offset, length, UTF_8);
+            }
+        }
+        return new ByteCharSequence(bytes, null, offset, length);
+    }
+
+    /**
+     * Obtains the text of the bytes from the position to the limit of a buffer.
+     * <p>
+     * The position of the buffer is not changed.
+     *
+     * @param buffer  the buffer of the text, not null
+     * @return the text, not null
+     */
+    static CharSequence of(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return of(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) < 0) {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.duplicate().get(bytes);
+                return new String(bytes, UTF_8);
+            }
+        }
+        return new ByteCharSequence(null, buffer, buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Converts an index in text obtained from this class to the index in the bytes.
+     *
+     * @param text  the text obtained from this class, not null
+     * @param index  the index in the text
+     * @return the number of bytes before the index
+     */
+    static int byteIndex(CharSequence text, int index) {
+        if (text instanceof ByteCharSequence) {
+            return index;
+        }
+        int bytes = 0;
+        for (int i = 0; i < index; i++) {
+            char ch = text.charAt(i);
+            if (ch < 0x80) {
+                bytes++;
+            } else if (ch < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Restricted constructor.
+     *
+     * @param array  the array, null if backed by a buffer
+     * @param buffer  the buffer, null if backed by an array
+     * @param start  the index of the first byte
+     * @param length  the number of bytes
+     */
+    private ByteCharSequence(byte[] array, ByteBuffer buffer, int start, int length) {
+        this.array = array;
+        this.buffer = buffer;
+        this.start = start;
+        this.length = length;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+        return (char) (array != null ? array[start + index] : buffer.get(start + index));
+    }
+
+    @Override
+    public CharSequence subSequence(int startIndex, int endIndex) {
+        if (startIndex < 0 || endIndex > length || startIndex > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid range: " + startIndex + ", " + endIndex);
+        }
+        return new ByteCharSequence(array, buffer, start + startIndex, endIndex - startIndex);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = charAt(i);
+        }
+        return new String(chars);
+    }
+
+}
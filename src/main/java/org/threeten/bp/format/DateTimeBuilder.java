@@ -50,7 +50,6 @@ import static org.threeten.bp.temporal.ChronoField.OFFSET_SECONDS;
 import static org.threeten.bp.temporal.ChronoField.SECOND_OF_DAY;
 import static org.threeten.bp.temporal.ChronoField.SECOND_OF_MINUTE;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -99,7 +98,7 @@ final class DateTimeBuilder
     /**
      * The map of other fields.
      */
-    final Map<TemporalField, Long> fieldValues = new HashMap<TemporalField, Long>();
+    final FieldValueMap fieldValues = new FieldValueMap();
     /**
      * The chronology.
      */
@@ -165,6 +164,13 @@ final class DateTimeBuilder
      */
     DateTimeBuilder addFieldValue(TemporalField field, long value) {
         Jdk8Methods.requireNonNull(field, "field");
+        if (field instanceof ChronoField) {
+            ChronoField chronoField = (ChronoField) field;
+            if (fieldValues.contains(chronoField) == false || fieldValues.getValue(chronoField) == value) {
+                fieldValues.putValue(chronoField, value);
+                return this;
+            }
+        }
         Long old = getFieldValue0(field);  // check first for better error message
         if (old != null && old.longValue() != value) {
             throw new DateTimeException("Conflict found: " + field + " " + old + " differs from " + field + " " + value + ": " + this);
@@ -173,7 +179,7 @@ final class DateTimeBuilder
     }
 
     private DateTimeBuilder putFieldValue0(TemporalField field, long value) {
-        fieldValues.put(field, value);
+        fieldValues.putValue(field, value);
         return this;
     }
 
@@ -658,6 +664,9 @@ final class DateTimeBuilder
     @Override
     public long getLong(TemporalField field) {
         Jdk8Methods.requireNonNull(field, "field");
+        if (field instanceof ChronoField && fieldValues.contains((ChronoField) field)) {
+            return fieldValues.getValue((ChronoField) field);
+        }
         Long value = getFieldValue0(field);
         if (value == null) {
             if (date != null && date.isSupported(field)) {
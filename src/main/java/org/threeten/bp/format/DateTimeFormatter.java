@@ -42,6 +42,10 @@ import static org.threeten.bp.temporal.ChronoField.SECOND_OF_MINUTE;
 import static org.threeten.bp.temporal.ChronoField.YEAR;
 
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.text.FieldPosition;
 import java.text.Format;
 import java.text.ParseException;
@@ -60,6 +64,7 @@ import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZoneOffset;
 import org.threeten.bp.chrono.Chronology;
 import org.threeten.bp.chrono.IsoChronology;
+import org.threeten.bp.format.DateTimeFormatterBuilder.CompiledPrinter;
 import org.threeten.bp.format.DateTimeFormatterBuilder.CompositePrinterParser;
 import org.threeten.bp.format.DateTimeParseContext.Parsed;
 import org.threeten.bp.jdk8.Jdk8Methods;
@@ -1013,6 +1018,10 @@ public final class DateTimeFormatter {
      * The zone to use for formatting, null for no override.
      */
     private final ZoneId zone;
+    /**
+     * The compiled printer for fixed layouts, null if not applicable.
+     */
+    private final CompiledPrinter compiledPrinter;
 
     //-----------------------------------------------------------------------
     /**
@@ -1036,6 +1045,10 @@ public final class DateTimeFormatter {
         this.resolverFields = resolverFields;
         this.chrono = chrono;
         this.zone = zone;
+        // the compiled printer assumes the standard symbols and no conversion of the temporal
+        boolean standard = zone == null && (chrono == null || chrono == IsoChronology.INSTANCE) &&
+                decimalStyle.equals(DecimalStyle.STANDARD);
+        this.compiledPrinter = (standard ? CompiledPrinter.compile(printerParser) : null);
     }
 
     //-----------------------------------------------------------------------
@@ -1355,6 +1368,13 @@ public final class DateTimeFormatter {
      * @throws DateTimeException if an error occurs during formatting
      */
     public String format(TemporalAccessor temporal) {
+        if (compiledPrinter != null) {
+            char[] chars = compiledPrinter.scratch();
+            int length = compiledPrinter.print(temporal, chars, 0);
+            if (length >= 0) {
+                return new String(chars, 0, length);
+            }
+        }
         StringBuilder buf = new StringBuilder(32);
         formatTo(temporal, buf);
         return buf.toString();
@@ -1380,6 +1400,18 @@ public final class DateTimeFormatter {
         Jdk8Methods.requireNonNull(temporal, "temporal");
         Jdk8Methods.requireNonNull(appendable, "appendable");
         try {
+            if (compiledPrinter != null) {
+                char[] chars = compiledPrinter.scratch();
+                int length = compiledPrinter.print(temporal, chars, 0);
+                if (length >= 0) {
+                    if (appendable instanceof StringBuilder) {
+                        ((StringBuilder) appendable).append(chars, 0, length);
+                    } else {
+                        appendable.append(CharBuffer.wrap(chars, 0, length));
+                    }
+                    return;
+                }
+            }
             DateTimePrintContext context = new DateTimePrintContext(temporal, this);
             if (appendable instanceof StringBuilder) {
                 printerParser.print(context, (StringBuilder) appendable);
@@ -1394,6 +1426,153 @@ public final class DateTimeFormatter {
         }
     }
 
+    /**
+     * Formats a date-time object into a character array using this formatter.
+     * <p>
+     * This formats the date-time into the array starting at the offset, returning
+     * the offset after the formatted text.
+     * For formatters consisting of fixed-width numeric fields and literals, such as
+     * {@link #ISO_LOCAL_DATE_TIME} and {@link #ISO_INSTANT}, this does not allocate.
+     * <p>
+     * If the formatted text does not fit in the array then nothing is written.
+     *
+     * @param temporal  the temporal object to print, not null
+     * @param buf  the array to format into, not null
+     * @param offset  the offset to format at, from zero to the array length
+     * @return the offset after the formatted text
+     * @throws DateTimeException if an error occurs during formatting
+     * @throws IndexOutOfBoundsException if the offset is invalid or the text does not fit
+     */
+    public int formatTo(TemporalAccessor temporal, char[] buf, int offset) {
+        Jdk8Methods.requireNonNull(temporal, "temporal");
+        Jdk8Methods.requireNonNull(buf, "buf");
+        if (offset < 0 || offset > buf.length) {
+            throw new IndexOutOfBoundsException("Invalid offset: " + offset);
+        }
+        if (compiledPrinter != null) {
+            char[] chars = compiledPrinter.scratch();
+            int length = compiledPrinter.print(temporal, chars, 0);
+            if (length >= 0) {
+                return copy(chars, length, buf, offset);
+            }
+        }
+        char[] chars = formatToBuilder(temporal).toString().toCharArray();
+        return copy(chars, chars.length, buf, offset);
+    }
+
+    /**
+     * Formats a date-time object into a byte array as ASCII using this formatter.
+     * <p>
+     * This formats the date-time into the array starting at the offset, one byte
+     * per character, returning the offset after the formatted text.
+     * It is intended for formatters whose output is ASCII, such as the ISO formatters.
+     * For formatters consisting of fixed-width numeric fields and literals, such as
+     * {@link #ISO_LOCAL_DATE_TIME} and {@link #ISO_INSTANT}, this does not allocate.
+     * <p>
+     * If the formatted text does not fit in the array, or is not ASCII, then nothing is written.
+     *
+     * @param temporal  the temporal object to print, not null
+     * @param buf  the array to format into, not null
+     * @param offset  the offset to format at, from zero to the array length
+     * @return the offset after the formatted text
+     * @throws DateTimeException if an error occurs during formatting or the text is not ASCII
+     * @throws IndexOutOfBoundsException if the offset is invalid or the text does not fit
+     */
+    public int formatTo(TemporalAccessor temporal, byte[] buf, int offset) {
+        Jdk8Methods.requireNonNull(temporal, "temporal");
+        Jdk8Methods.requireNonNull(buf, "buf");
+        if (offset < 0 || offset > buf.length) {
+            throw new IndexOutOfBoundsException("Invalid offset: " + offset);
+        }
+        if (compiledPrinter != null) {
+            char[] chars = compiledPrinter.scratch();
+            int length = compiledPrinter.print(temporal, chars, 0);
+            if (length >= 0) {
+                return copyAscii(chars, length, buf, offset);
+            }
+        }
+        char[] chars = formatToBuilder(temporal).toString().toCharArray();
+        return copyAscii(chars, chars.length, buf, offset);
+    }
+
+    /**
+     * Formats a date-time object into a byte buffer as ASCII using this formatter.
+     * <p>
+     * This formats the date-time into the buffer at its position, one byte per character,
+     * advancing the position past the formatted text.
+     * It is intended for formatters whose output is ASCII, such as the ISO formatters.
+     * For formatters consisting of fixed-width numeric fields and literals, such as
+     * {@link #ISO_LOCAL_DATE_TIME} and {@link #ISO_INSTANT}, this does not allocate.
+     * <p>
+     * If the formatted text does not fit in the buffer, or is not ASCII, then nothing is written.
+     *
+     * @param temporal  the temporal object to print, not null
+     * @param buffer  the buffer to format into, not null
+     * @throws DateTimeException if an error occurs during formatting or the text is not ASCII
+     * @throws BufferOverflowException if the text does not fit in the remaining space
+     * @throws ReadOnlyBufferException if the buffer is read-only
+     */
+    public void formatTo(TemporalAccessor temporal, ByteBuffer buffer) {
+        Jdk8Methods.requireNonNull(temporal, "temporal");
+        Jdk8Methods.requireNonNull(buffer, "buffer");
+        if (compiledPrinter != null) {
+            char[] chars = compiledPrinter.scratch();
+            int length = compiledPrinter.print(temporal, chars, 0);
+            if (length >= 0) {
+                copyAscii(chars, length, buffer);
+                return;
+            }
+        }
+        char[] chars = formatToBuilder(temporal).toString().toCharArray();
+        copyAscii(chars, chars.length, buffer);
+    }
+
+    private StringBuilder formatToBuilder(TemporalAccessor temporal) {
+        StringBuilder buf = new StringBuilder(32);
+        printerParser.print(new DateTimePrintContext(temporal, this), buf);
+        return buf;
+    }
+
+    private static int copy(char[] chars, int length, char[] buf, int offset) {
+        if (length > buf.length - offset) {
+            throw new IndexOutOfBoundsException("Formatted text does not fit: " + new String(chars, 0, length));
+        }
+        System.arraycopy(chars, 0, buf, offset, length);
+        return offset + length;
+    }
+
+    private static int copyAscii(char[] chars, int length, byte[] buf, int offset) {
+        if (length > buf.length - offset) {
+            throw new IndexOutOfBoundsException("Formatted text does not fit: " + new String(chars, 0, length));
+        }
+        checkAscii(chars, length);
+        for (int i = 0; i < length; i++) {
+            buf[offset + i] = (byte) chars[i];
+        }
+        return offset + length;
+    }
+
+    private static void copyAscii(char[] chars, int length, ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferOverflowException();
+        }
+        checkAscii(chars, length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) chars[i]);
+        }
+    }
+
+    private static void checkAscii(char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            if (chars[i] > 0x7F) {
+                throw new DateTimeException("Formatted text is not ASCII: " + new String(chars, 0, length));
+            }
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Fully parses the text producing a temporal object.
@@ -1549,14 +1728,100 @@ public final class DateTimeFormatter {
         }
     }
 
-    private DateTimeParseException createError(CharSequence text, RuntimeException ex) {
-        String abbr = "";
+    /**
+     * Fully parses a range of bytes producing an object of the specified type.
+     * <p>
+     * This parses ASCII or UTF-8 text in the same way as {@link #parse(CharSequence, TemporalQuery)}.
+     * ASCII text is parsed directly from the bytes without decoding it to a string.
+     * <p>
+     * If the parse completes without reading the entire range of bytes,
+     * or a problem occurs during parsing or merging, then an exception is thrown.
+     * The error index of a {@code DateTimeParseException} is the number of bytes
+     * from the offset to the error.
+     *
+     * @param <T> the type to extract
+     * @param bytes  the bytes of the text to parse, not null
+     * @param offset  the offset of the first byte of the text
+     * @param length  the number of bytes of the text
+     * @param type  the type to extract, not null
+     * @return the parsed date-time, not null
+     * @throws DateTimeParseException if unable to parse the requested result
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    public <T> T parse(byte[] bytes, int offset, int length, TemporalQuery<T> type) {
+        Jdk8Methods.requireNonNull(bytes, "bytes");
+        Jdk8Methods.requireNonNull(type, "type");
+        CharSequence text = ByteCharSequence.of(bytes, offset, length);
+        try {
+            DateTimeParseContext context = new DateTimeParseContext(this);
+            int end = parseBytes(context, text);
+            if (end < text.length()) {
+                int errorIndex = ByteCharSequence.byteIndex(text, end);
+                throw new DateTimeParseException("Text '" + abbreviate(text) + "' could not be parsed, unparsed text found at index " +
+                        errorIndex, text, errorIndex);
+            }
+            return context.toParsed().toBuilder().resolve(resolverStyle, resolverFields).build(type);
+        } catch (DateTimeParseException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw createError(text, ex);
+        }
+    }
+
+    /**
+     * Parses bytes from a buffer producing an object of the specified type.
+     * <p>
+     * This parses ASCII or UTF-8 text from the position of the buffer, in the same way
+     * as {@link #parse(CharSequence, TemporalQuery)} but without requiring all the bytes up
+     * to the limit to be parsed. If successful, the position of the buffer is moved to the
+     * end of the parsed text, otherwise it is unchanged.
+     * ASCII text is parsed directly from the buffer without decoding it to a string.
+     * <p>
+     * The error index of a {@code DateTimeParseException} is the number of bytes
+     * from the position to the error.
+     *
+     * @param <T> the type to extract
+     * @param buffer  the buffer of the text to parse, not null
+     * @param type  the type to extract, not null
+     * @return the parsed date-time, not null
+     * @throws DateTimeParseException if unable to parse the requested result
+     */
+    public <T> T parse(ByteBuffer buffer, TemporalQuery<T> type) {
+        Jdk8Methods.requireNonNull(buffer, "buffer");
+        Jdk8Methods.requireNonNull(type, "type");
+        CharSequence text = ByteCharSequence.of(buffer);
+        try {
+            DateTimeParseContext context = new DateTimeParseContext(this);
+            int end = parseBytes(context, text);
+            T result = context.toParsed().toBuilder().resolve(resolverStyle, resolverFields).build(type);
+            buffer.position(buffer.position() + ByteCharSequence.byteIndex(text, end));
+            return result;
+        } catch (DateTimeParseException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw createError(text, ex);
+        }
+    }
+
+    private int parseBytes(DateTimeParseContext context, CharSequence text) {
+        int pos = printerParser.parse(context, text, 0);
+        if (pos < 0) {
+            int errorIndex = ByteCharSequence.byteIndex(text, ~pos);
+            throw new DateTimeParseException("Text '" + abbreviate(text) + "' could not be parsed at index " +
+                    errorIndex, text, errorIndex);
+        }
+        return pos;
+    }
+
+    private static String abbreviate(CharSequence text) {
         if (text.length() > 64) {
-            abbr = text.subSequence(0, 64).toString() + "...";
-        } else {
-            abbr = text.toString();
+            return text.subSequence(0, 64).toString() + "...";
         }
-        return new DateTimeParseException("Text '" + abbr + "' could not be parsed: " + ex.getMessage(), text, 0, ex);
+        return text.toString();
+    }
+
+    private DateTimeParseException createError(CharSequence text, RuntimeException ex) {
+        return new DateTimeParseException("Text '" + abbreviate(text) + "' could not be parsed: " + ex.getMessage(), text, 0, ex);
     }
 
     //-----------------------------------------------------------------------
@@ -1577,12 +1842,7 @@ public final class DateTimeFormatter {
         ParsePosition pos = (position != null ? position : new ParsePosition(0));
         Parsed result = parseUnresolved0(text, pos);
         if (result == null || pos.getErrorIndex() >= 0 || (position == null && pos.getIndex() < text.length())) {
-            String abbr = "";
-            if (text.length() > 64) {
-                abbr = text.subSequence(0, 64).toString() + "...";
-            } else {
-                abbr = text.toString();
-            }
+            String abbr = abbreviate(text);
             if (pos.getErrorIndex() >= 0) {
                 throw new DateTimeParseException("Text '" + abbr + "' could not be parsed at index " +
                         pos.getErrorIndex(), text, pos.getErrorIndex());
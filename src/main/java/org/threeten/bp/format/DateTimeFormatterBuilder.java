@@ -34,12 +34,14 @@ package org.threeten.bp.format;
 import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
 import static org.threeten.bp.temporal.ChronoField.HOUR_OF_DAY;
 import static org.threeten.bp.temporal.ChronoField.INSTANT_SECONDS;
+import static org.threeten.bp.temporal.ChronoField.MILLI_OF_SECOND;
 import static org.threeten.bp.temporal.ChronoField.MINUTE_OF_HOUR;
 import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
 import static org.threeten.bp.temporal.ChronoField.NANO_OF_SECOND;
 import static org.threeten.bp.temporal.ChronoField.OFFSET_SECONDS;
 import static org.threeten.bp.temporal.ChronoField.SECOND_OF_MINUTE;
 import static org.threeten.bp.temporal.ChronoField.YEAR;
+import static org.threeten.bp.temporal.ChronoField.YEAR_OF_ERA;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -67,8 +69,12 @@ import org.threeten.bp.DateTimeException;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDate;
 import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.LocalTime;
+import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.OffsetTime;
 import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.ZonedDateTime;
 import org.threeten.bp.chrono.ChronoLocalDate;
 import org.threeten.bp.chrono.Chronology;
 import org.threeten.bp.format.SimpleDateTimeTextProvider.LocaleStore;
@@ -3860,6 +3866,485 @@ public final class DateTimeFormatterBuilder {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Prints fixed-layout formats directly from the common ISO date-time classes.
+     * <p>
+     * A formatter consisting only of literals, numeric ISO fields, nano-of-second fractions,
+     * offset IDs and instants is compiled into a program of int codes.
+     * Printing reads the fields straight from a {@code LocalDate}, {@code LocalTime},
+     * {@code LocalDateTime}, {@code OffsetTime}, {@code OffsetDateTime}, {@code ZonedDateTime}
+     * or {@code Instant} and writes the characters into an array, without a print context.
+     * <p>
+     * Any other temporal, or a value that would need a sign or extra digits, is left
+     * to the printer-parsers by returning a negative result, so the output and any
+     * exception are the same as the printer-parsers produce.
+     * The printer assumes the standard decimal style and no override chronology or zone.
+     */
+    static final class CompiledPrinter {
+        private static final int OP_LITERAL = 0;  // start and length in the literals
+        private static final int OP_NUMBER = 1;  // field and width
+        private static final int OP_FRACTION = 2;  // min width, max width and decimal point
+        private static final int OP_OFFSET = 3;  // type, start and length of the no offset text
+        private static final int OP_INSTANT = 4;  // fractional digits
+        private static final int OP_GROUP = 5;  // information required and end of the group
+
+        private static final int DATE = 1;
+        private static final int TIME = 2;
+        private static final int OFFSET = 4;
+        private static final int INSTANT = 8;
+
+        private static final TemporalField[] FIELDS = {
+            YEAR, YEAR_OF_ERA, MONTH_OF_YEAR, DAY_OF_MONTH,
+            HOUR_OF_DAY, MINUTE_OF_HOUR, SECOND_OF_MINUTE, NANO_OF_SECOND, MILLI_OF_SECOND,
+        };
+        private static final int[] POWERS = {
+            1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000,
+        };
+        // the instants printed with four digit years
+        private static final long SECONDS_0000_TO_1970 = InstantPrinterParser.SECONDS_0000_TO_1970;
+        private static final long SECONDS_1970_TO_10000 = InstantPrinterParser.SECONDS_PER_10000_YEARS - SECONDS_0000_TO_1970;
+
+        // the array each thread prints into before copying to the destination
+        private static final ThreadLocal<char[]> SCRATCH = new ThreadLocal<char[]>() {
+            @Override
+            protected char[] initialValue() {
+                return new char[64];
+            }
+        };
+
+        private final int[] program;
+        private final char[] literals;
+        private final int required;
+        private final int maxLength;
+
+        private CompiledPrinter(int[] program, char[] literals, int required, int maxLength) {
+            this.program = program;
+            this.literals = literals;
+            this.required = required;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Compiles the printer-parser.
+         *
+         * @param printerParser  the printer-parser to compile, not null
+         * @return the compiled printer, null if the layout is not supported
+         */
+        static CompiledPrinter compile(CompositePrinterParser printerParser) {
+            Compiler compiler = new Compiler();
+            int required = compiler.compile(printerParser, false);
+            if (required < 0) {
+                return null;
+            }
+            int[] program = new int[compiler.size];
+            System.arraycopy(compiler.program, 0, program, 0, compiler.size);
+            return new CompiledPrinter(program, compiler.literals.toString().toCharArray(), required, compiler.maxLength);
+        }
+
+        /**
+         * Gets the maximum number of characters printed.
+         *
+         * @return the maximum length
+         */
+        int maxLength() {
+            return maxLength;
+        }
+
+        /**
+         * Gets the array of the current thread that is large enough to print into.
+         * <p>
+         * The same array is returned to each call on a thread, so the contents
+         * must be used before the next call.
+         *
+         * @return the scratch array, not null
+         */
+        char[] scratch() {
+            char[] buf = SCRATCH.get();
+            if (buf.length < maxLength) {
+                buf = new char[maxLength];
+                SCRATCH.set(buf);
+            }
+            return buf;
+        }
+
+        /**
+         * Prints the temporal into the array.
+         * <p>
+         * The array must have at least {@link #maxLength()} characters from the position.
+         * If the result is negative, characters after the position may have been altered.
+         *
+         * @param temporal  the temporal to print, null returns a negative result
+         * @param buf  the array to print into, not null
+         * @param pos  the position to print at
+         * @return the position after the printed text, negative if the printer-parsers must be used
+         */
+        int print(TemporalAccessor temporal, char[] buf, int pos) {
+            int year = 0;
+            int month = 0;
+            int day = 0;
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            int nano = 0;
+            int offsetSecs = 0;
+            long epochSec = 0;
+            int available;
+            if (temporal instanceof LocalDateTime) {
+                LocalDateTime dt = (LocalDateTime) temporal;
+                year = dt.getYear();
+                month = dt.getMonthValue();
+                day = dt.getDayOfMonth();
+                hour = dt.getHour();
+                minute = dt.getMinute();
+                second = dt.getSecond();
+                nano = dt.getNano();
+                available = DATE | TIME;
+            } else if (temporal instanceof LocalDate) {
+                LocalDate date = (LocalDate) temporal;
+                year = date.getYear();
+                month = date.getMonthValue();
+                day = date.getDayOfMonth();
+                available = DATE;
+            } else if (temporal instanceof OffsetDateTime || temporal instanceof ZonedDateTime) {
+                LocalDateTime dt;
+                ZoneOffset offset;
+                if (temporal instanceof OffsetDateTime) {
+                    dt = ((OffsetDateTime) temporal).toLocalDateTime();
+                    offset = ((OffsetDateTime) temporal).getOffset();
+                } else {
+                    dt = ((ZonedDateTime) temporal).toLocalDateTime();
+                    offset = ((ZonedDateTime) temporal).getOffset();
+                }
+                year = dt.getYear();
+                month = dt.getMonthValue();
+                day = dt.getDayOfMonth();
+                hour = dt.getHour();
+                minute = dt.getMinute();
+                second = dt.getSecond();
+                nano = dt.getNano();
+                offsetSecs = offset.getTotalSeconds();
+                epochSec = dt.toEpochSecond(offset);
+                available = DATE | TIME | OFFSET | INSTANT;
+            } else if (temporal instanceof Instant) {
+                Instant instant = (Instant) temporal;
+                epochSec = instant.getEpochSecond();
+                nano = instant.getNano();
+                available = INSTANT;
+            } else if (temporal instanceof LocalTime) {
+                LocalTime time = (LocalTime) temporal;
+                hour = time.getHour();
+                minute = time.getMinute();
+                second = time.getSecond();
+                nano = time.getNano();
+                available = TIME;
+            } else if (temporal instanceof OffsetTime) {
+                LocalTime time = ((OffsetTime) temporal).toLocalTime();
+                hour = time.getHour();
+                minute = time.getMinute();
+                second = time.getSecond();
+                nano = time.getNano();
+                offsetSecs = ((OffsetTime) temporal).getOffset().getTotalSeconds();
+                available = TIME | OFFSET;
+            } else {
+                return -1;
+            }
+            if ((available & required) != required) {
+                return -1;  // the printer-parsers throw the exception
+            }
+
+            int[] program = this.program;
+            int i = 0;
+            while (i < program.length) {
+                switch (program[i]) {
+                    case OP_LITERAL: {
+                        int length = program[i + 2];
+                        System.arraycopy(literals, program[i + 1], buf, pos, length);
+                        pos += length;
+                        i += 3;
+                        break;
+                    }
+                    case OP_NUMBER: {
+                        int value;
+                        switch (program[i + 1]) {
+                            case 0: value = year; break;
+                            case 1: value = (year >= 1 ? year : 1 - year); break;
+                            case 2: value = month; break;
+                            case 3: value = day; break;
+                            case 4: value = hour; break;
+                            case 5: value = minute; break;
+                            case 6: value = second; break;
+                            case 7: value = nano; break;
+                            default: value = nano / 1000000; break;
+                        }
+                        int width = program[i + 2];
+                        if (value < 0 || value >= POWERS[width]) {
+                            return -1;  // needs a sign or more digits
+                        }
+                        pos = printDigits(buf, pos, value, width);
+                        i += 3;
+                        break;
+                    }
+                    case OP_FRACTION:
+                        pos = printFraction(buf, pos, nano, program[i + 1], program[i + 2], program[i + 3] != 0);
+                        i += 4;
+                        break;
+                    case OP_OFFSET:
+                        pos = printOffset(buf, pos, offsetSecs, program[i + 1], program[i + 2], program[i + 3]);
+                        i += 4;
+                        break;
+                    case OP_INSTANT:
+                        pos = printInstant(buf, pos, epochSec, nano, program[i + 1]);
+                        if (pos < 0) {
+                            return -1;
+                        }
+                        i += 2;
+                        break;
+                    default:
+                        // an optional group is skipped if the information is unavailable
+                        int groupRequired = program[i + 1];
+                        i = ((available & groupRequired) == groupRequired ? i + 3 : program[i + 2]);
+                        break;
+                }
+            }
+            return pos;
+        }
+
+        private static int printDigits(char[] buf, int pos, int value, int width) {
+            for (int i = pos + width - 1; i >= pos; i--) {
+                buf[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return pos + width;
+        }
+
+        // matches FractionPrinterParser for nano-of-second
+        private static int printFraction(char[] buf, int pos, int nano, int minWidth, int maxWidth, boolean decimalPoint) {
+            if (nano == 0) {
+                if (minWidth > 0) {
+                    if (decimalPoint) {
+                        buf[pos++] = '.';
+                    }
+                    for (int i = 0; i < minWidth; i++) {
+                        buf[pos++] = '0';
+                    }
+                }
+                return pos;
+            }
+            int scale = 9;
+            for (int value = nano; value % 10 == 0; value /= 10) {
+                scale--;
+            }
+            int outputScale = Math.min(Math.max(scale, minWidth), maxWidth);
+            if (decimalPoint) {
+                buf[pos++] = '.';
+            }
+            return printDigits(buf, pos, nano / POWERS[9 - outputScale], outputScale);
+        }
+
+        // matches OffsetIdPrinterParser
+        private int printOffset(char[] buf, int pos, int totalSecs, int type, int noOffsetStart, int noOffsetLength) {
+            int absHours = Math.abs((totalSecs / 3600) % 100);
+            int absMinutes = Math.abs((totalSecs / 60) % 60);
+            int absSeconds = Math.abs(totalSecs % 60);
+            boolean printMinutes = (type >= 3 || (type >= 1 && absMinutes > 0));
+            boolean printSeconds = printMinutes && (type >= 7 || (type >= 5 && absSeconds > 0));
+            if (totalSecs == 0 || absHours + (printMinutes ? absMinutes : 0) + (printSeconds ? absSeconds : 0) == 0) {
+                System.arraycopy(literals, noOffsetStart, buf, pos, noOffsetLength);
+                return pos + noOffsetLength;
+            }
+            buf[pos++] = (totalSecs < 0 ? '-' : '+');
+            pos = printDigits(buf, pos, absHours, 2);
+            if (printMinutes) {
+                if (type % 2 == 0) {
+                    buf[pos++] = ':';
+                }
+                pos = printDigits(buf, pos, absMinutes, 2);
+                if (printSeconds) {
+                    if (type % 2 == 0) {
+                        buf[pos++] = ':';
+                    }
+                    pos = printDigits(buf, pos, absSeconds, 2);
+                }
+            }
+            return pos;
+        }
+
+        // matches InstantPrinterParser for years from 0 to 9999
+        private static int printInstant(char[] buf, int pos, long epochSec, int nano, int fractionalDigits) {
+            if (epochSec < -SECONDS_0000_TO_1970 || epochSec >= SECONDS_1970_TO_10000) {
+                return -1;
+            }
+            long epochDay = Jdk8Methods.floorDiv(epochSec, 86400);
+            int secsOfDay = Jdk8Methods.floorMod(epochSec, 86400);
+            int date = packDate(epochDay);
+            pos = printDigits(buf, pos, date / 10000, 4);
+            buf[pos++] = '-';
+            pos = printDigits(buf, pos, (date / 100) % 100, 2);
+            buf[pos++] = '-';
+            pos = printDigits(buf, pos, date % 100, 2);
+            buf[pos++] = 'T';
+            pos = printDigits(buf, pos, secsOfDay / 3600, 2);
+            buf[pos++] = ':';
+            pos = printDigits(buf, pos, (secsOfDay / 60) % 60, 2);
+            buf[pos++] = ':';
+            pos = printDigits(buf, pos, secsOfDay % 60, 2);
+            if (fractionalDigits == -2) {
+                if (nano != 0) {
+                    buf[pos++] = '.';
+                    if (nano % 1000000 == 0) {
+                        pos = printDigits(buf, pos, nano / 1000000, 3);
+                    } else if (nano % 1000 == 0) {
+                        pos = printDigits(buf, pos, nano / 1000, 6);
+                    } else {
+                        pos = printDigits(buf, pos, nano, 9);
+                    }
+                }
+            } else if (fractionalDigits > 0 || (fractionalDigits == -1 && nano > 0)) {
+                buf[pos++] = '.';
+                int div = 100000000;
+                for (int i = 0; ((fractionalDigits == -1 && nano > 0) || i < fractionalDigits); i++) {
+                    int digit = nano / div;
+                    buf[pos++] = (char) (digit + '0');
+                    nano = nano - (digit * div);
+                    div = div / 10;
+                }
+            }
+            buf[pos++] = 'Z';
+            return pos;
+        }
+
+        /**
+         * Converts an epoch-day to a date packed as year * 10000 + month * 100 + day.
+         * <p>
+         * This matches {@link LocalDate#ofEpochDay(long)} without creating the date,
+         * and is only valid for years from 0 to 9999.
+         *
+         * @param epochDay  the epoch-day
+         * @return the packed date
+         */
+        private static int packDate(long epochDay) {
+            long zeroDay = epochDay + SECONDS_0000_TO_1970 / 86400 - 60;
+            long adjust = 0;
+            if (zeroDay < 0) {
+                long adjustCycles = (zeroDay + 1) / 146097 - 1;
+                adjust = adjustCycles * 400;
+                zeroDay += -adjustCycles * 146097;
+            }
+            long yearEst = (400 * zeroDay + 591) / 146097;
+            long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+            if (doyEst < 0) {
+                yearEst--;
+                doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+            }
+            yearEst += adjust;
+            int marchDoy0 = (int) doyEst;
+            int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+            int month = (marchMonth0 + 2) % 12 + 1;
+            int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+            yearEst += marchMonth0 / 10;
+            return (int) yearEst * 10000 + month * 100 + dom;
+        }
+
+        /**
+         * Compiles printer-parsers into a program.
+         */
+        private static final class Compiler {
+            private int[] program = new int[32];
+            private int size;
+            private final StringBuilder literals = new StringBuilder();
+            private int maxLength;
+
+            /**
+             * Compiles a composite, as a group if it is in an optional section.
+             *
+             * @return the information required by the composite, negative if not supported
+             */
+            int compile(CompositePrinterParser composite, boolean inOptional) {
+                if (inOptional || composite.optional) {
+                    int start = size;
+                    emit(OP_GROUP, 0, 0);
+                    int required = compileChildren(composite, true);
+                    if (required < 0) {
+                        return -1;
+                    }
+                    program[start + 1] = required;
+                    program[start + 2] = size;
+                    return 0;  // a failing group prints nothing
+                }
+                return compileChildren(composite, false);
+            }
+
+            private int compileChildren(CompositePrinterParser composite, boolean inOptional) {
+                int required = 0;
+                for (DateTimePrinterParser pp : composite.printerParsers) {
+                    int childRequired = (pp instanceof CompositePrinterParser ?
+                            compile((CompositePrinterParser) pp, inOptional) : compileLeaf(pp));
+                    if (childRequired < 0) {
+                        return -1;
+                    }
+                    required |= childRequired;
+                }
+                return required;
+            }
+
+            private int compileLeaf(DateTimePrinterParser pp) {
+                if (pp instanceof SettingsParser || pp instanceof DefaultingParser) {
+                    return 0;
+                } else if (pp instanceof CharLiteralPrinterParser) {
+                    emitLiteral(String.valueOf(((CharLiteralPrinterParser) pp).literal));
+                    return 0;
+                } else if (pp instanceof StringLiteralPrinterParser) {
+                    emitLiteral(((StringLiteralPrinterParser) pp).literal);
+                    return 0;
+                } else if (pp.getClass() == NumberPrinterParser.class) {
+                    NumberPrinterParser npp = (NumberPrinterParser) pp;
+                    for (int i = 0; i < FIELDS.length; i++) {
+                        if (FIELDS[i] == npp.field && npp.minWidth <= 9 && npp.signStyle != SignStyle.ALWAYS) {
+                            emit(OP_NUMBER, i, npp.minWidth);
+                            maxLength += npp.minWidth;
+                            return (i < 4 ? DATE : TIME);
+                        }
+                    }
+                } else if (pp instanceof FractionPrinterParser) {
+                    FractionPrinterParser fpp = (FractionPrinterParser) pp;
+                    if (fpp.field == NANO_OF_SECOND) {
+                        emit(OP_FRACTION, fpp.minWidth, fpp.maxWidth, fpp.decimalPoint ? 1 : 0);
+                        maxLength += fpp.maxWidth + 1;
+                        return TIME;
+                    }
+                } else if (pp instanceof OffsetIdPrinterParser) {
+                    OffsetIdPrinterParser opp = (OffsetIdPrinterParser) pp;
+                    emit(OP_OFFSET, opp.type, literals.length(), opp.noOffsetText.length());
+                    literals.append(opp.noOffsetText);
+                    maxLength += Math.max(9, opp.noOffsetText.length());
+                    return OFFSET;
+                } else if (pp instanceof InstantPrinterParser) {
+                    emit(OP_INSTANT, ((InstantPrinterParser) pp).fractionalDigits);
+                    maxLength += 30;
+                    return INSTANT;
+                }
+                return -1;
+            }
+
+            private void emitLiteral(String literal) {
+                emit(OP_LITERAL, literals.length(), literal.length());
+                literals.append(literal);
+                maxLength += literal.length();
+            }
+
+            private void emit(int... codes) {
+                if (size + codes.length > program.length) {
+                    int[] expanded = new int[program.length * 2];
+                    System.arraycopy(program, 0, expanded, 0, size);
+                    program = expanded;
+                }
+                System.arraycopy(codes, 0, program, size, codes.length);
+                size += codes.length;
+            }
+        }
+    }
+
     //-------------------------------------------------------------------------
     /**
      * Length comparator.
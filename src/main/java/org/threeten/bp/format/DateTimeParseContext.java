@@ -32,10 +32,8 @@
 package org.threeten.bp.format;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import org.threeten.bp.Period;
 import org.threeten.bp.ZoneId;
@@ -44,6 +42,7 @@ import org.threeten.bp.chrono.IsoChronology;
 import org.threeten.bp.format.DateTimeFormatterBuilder.ReducedPrinterParser;
 import org.threeten.bp.jdk8.DefaultInterfaceTemporalAccessor;
 import org.threeten.bp.jdk8.Jdk8Methods;
+import org.threeten.bp.temporal.ChronoField;
 import org.threeten.bp.temporal.TemporalField;
 import org.threeten.bp.temporal.TemporalQueries;
 import org.threeten.bp.temporal.TemporalQuery;
@@ -342,7 +341,14 @@ final class DateTimeParseContext {
      */
     int setParsedField(TemporalField field, long value, int errorPos, int successPos) {
         Jdk8Methods.requireNonNull(field, "field");
-        Long old = currentParsed().fieldValues.put(field, value);
+        FieldValueMap fieldValues = currentParsed().fieldValues;
+        if (field instanceof ChronoField) {
+            ChronoField chronoField = (ChronoField) field;
+            boolean conflict = fieldValues.contains(chronoField) && fieldValues.getValue(chronoField) != value;
+            fieldValues.putValue(chronoField, value);
+            return conflict ? ~errorPos : successPos;
+        }
+        Long old = fieldValues.put(field, value);
         return (old != null && old.longValue() != value) ? ~errorPos : successPos;
     }
 
@@ -425,7 +431,7 @@ final class DateTimeParseContext {
     final class Parsed extends DefaultInterfaceTemporalAccessor {
         Chronology chrono = null;
         ZoneId zone = null;
-        final Map<TemporalField, Long> fieldValues = new HashMap<TemporalField, Long>();
+        final FieldValueMap fieldValues = new FieldValueMap();
         boolean leapSecond;
         Period excessDays = Period.ZERO;
         List<Object[]> callbacks;
@@ -450,14 +456,13 @@ final class DateTimeParseContext {
         }
         @Override
         public int get(TemporalField field) {
-            if (fieldValues.containsKey(field) == false) {
-                throw new UnsupportedTemporalTypeException("Unsupported field: " + field);
-            }
-            long value = fieldValues.get(field);
-            return Jdk8Methods.safeToInt(value);
+            return Jdk8Methods.safeToInt(getLong(field));
         }
         @Override
         public long getLong(TemporalField field) {
+            if (field instanceof ChronoField && fieldValues.contains((ChronoField) field)) {
+                return fieldValues.getValue((ChronoField) field);
+            }
             if (fieldValues.containsKey(field) == false) {
                 throw new UnsupportedTemporalTypeException("Unsupported field: " + field);
             }
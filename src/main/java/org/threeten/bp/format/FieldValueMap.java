@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.threeten.bp.temporal.ChronoField;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * A map of field to value that stores the values of {@code ChronoField} in an array.
+ * <p>
+ * Parsing and resolving mostly use the standard fields, so their values are held
+ * in an array indexed by ordinal with a bitmask of those present, avoiding boxing
+ * and hashing. Copying a map is then an array copy.
+ * Other fields are held in a separate hash map, created when first needed.
+ * <p>
+ * Iteration returns the {@code ChronoField} entries in ordinal order followed by any others.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is mutable and not thread-safe.
+ */
+final class FieldValueMap extends AbstractMap<TemporalField, Long> {
+
+    /**
+     * The standard fields, by ordinal.
+     */
+    private static final ChronoField[] FIELDS = ChronoField.values();
+    static {
+        if (FIELDS.length > 64) {
+            throw new IllegalStateException("Too many fields for the bitmask");
+        }
+    }
+
+    /**
+     * The values of the standard fields, by ordinal.
+     */
+    private final long[] values = new long[FIELDS.length];
+    /**
+     * The bitmask of the standard fields present, by ordinal.
+     */
+    private long present;
+    /**
+     * The values of other fields, null if none have been added.
+     */
+    private Map<TemporalField, Long> others;
+    /**
+     * The entry set view, created when first needed.
+     */
+    private Set<Entry<TemporalField, Long>> entrySet;
+
+    /**
+     * Constructs an empty map.
+     */
+    FieldValueMap() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if the standard field is present.
+     *
+     * @param field  the field to check, not null
+     * @return true if the field has a value
+     */
+    boolean contains(ChronoField field) {
+        return (present & (1L << field.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the value of a standard field that is present.
+     *
+     * @param field  the field to get, not null
+     * @return the value of the field, undefined if not present
+     */
+    long getValue(ChronoField field) {
+        return values[field.ordinal()];
+    }
+
+    /**
+     * Sets the value of a field, only boxing the value if it is not a standard field.
+     *
+     * @param field  the field to set, not null
+     * @param value  the value to set
+     */
+    void putValue(TemporalField field, long value) {
+        if (field instanceof ChronoField) {
+            int ordinal = ((ChronoField) field).ordinal();
+            values[ordinal] = value;
+            present |= (1L << ordinal);
+        } else {
+            if (others == null) {
+                others = new HashMap<TemporalField, Long>();
+            }
+            others.put(field, value);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public int size() {
+        return Long.bitCount(present) + (others != null ? others.size() : 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof ChronoField) {
+            return contains((ChronoField) key);
+        }
+        return others != null && others.containsKey(key);
+    }
+
+    @Override
+    public Long get(Object key) {
+        if (key instanceof ChronoField) {
+            ChronoField field = (ChronoField) key;
+            return (contains(field) ? Long.valueOf(values[field.ordinal()]) : null);
+        }
+        return (others != null ? others.get(key) : null);
+    }
+
+    @Override
+    public Long put(TemporalField key, Long value) {
+        Long old = get(key);
+        putValue(key, value);
+        return old;
+    }
+
+    @Override
+    public Long remove(Object key) {
+        if (key instanceof ChronoField) {
+            ChronoField field = (ChronoField) key;
+            Long old = get(field);
+            present &= ~(1L << field.ordinal());
+            return old;
+        }
+        return (others != null ? others.remove(key) : null);
+    }
+
+    @Override
+    public void putAll(Map<? extends TemporalField, ? extends Long> map) {
+        if (map instanceof FieldValueMap) {
+            FieldValueMap other = (FieldValueMap) map;
+            if (present == 0) {
+                System.arraycopy(other.values, 0, values, 0, values.length);
+            } else {
+                for (int i = 0; i < values.length; i++) {
+                    if ((other.present & (1L << i)) != 0) {
+                        values[i] = other.values[i];
+                    }
+                }
+            }
+            present |= other.present;
+            if (other.others != null && other.others.isEmpty() == false) {
+                if (others == null) {
+                    others = new HashMap<TemporalField, Long>();
+                }
+                others.putAll(other.others);
+            }
+        } else {
+            super.putAll(map);
+        }
+    }
+
+    @Override
+    public void clear() {
+        present = 0;
+        others = null;
+    }
+
+    @Override
+    public Set<Entry<TemporalField, Long>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<TemporalField, Long>>() {
+                @Override
+                public Iterator<Entry<TemporalField, Long>> iterator() {
+                    return new EntryIterator();
+                }
+                @Override
+                public int size() {
+                    return FieldValueMap.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Iterates over the standard fields present and then the other fields.
+     */
+    private final class EntryIterator implements Iterator<Entry<TemporalField, Long>> {
+        private int nextIndex = nextPresent(0);
+        private int lastIndex = -1;
+        private Iterator<Entry<TemporalField, Long>> otherIterator;
+
+        private int nextPresent(int index) {
+            while (index < FIELDS.length && (present & (1L << index)) == 0) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextIndex < FIELDS.length) {
+                return true;
+            }
+            if (otherIterator == null) {
+                if (others == null) {
+                    return false;
+                }
+                otherIterator = others.entrySet().iterator();
+            }
+            return otherIterator.hasNext();
+        }
+
+        @Override
+        public Entry<TemporalField, Long> next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            if (nextIndex < FIELDS.length) {
+                lastIndex = nextIndex;
+                nextIndex = nextPresent(nextIndex + 1);
+                return new StandardEntry(FIELDS[lastIndex]);
+            }
+            lastIndex = FIELDS.length;
+            return otherIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            if (lastIndex < FIELDS.length) {
+                present &= ~(1L << lastIndex);
+            } else {
+                otherIterator.remove();
+            }
+            lastIndex = -1;
+        }
+    }
+
+    /**
+     * An entry for a standard field, writing through to the array.
+     */
+    private final class StandardEntry extends SimpleEntry<TemporalField, Long> {
+        private static final long serialVersionUID = 1L;
+
+        StandardEntry(ChronoField field) {
+            super(field, values[field.ordinal()]);
+        }
+
+        @Override
+        public Long setValue(Long value) {
+            values[((ChronoField) getKey()).ordinal()] = value;
+            return super.setValue(value);
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A filter of region IDs, used to restrict the regions that are compiled or loaded.
+ * <p>
+ * Each pattern is either a region ID, such as 'Europe/London', or a prefix followed
+ * by an asterisk, such as 'Europe/*'. A region ID matches the filter if it matches
+ * any include pattern, or there are no include patterns, and it matches no exclude pattern.
+ * Links, such as 'US/Eastern', are regions in their own right and must match separately.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is immutable and thread-safe.
+ */
+final class RegionFilter {
+
+    /**
+     * The system property defining the comma separated patterns of the regions to include.
+     */
+    static final String INCLUDE_PROPERTY = "org.threeten.bp.zone.TzdbZoneRulesProvider.include";
+    /**
+     * The system property defining the comma separated patterns of the regions to exclude.
+     */
+    static final String EXCLUDE_PROPERTY = "org.threeten.bp.zone.TzdbZoneRulesProvider.exclude";
+    /**
+     * A filter matching all regions.
+     */
+    static final RegionFilter ALL = new RegionFilter(new String[0], new String[0]);
+
+    /**
+     * The include patterns.
+     */
+    private final String[] includes;
+    /**
+     * The exclude patterns.
+     */
+    private final String[] excludes;
+
+    /**
+     * Obtains a filter from collections of patterns.
+     *
+     * @param includes  the patterns to include, empty or null to include all
+     * @param excludes  the patterns to exclude, empty or null to exclude none
+     * @return the filter, not null
+     */
+    static RegionFilter of(Collection<String> includes, Collection<String> excludes) {
+        String[] includeArray = toArray(includes);
+        String[] excludeArray = toArray(excludes);
+        if (includeArray.length == 0 && excludeArray.length == 0) {
+            return ALL;
+        }
+        return new RegionFilter(includeArray, excludeArray);
+    }
+
+    /**
+     * Obtains a filter from comma separated patterns.
+     *
+     * @param includes  the comma separated patterns to include, empty or null to include all
+     * @param excludes  the comma separated patterns to exclude, empty or null to exclude none
+     * @return the filter, not null
+     */
+    static RegionFilter parse(String includes, String excludes) {
+        return of(split(includes), split(excludes));
+    }
+
+    /**
+     * Obtains a filter from the system properties.
+     *
+     * @return the filter, not null
+     */
+    static RegionFilter ofSystemProperties() {
+        try {
+            return parse(System.getProperty(INCLUDE_PROPERTY), System.getProperty(EXCLUDE_PROPERTY));
+        } catch (SecurityException ex) {
+            return ALL;
+        }
+    }
+
+    private static List<String> split(String patterns) {
+        List<String> list = new ArrayList<String>();
+        if (patterns != null) {
+            for (String pattern : patterns.split(",")) {
+                list.add(pattern);
+            }
+        }
+        return list;
+    }
+
+    private static String[] toArray(Collection<String> patterns) {
+        List<String> list = new ArrayList<String>();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern != null && pattern.trim().length() > 0) {
+                    list.add(pattern.trim());
+                }
+            }
+        }
+        return list.toArray(new String[list.size()]);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param includes  the include patterns, not null
+     * @param excludes  the exclude patterns, not null
+     */
+    private RegionFilter(String[] includes, String[] excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if this filter matches all regions.
+     *
+     * @return true if all regions match
+     */
+    boolean isAll() {
+        return includes.length == 0 && excludes.length == 0;
+    }
+
+    /**
+     * Checks if the region ID matches this filter.
+     *
+     * @param regionId  the region ID, not null
+     * @return true if the region matches
+     */
+    boolean matches(String regionId) {
+        return (includes.length == 0 || matchesAny(includes, regionId)) && matchesAny(excludes, regionId) == false;
+    }
+
+    private static boolean matchesAny(String[] patterns, String regionId) {
+        for (String pattern : patterns) {
+            if (pattern.endsWith("*")) {
+                if (regionId.startsWith(pattern.substring(0, pattern.length() - 1))) {
+                    return true;
+                }
+            } else if (pattern.equals(regionId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "RegionFilter[include=" + Arrays.toString(includes) + ", exclude=" + Arrays.toString(excludes) + "]";
+    }
+
+}
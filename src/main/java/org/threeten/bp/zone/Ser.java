@@ -31,14 +31,17 @@
  */
 package org.threeten.bp.zone;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.InvalidClassException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.StreamCorruptedException;
+import java.util.concurrent.ConcurrentMap;
 
 import org.threeten.bp.ZoneOffset;
 
@@ -63,6 +66,8 @@ final class Ser implements Externalizable {
     static final byte ZOT = 2;
     /** Type for ZoneOffsetTransition. */
     static final byte ZOTRULE = 3;
+    /** Type for StandardZoneRules in the dense format. */
+    static final byte SZR_DENSE = 5;
 
     /** The type being serialized. */
     private byte type;
@@ -100,12 +105,19 @@ final class Ser implements Externalizable {
         writeInternal(SZR, object, out);
     }
 
+    static void writeDense(Object object, DataOutput out) throws IOException {
+        writeInternal(SZR_DENSE, object, out);
+    }
+
     private static void writeInternal(byte type, Object object, DataOutput out) throws IOException {
         out.writeByte(type);
         switch (type) {
             case SZR:
                 ((StandardZoneRules) object).writeExternal(out);
                 break;
+            case SZR_DENSE:
+                ((StandardZoneRules) object).writeExternalDense(out);
+                break;
             case ZOT:
                 ((ZoneOffsetTransition) object).writeExternal(out);
                 break;
@@ -125,18 +137,25 @@ final class Ser implements Externalizable {
      */
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         type = in.readByte();
-        object = readInternal(type, in);
+        object = readInternal(type, in, null);
     }
 
     static Object read(DataInput in) throws IOException, ClassNotFoundException {
+        return read(in, null);
+    }
+
+    static Object read(DataInput in, ConcurrentMap<Object, Object> deduplicateMap) throws IOException, ClassNotFoundException {
         byte type = in.readByte();
-        return readInternal(type, in);
+        return readInternal(type, in, deduplicateMap);
     }
 
-    private static Object readInternal(byte type, DataInput in) throws IOException, ClassNotFoundException {
+    private static Object readInternal(byte type, DataInput in, ConcurrentMap<Object, Object> deduplicateMap)
+            throws IOException, ClassNotFoundException {
         switch (type) {
             case SZR:
-                return StandardZoneRules.readExternal(in);
+                return StandardZoneRules.readExternal(in, deduplicateMap);
+            case SZR_DENSE:
+                return StandardZoneRules.readExternalDense(in, deduplicateMap);
             case ZOT:
                 return ZoneOffsetTransition.readExternal(in);
             case ZOTRULE:
@@ -223,4 +242,220 @@ final class Ser implements Externalizable {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Writes a signed value to the stream using a variable number of bytes.
+     * <p>
+     * The value is zig-zag encoded, so values close to zero use fewer bytes.
+     *
+     * @param value  the value to write
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeVarLong(long value, DataOutput out) throws IOException {
+        writeUnsignedVarLong((value << 1) ^ (value >> 63), out);
+    }
+
+    /**
+     * Reads a signed value written by {@link #writeVarLong(long, DataOutput)}.
+     *
+     * @param in  the input stream, not null
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    static long readVarLong(DataInput in) throws IOException {
+        return decodeZigZag(readUnsignedVarLong(in));
+    }
+
+    /**
+     * Decodes a zig-zag encoded value.
+     *
+     * @param zigzag  the encoded value
+     * @return the signed value
+     */
+    private static long decodeZigZag(long zigzag) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Writes an unsigned value to the stream using a variable number of bytes.
+     * <p>
+     * The value is written seven bits per byte, low bits first, with the top bit
+     * of each byte set if more bytes follow.
+     *
+     * @param value  the value to write, treated as unsigned
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeUnsignedVarLong(long value, DataOutput out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads an unsigned value written by {@link #writeUnsignedVarLong(long, DataOutput)}.
+     *
+     * @param in  the input stream, not null
+     * @return the value, treated as unsigned
+     * @throws IOException if an error occurs
+     */
+    static long readUnsignedVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Invalid variable length value");
+    }
+
+    /**
+     * Writes the values of an array of sorted epoch seconds, without the size.
+     * <p>
+     * The first value is written in full, the rest as the difference from the previous value.
+     * Each difference is written in hours if possible, with the low bit set if it is in seconds.
+     * As most transitions are on the hour, a difference of up to two years typically takes two bytes.
+     *
+     * @param epochSecs  the sorted epoch seconds, not null
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    private static void writeEpochSecValues(long[] epochSecs, DataOutput out) throws IOException {
+        for (int i = 0; i < epochSecs.length; i++) {
+            if (i == 0) {
+                writeVarLong(epochSecs[0], out);
+            } else {
+                writeEpochSecDelta(epochSecs[i - 1], epochSecs[i], out);
+            }
+        }
+    }
+
+    /**
+     * Writes the difference between two sorted epoch seconds, in hours if possible.
+     *
+     * @param previous  the previous epoch second
+     * @param epochSec  the epoch second, not less than the previous one
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    private static void writeEpochSecDelta(long previous, long epochSec, DataOutput out) throws IOException {
+        long delta = epochSec - previous;
+        if (delta < 0) {
+            throw new IllegalArgumentException("Epoch seconds must be sorted");
+        }
+        if (delta % 3600 == 0) {
+            writeUnsignedVarLong((delta / 3600) << 1, out);
+        } else {
+            writeUnsignedVarLong((delta << 1) | 1, out);
+        }
+    }
+
+    /**
+     * Decodes a difference written by {@link #writeEpochSecDelta(long, long, DataOutput)}.
+     *
+     * @param token  the value that was written
+     * @return the difference in seconds
+     */
+    private static long decodeEpochSecDelta(long token) {
+        return ((token & 1) == 0 ? (token >>> 1) * 3600 : token >>> 1);
+    }
+
+    /**
+     * Writes arrays of sorted epoch seconds to the stream as a single block of bytes.
+     * <p>
+     * The values are encoded as by {@link #writeEpochSecValues(long[], DataOutput)},
+     * without the sizes, which must be written separately.
+     * The block is preceded by its length, allowing it to be read in one call.
+     *
+     * @param out  the output stream, not null
+     * @param arrays  the sorted epoch seconds, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeEpochSecBlock(DataOutput out, long[]... arrays) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+        DataOutputStream block = new DataOutputStream(baos);
+        for (long[] epochSecs : arrays) {
+            writeEpochSecValues(epochSecs, block);
+        }
+        block.flush();
+        writeUnsignedVarLong(baos.size(), out);
+        out.write(baos.toByteArray());
+    }
+
+    /**
+     * Reads a block written by {@link #writeEpochSecBlock(DataOutput, long[]...)}.
+     * <p>
+     * The block is read in one call and decoded from memory.
+     *
+     * @param in  the input stream, not null
+     * @param arrays  the arrays to fill, sized to match those written, not null
+     * @throws IOException if an error occurs
+     */
+    static void readEpochSecBlock(DataInput in, long[]... arrays) throws IOException {
+        long length = readUnsignedVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Invalid epoch seconds");
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        ByteBlock block = new ByteBlock(bytes);
+        for (long[] epochSecs : arrays) {
+            for (int i = 0; i < epochSecs.length; i++) {
+                if (i == 0) {
+                    epochSecs[0] = decodeZigZag(block.readUnsignedVarLong());
+                } else {
+                    epochSecs[i] = epochSecs[i - 1] + decodeEpochSecDelta(block.readUnsignedVarLong());
+                }
+            }
+        }
+        if (block.isFullyRead() == false) {
+            throw new StreamCorruptedException("Invalid epoch seconds");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * A block of bytes held in memory that variable length values are read from.
+     */
+    private static final class ByteBlock {
+        /** The bytes. */
+        private final byte[] bytes;
+        /** The position of the next byte to read. */
+        private int pos;
+
+        ByteBlock(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Reads an unsigned value as written by {@link Ser#writeUnsignedVarLong(long, DataOutput)}.
+         *
+         * @return the value, treated as unsigned
+         * @throws StreamCorruptedException if the block ends or the value is invalid
+         */
+        long readUnsignedVarLong() throws StreamCorruptedException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= bytes.length) {
+                    throw new StreamCorruptedException("Invalid epoch seconds");
+                }
+                int b = bytes[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Invalid variable length value");
+        }
+
+        boolean isFullyRead() {
+            return pos == bytes.length;
+        }
+    }
+
 }
@@ -35,13 +35,17 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDate;
@@ -68,6 +72,10 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      * The last year to have its transitions cached.
      */
     private static final int LAST_CACHED_YEAR = 2100;
+    /**
+     * The shared empty array of transitions.
+     */
+    private static final long[] NO_TRANSITIONS = new long[0];
 
     /**
      * The transitions between standard offsets (epoch seconds), sorted.
@@ -82,11 +90,17 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      */
     private final long[] savingsInstantTransitions;
     /**
-     * The transitions between local date-times, sorted.
+     * The transitions between local date-times (local epoch seconds), sorted, created lazily.
      * This is a paired array, where the first entry is the start of the transition
      * and the second entry is the end of the transition.
+     * Only local date-time lookups use this, thus it is not created until the first one.
      */
-    private final LocalDateTime[] savingsLocalTransitions;
+    private volatile long[] savingsLocalTransitions;
+    /**
+     * The gap or overlap transitions returned by local date-time lookups,
+     * indexed as per the savings instant transitions, created and populated lazily.
+     */
+    private volatile ZoneOffsetTransition[] savingsTransitionCache;
     /**
      * The wall offsets.
      */
@@ -96,10 +110,40 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      */
     private final ZoneOffsetTransitionRule[] lastRules;
     /**
-     * The map of recent transitions.
+     * The first year held in the last rules cache.
+     */
+    private final int lastRulesCacheStartYear;
+    /**
+     * The cache of transitions created from the last rules, indexed by year
+     * relative to the start year, null if there are no last rules.
+     */
+    private final AtomicReferenceArray<YearTransitions> lastRulesCache;
+    /**
+     * The most recently used year outside the range of the cache.
+     */
+    private volatile YearTransitions lastRulesOverflow;
+    /**
+     * The epoch-second from which the wall offset never changes,
+     * {@code Long.MAX_VALUE} if the last rules apply.
      */
-    private final ConcurrentMap<Integer, ZoneOffsetTransition[]> lastRulesCache =
-                new ConcurrentHashMap<Integer, ZoneOffsetTransition[]>();
+    private final long finalWallEpochSecond;
+    /**
+     * The local epoch-second from which the wall offset never changes,
+     * {@code Long.MAX_VALUE} if the last rules apply.
+     */
+    private final long finalWallLocalEpochSecond;
+    /**
+     * The epoch-second from which the standard offset never changes.
+     */
+    private final long finalStandardEpochSecond;
+    /**
+     * Whether to remember the last offset interval found.
+     */
+    private final boolean memoized;
+    /**
+     * The last offset interval found, only used when memoized.
+     */
+    private volatile OffsetInterval offsetMemo;
 
     /**
      * Creates an instance.
@@ -127,27 +171,13 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
             this.standardOffsets[i + 1] = standardOffsetTransitionList.get(i).getOffsetAfter();
         }
 
-        // convert savings transitions to locals
-        List<LocalDateTime> localTransitionList = new ArrayList<LocalDateTime>();
-        List<ZoneOffset> localTransitionOffsetList = new ArrayList<ZoneOffset>();
-        localTransitionOffsetList.add(baseWallOffset);
-        for (ZoneOffsetTransition trans : transitionList) {
-            if (trans.isGap()) {
-                localTransitionList.add(trans.getDateTimeBefore());
-                localTransitionList.add(trans.getDateTimeAfter());
-            } else {
-                localTransitionList.add(trans.getDateTimeAfter());
-                localTransitionList.add(trans.getDateTimeBefore());
-            }
-            localTransitionOffsetList.add(trans.getOffsetAfter());
-        }
-        this.savingsLocalTransitions = localTransitionList.toArray(new LocalDateTime[localTransitionList.size()]);
-        this.wallOffsets = localTransitionOffsetList.toArray(new ZoneOffset[localTransitionOffsetList.size()]);
-
         // convert savings transitions to instants
         this.savingsInstantTransitions = new long[transitionList.size()];
+        this.wallOffsets = new ZoneOffset[transitionList.size() + 1];
+        this.wallOffsets[0] = baseWallOffset;
         for (int i = 0; i < transitionList.size(); i++) {
-            this.savingsInstantTransitions[i] = transitionList.get(i).getInstant().getEpochSecond();
+            this.savingsInstantTransitions[i] = transitionList.get(i).toEpochSecond();
+            this.wallOffsets[i + 1] = transitionList.get(i).getOffsetAfter();
         }
 
         // last rules
@@ -155,6 +185,12 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
             throw new IllegalArgumentException("Too many transition rules");
         }
         this.lastRules = lastRules.toArray(new ZoneOffsetTransitionRule[lastRules.size()]);
+        this.lastRulesCacheStartYear = findLastRulesCacheStartYear();
+        this.lastRulesCache = createLastRulesCache(lastRulesCacheStartYear);
+        this.finalWallEpochSecond = findFinalEpochSecond(savingsInstantTransitions, this.lastRules);
+        this.finalWallLocalEpochSecond = findFinalLocalEpochSecond(savingsInstantTransitions, wallOffsets, this.lastRules);
+        this.finalStandardEpochSecond = findFinalEpochSecond(standardTransitions, null);
+        this.memoized = false;
     }
 
     /**
@@ -166,7 +202,7 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      * @param wallOffsets  the wall offsets, not null
      * @param lastRules  the recurring last rules, size 15 or less, not null
      */
-    private StandardZoneRules(
+    StandardZoneRules(
             long[] standardTransitions,
             ZoneOffset[] standardOffsets,
             long[] savingsInstantTransitions,
@@ -179,22 +215,141 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         this.savingsInstantTransitions = savingsInstantTransitions;
         this.wallOffsets = wallOffsets;
         this.lastRules = lastRules;
+        this.lastRulesCacheStartYear = findLastRulesCacheStartYear();
+        this.lastRulesCache = createLastRulesCache(lastRulesCacheStartYear);
+        this.finalWallEpochSecond = findFinalEpochSecond(savingsInstantTransitions, this.lastRules);
+        this.finalWallLocalEpochSecond = findFinalLocalEpochSecond(savingsInstantTransitions, wallOffsets, this.lastRules);
+        this.finalStandardEpochSecond = findFinalEpochSecond(standardTransitions, null);
+        this.memoized = false;
+    }
 
-        // convert savings transitions to locals
-        List<LocalDateTime> localTransitionList = new ArrayList<LocalDateTime>();
-        for (int i = 0; i < savingsInstantTransitions.length; i++) {
-            ZoneOffset before = wallOffsets[i];
-            ZoneOffset after = wallOffsets[i + 1];
-            ZoneOffsetTransition trans = new ZoneOffsetTransition(savingsInstantTransitions[i], before, after);
-            if (trans.isGap()) {
-                localTransitionList.add(trans.getDateTimeBefore());
-                localTransitionList.add(trans.getDateTimeAfter());
-            } else {
-                localTransitionList.add(trans.getDateTimeAfter());
-                localTransitionList.add(trans.getDateTimeBefore());
-            }
+    /**
+     * Constructor creating a memoizing copy, sharing the state and caches of the base rules.
+     *
+     * @param base  the rules to copy, not null
+     */
+    private StandardZoneRules(StandardZoneRules base) {
+        super();
+
+        this.standardTransitions = base.standardTransitions;
+        this.standardOffsets = base.standardOffsets;
+        this.savingsInstantTransitions = base.savingsInstantTransitions;
+        this.wallOffsets = base.wallOffsets;
+        this.lastRules = base.lastRules;
+        this.savingsLocalTransitions = base.savingsLocalTransitions;
+        this.savingsTransitionCache = base.savingsTransitionCache;
+        this.lastRulesCacheStartYear = base.lastRulesCacheStartYear;
+        this.lastRulesCache = base.lastRulesCache;
+        this.finalWallEpochSecond = base.finalWallEpochSecond;
+        this.finalWallLocalEpochSecond = base.finalWallLocalEpochSecond;
+        this.finalStandardEpochSecond = base.finalStandardEpochSecond;
+        this.memoized = true;
+    }
+
+    /**
+     * Converts the savings transitions to local epoch seconds.
+     * <p>
+     * Each transition results in two entries, the earlier local date-time first.
+     * For a gap this is the local date-time before, for an overlap the local date-time after.
+     *
+     * @param instantTransitions  the transition epoch seconds, not null
+     * @param offsets  the wall offsets, one larger than the transitions, not null
+     * @return the paired array of local epoch seconds, not null
+     */
+    private static long[] createLocalTransitions(long[] instantTransitions, ZoneOffset[] offsets) {
+        if (instantTransitions.length == 0) {
+            return NO_TRANSITIONS;
+        }
+        long[] localTransitions = new long[instantTransitions.length * 2];
+        for (int i = 0; i < instantTransitions.length; i++) {
+            long localBefore = instantTransitions[i] + offsets[i].getTotalSeconds();
+            long localAfter = instantTransitions[i] + offsets[i + 1].getTotalSeconds();
+            localTransitions[i * 2] = Math.min(localBefore, localAfter);
+            localTransitions[i * 2 + 1] = Math.max(localBefore, localAfter);
+        }
+        return localTransitions;
+    }
+
+    /**
+     * Finds the epoch-second from which the offset never changes.
+     * <p>
+     * Many regions no longer change their offset, thus lookups after the last
+     * transition can return the final offset after a single comparison.
+     *
+     * @param transitions  the sorted transition epoch-seconds, not null
+     * @param lastRules  the last rules that apply after the transitions, null if none
+     * @return the epoch-second of the last transition, {@code Long.MIN_VALUE} if there
+     *  are no transitions, {@code Long.MAX_VALUE} if there are last rules
+     */
+    private static long findFinalEpochSecond(long[] transitions, ZoneOffsetTransitionRule[] lastRules) {
+        if (lastRules != null && lastRules.length > 0) {
+            return Long.MAX_VALUE;
+        }
+        return (transitions.length > 0 ? transitions[transitions.length - 1] : Long.MIN_VALUE);
+    }
+
+    /**
+     * Finds the local epoch-second from which the offset never changes.
+     * <p>
+     * This is the last entry of the local transitions, calculated without creating them.
+     *
+     * @param instantTransitions  the transition epoch seconds, not null
+     * @param offsets  the wall offsets, one larger than the transitions, not null
+     * @param lastRules  the last rules that apply after the transitions, not null
+     * @return the latest local epoch-second of the last transition, {@code Long.MIN_VALUE} if there
+     *  are no transitions, {@code Long.MAX_VALUE} if there are last rules
+     */
+    private static long findFinalLocalEpochSecond(long[] instantTransitions, ZoneOffset[] offsets, ZoneOffsetTransitionRule[] lastRules) {
+        if (lastRules.length > 0) {
+            return Long.MAX_VALUE;
+        }
+        int last = instantTransitions.length - 1;
+        if (last < 0) {
+            return Long.MIN_VALUE;
+        }
+        return instantTransitions[last] + Math.max(offsets[last].getTotalSeconds(), offsets[last + 1].getTotalSeconds());
+    }
+
+    /**
+     * Gets the transitions between local date-times, creating them if necessary.
+     * <p>
+     * As the array is not altered once created, a race to create it is harmless.
+     *
+     * @return the paired array of local epoch seconds, not null
+     */
+    private long[] localTransitions() {
+        long[] localTransitions = savingsLocalTransitions;
+        if (localTransitions == null) {
+            localTransitions = createLocalTransitions(savingsInstantTransitions, wallOffsets);
+            savingsLocalTransitions = localTransitions;
+        }
+        return localTransitions;
+    }
+
+    /**
+     * Finds the first year that can be handled by the last rules.
+     *
+     * @return the year of the last historic transition
+     */
+    private int findLastRulesCacheStartYear() {
+        if (lastRules.length == 0 || savingsInstantTransitions.length == 0) {
+            return LAST_CACHED_YEAR;
+        }
+        long lastHistoric = savingsInstantTransitions[savingsInstantTransitions.length - 1];
+        return findYear(lastHistoric, wallOffsets[wallOffsets.length - 1]);
+    }
+
+    /**
+     * Creates the empty cache for years handled by the last rules.
+     *
+     * @param startYear  the first year to cache
+     * @return the cache, null if nothing is to be cached
+     */
+    private AtomicReferenceArray<YearTransitions> createLastRulesCache(int startYear) {
+        if (lastRules.length == 0 || startYear >= LAST_CACHED_YEAR) {
+            return null;
         }
-        this.savingsLocalTransitions = localTransitionList.toArray(new LocalDateTime[localTransitionList.size()]);
+        return new AtomicReferenceArray<YearTransitions>(LAST_CACHED_YEAR - startYear);
     }
 
     //-----------------------------------------------------------------------
@@ -238,10 +393,11 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      * Reads the state from the stream.
      *
      * @param in  the input stream, not null
+     * @param deduplicateMap  the map to deduplicate offsets and rules, null to not deduplicate
      * @return the created object, not null
      * @throws IOException if an error occurs
      */
-    static StandardZoneRules readExternal(DataInput in) throws IOException, ClassNotFoundException {
+    static StandardZoneRules readExternal(DataInput in, ConcurrentMap<Object, Object> deduplicateMap) throws IOException, ClassNotFoundException {
         int stdSize = in.readInt();
         long[] stdTrans = new long[stdSize];
         for (int i = 0; i < stdSize; i++) {
@@ -265,7 +421,191 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         for (int i = 0; i < ruleSize; i++) {
             rules[i] = ZoneOffsetTransitionRule.readExternal(in);
         }
-        return new StandardZoneRules(stdTrans, stdOffsets, savTrans, savOffsets, rules);
+        return create(stdTrans, stdOffsets, savTrans, savOffsets, rules, deduplicateMap);
+    }
+
+    /**
+     * Writes the state to the stream in the dense format.
+     * <p>
+     * The distinct offsets are written once, with each offset then written as an index
+     * using as few bits as the number of distinct offsets allows.
+     * The indices and the variable length differences of the transitions are each
+     * written as a single block of bytes, so that they can be read in bulk.
+     *
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    void writeExternalDense(DataOutput out) throws IOException {
+        List<ZoneOffset> dictionary = new ArrayList<ZoneOffset>();
+        int[] indices = new int[standardOffsets.length + wallOffsets.length];
+        int count = 0;
+        for (ZoneOffset[] offsets : new ZoneOffset[][] {standardOffsets, wallOffsets}) {
+            for (ZoneOffset offset : offsets) {
+                int index = dictionary.indexOf(offset);
+                if (index < 0) {
+                    index = dictionary.size();
+                    dictionary.add(offset);
+                }
+                indices[count++] = index;
+            }
+        }
+        Ser.writeUnsignedVarLong(dictionary.size(), out);
+        for (ZoneOffset offset : dictionary) {
+            Ser.writeOffset(offset, out);
+        }
+        Ser.writeUnsignedVarLong(standardTransitions.length, out);
+        Ser.writeUnsignedVarLong(savingsInstantTransitions.length, out);
+        int bits = 32 - Integer.numberOfLeadingZeros(dictionary.size() - 1);
+        byte[] bytes = new byte[(indices.length * bits + 7) / 8];
+        for (int i = 0; i < indices.length; i++) {
+            for (int bit = 0; bit < bits; bit++) {
+                if ((indices[i] & (1 << bit)) != 0) {
+                    int pos = i * bits + bit;
+                    bytes[pos >>> 3] |= 1 << (pos & 7);
+                }
+            }
+        }
+        out.write(bytes);
+        Ser.writeEpochSecBlock(out, standardTransitions, savingsInstantTransitions);
+        out.writeByte(lastRules.length);
+        for (ZoneOffsetTransitionRule rule : lastRules) {
+            rule.writeExternal(out);
+        }
+    }
+
+    /**
+     * Reads the state from the stream in the dense format.
+     *
+     * @param in  the input stream, not null
+     * @param deduplicateMap  the map to deduplicate offsets and rules, null to not deduplicate
+     * @return the created object, not null
+     * @throws IOException if an error occurs
+     */
+    static StandardZoneRules readExternalDense(DataInput in, ConcurrentMap<Object, Object> deduplicateMap) throws IOException {
+        long dictionarySize = Ser.readUnsignedVarLong(in);
+        if (dictionarySize < 1 || dictionarySize > Short.MAX_VALUE) {
+            throw new StreamCorruptedException("Invalid offset dictionary");
+        }
+        ZoneOffset[] dictionary = new ZoneOffset[(int) dictionarySize];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = Ser.readOffset(in);
+        }
+        long stdSize = Ser.readUnsignedVarLong(in);
+        long savSize = Ser.readUnsignedVarLong(in);
+        if (stdSize < 0 || stdSize > Short.MAX_VALUE || savSize < 0 || savSize > Short.MAX_VALUE) {
+            throw new StreamCorruptedException("Invalid transitions");
+        }
+        ZoneOffset[] stdOffsets = new ZoneOffset[(int) stdSize + 1];
+        ZoneOffset[] savOffsets = new ZoneOffset[(int) savSize + 1];
+        int bits = 32 - Integer.numberOfLeadingZeros(dictionary.length - 1);
+        byte[] bytes = new byte[((stdOffsets.length + savOffsets.length) * bits + 7) / 8];
+        in.readFully(bytes);
+        int pos = 0;
+        for (ZoneOffset[] offsets : new ZoneOffset[][] {stdOffsets, savOffsets}) {
+            for (int i = 0; i < offsets.length; i++) {
+                int index = 0;
+                for (int bit = 0; bit < bits; bit++, pos++) {
+                    index |= ((bytes[pos >>> 3] >>> (pos & 7)) & 1) << bit;
+                }
+                if (index >= dictionary.length) {
+                    throw new StreamCorruptedException("Invalid offset index");
+                }
+                offsets[i] = dictionary[index];
+            }
+        }
+        long[] stdTrans = new long[(int) stdSize];
+        long[] savTrans = new long[(int) savSize];
+        Ser.readEpochSecBlock(in, stdTrans, savTrans);
+        int ruleSize = in.readByte();
+        ZoneOffsetTransitionRule[] rules = new ZoneOffsetTransitionRule[ruleSize];
+        for (int i = 0; i < ruleSize; i++) {
+            rules[i] = ZoneOffsetTransitionRule.readExternal(in);
+        }
+        return create(stdTrans, stdOffsets, savTrans, savOffsets, rules, deduplicateMap);
+    }
+
+    /**
+     * Creates an instance from the state read from a stream.
+     * <p>
+     * Empty transition arrays are shared, and the offsets and rules are replaced
+     * by equal instances from the map, so that rules loaded together share them.
+     *
+     * @param stdTrans  the standard transitions, not null
+     * @param stdOffsets  the standard offsets, altered by deduplication, not null
+     * @param savTrans  the savings transitions, not null
+     * @param savOffsets  the wall offsets, altered by deduplication, not null
+     * @param rules  the last rules, altered by deduplication, not null
+     * @param deduplicateMap  the map to deduplicate offsets and rules, null to not deduplicate
+     * @return the created object, not null
+     */
+    private static StandardZoneRules create(
+            long[] stdTrans, ZoneOffset[] stdOffsets, long[] savTrans, ZoneOffset[] savOffsets,
+            ZoneOffsetTransitionRule[] rules, ConcurrentMap<Object, Object> deduplicateMap) {
+        if (deduplicateMap != null) {
+            deduplicate(stdOffsets, deduplicateMap);
+            deduplicate(savOffsets, deduplicateMap);
+            deduplicate(rules, deduplicateMap);
+        }
+        return new StandardZoneRules(
+                stdTrans.length == 0 ? NO_TRANSITIONS : stdTrans, stdOffsets,
+                savTrans.length == 0 ? NO_TRANSITIONS : savTrans, savOffsets, rules);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deduplicate(T[] array, ConcurrentMap<Object, Object> deduplicateMap) {
+        for (int i = 0; i < array.length; i++) {
+            Object existing = deduplicateMap.putIfAbsent(array[i], array[i]);
+            if (existing != null) {
+                array[i] = (T) existing;
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // package-private accessors for TzdbZoneRulesCompiler, the arrays must not be altered
+    long[] standardTransitions() {
+        return standardTransitions;
+    }
+
+    ZoneOffset[] standardOffsets() {
+        return standardOffsets;
+    }
+
+    long[] savingsInstantTransitions() {
+        return savingsInstantTransitions;
+    }
+
+    ZoneOffset[] wallOffsets() {
+        return wallOffsets;
+    }
+
+    ZoneOffsetTransitionRule[] lastRules() {
+        return lastRules;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public ZoneRules memoized() {
+        if (memoized || isFixedOffset()) {
+            return this;
+        }
+        return new StandardZoneRules(this);
+    }
+
+    @Override
+    void preload(int startYear, int endYear) {
+        localTransitions();
+        for (int i = 0; i < savingsInstantTransitions.length; i++) {
+            findSavingsTransition(i);
+        }
+        AtomicReferenceArray<YearTransitions> cache = lastRulesCache;
+        if (cache != null) {
+            int start = Math.max(startYear, lastRulesCacheStartYear);
+            int end = Math.min(endYear, lastRulesCacheStartYear + cache.length() - 1);
+            for (int year = start; year <= end; year++) {
+                findYearTransitions(year);
+            }
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -277,21 +617,35 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
     //-----------------------------------------------------------------------
     @Override
     public ZoneOffset getOffset(Instant instant) {
-        long epochSec = instant.getEpochSecond();
+        return getOffset(instant.getEpochSecond());
+    }
+
+    @Override
+    public ZoneOffset getOffset(long epochSec) {
+        if (epochSec >= finalWallEpochSecond) {
+            return wallOffsets[wallOffsets.length - 1];
+        }
+        if (memoized) {
+            OffsetInterval memo = offsetMemo;
+            if (memo == null || epochSec < memo.start || epochSec >= memo.end) {
+                memo = findOffsetInterval(epochSec);
+                offsetMemo = memo;
+            }
+            return memo.offset;
+        }
 
         // check if using last rules
         if (lastRules.length > 0 &&
                 epochSec > savingsInstantTransitions[savingsInstantTransitions.length - 1]) {
             int year = findYear(epochSec, wallOffsets[wallOffsets.length - 1]);
-            ZoneOffsetTransition[] transArray = findTransitionArray(year);
-            ZoneOffsetTransition trans = null;
-            for (int i = 0; i < transArray.length; i++) {
-                trans = transArray[i];
-                if (epochSec < trans.toEpochSecond()) {
-                    return trans.getOffsetBefore();
+            YearTransitions yearTrans = findYearTransitions(year);
+            long[] epochSecs = yearTrans.epochSeconds;
+            for (int i = 0; i < epochSecs.length; i++) {
+                if (epochSec < epochSecs[i]) {
+                    return yearTrans.offsets[i];
                 }
             }
-            return trans.getOffsetAfter();
+            return yearTrans.offsets[epochSecs.length];
         }
 
         // using historic rules
@@ -303,6 +657,72 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return wallOffsets[index + 1];
     }
 
+    @Override
+    public void getOffsetSeconds(long[] epochSeconds, int srcIndex, int[] offsetSeconds, int destIndex, int length) {
+        checkBulkRange(epochSeconds.length, srcIndex, offsetSeconds.length, destIndex, length);
+        // walk the intervals of constant offset, only searching when leaving the current one
+        long start = 0;
+        long end = 0;
+        int offsetSecs = 0;
+        for (int i = 0; i < length; i++) {
+            long epochSec = epochSeconds[srcIndex + i];
+            if (epochSec < start || epochSec >= end) {
+                OffsetInterval interval = findOffsetInterval(epochSec);
+                start = interval.start;
+                end = interval.end;
+                offsetSecs = interval.offset.getTotalSeconds();
+            }
+            offsetSeconds[destIndex + i] = offsetSecs;
+        }
+    }
+
+    /**
+     * Finds the interval of constant offset containing the specified epoch-second.
+     * <p>
+     * The interval found may be narrower than the true interval where that is
+     * cheaper to determine.
+     *
+     * @param epochSec  the epoch-second
+     * @return the interval, not null
+     */
+    private OffsetInterval findOffsetInterval(long epochSec) {
+        long[] savingsTrans = savingsInstantTransitions;
+
+        // check if using last rules
+        if (lastRules.length > 0 && epochSec > savingsTrans[savingsTrans.length - 1]) {
+            int year = findYear(epochSec, wallOffsets[wallOffsets.length - 1]);
+            YearTransitions yearTrans = findYearTransitions(year);
+            long[] epochSecs = yearTrans.epochSeconds;
+            for (int i = 0; i < epochSecs.length; i++) {
+                if (epochSec < epochSecs[i]) {
+                    long start = (i > 0 ? epochSecs[i - 1] : epochSec);
+                    return new OffsetInterval(start, epochSecs[i], yearTrans.offsets[i]);
+                }
+            }
+            long start = epochSecs[epochSecs.length - 1];
+            long end = epochSec + 1;
+            if (year < Year.MAX_VALUE) {
+                end = Math.max(end, findYearTransitions(year + 1).epochSeconds[0]);
+            }
+            return new OffsetInterval(start, end, yearTrans.offsets[epochSecs.length]);
+        }
+
+        // using historic rules
+        int index  = Arrays.binarySearch(savingsTrans, epochSec);
+        if (index < 0) {
+            // switch negative insert position to start of matched range
+            index = -index - 2;
+        }
+        long start = (index >= 0 ? savingsTrans[index] : Long.MIN_VALUE);
+        long end;
+        if (index + 1 < savingsTrans.length) {
+            end = savingsTrans[index + 1];
+        } else {
+            end = (lastRules.length > 0 ? epochSec + 1 : Long.MAX_VALUE);
+        }
+        return new OffsetInterval(start, end, wallOffsets[index + 1]);
+    }
+
     //-----------------------------------------------------------------------
     @Override
     public ZoneOffset getOffset(LocalDateTime localDateTime) {
@@ -329,23 +749,114 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return (info instanceof ZoneOffsetTransition ? (ZoneOffsetTransition) info : null);
     }
 
-    private Object getOffsetInfo(LocalDateTime dt) {
+    @Override
+    public void getLocalOffsetSeconds(long[] localEpochSeconds, int srcIndex, int[] offsetSeconds, int destIndex, int length) {
+        checkBulkRange(localEpochSeconds.length, srcIndex, offsetSeconds.length, destIndex, length);
+        // walk the local intervals of constant offset, only searching when leaving the current one
+        long start = 0;
+        long end = 0;
+        int offsetSecs = 0;
+        for (int i = 0; i < length; i++) {
+            long localSec = localEpochSeconds[srcIndex + i];
+            if (localSec < start || localSec >= end) {
+                OffsetInterval interval = findLocalOffsetInterval(localSec);
+                start = interval.start;
+                end = interval.end;
+                offsetSecs = interval.offset.getTotalSeconds();
+            }
+            offsetSeconds[destIndex + i] = offsetSecs;
+        }
+    }
+
+    /**
+     * Finds the interval of local epoch-seconds containing the specified local epoch-second
+     * where {@link #getOffset(LocalDateTime)} returns the same offset.
+     * <p>
+     * As the offset before the transition is returned in a gap or overlap, each interval
+     * runs from the latest local date-time of one transition to that of the next.
+     * The interval found may be narrower than the true interval where that is
+     * cheaper to determine.
+     *
+     * @param localSec  the local epoch-second
+     * @return the interval, not null
+     * @throws DateTimeException if the local epoch-second exceeds the supported range
+     */
+    private OffsetInterval findLocalOffsetInterval(long localSec) {
+        checkLocalEpochSecond(localSec);
+        long[] localTransitions = localTransitions();
+        int transCount = localTransitions.length / 2;
+
         // check if using last rules
-        if (lastRules.length > 0 &&
-                dt.isAfter(savingsLocalTransitions[savingsLocalTransitions.length - 1])) {
-            ZoneOffsetTransition[] transArray = findTransitionArray(dt.getYear());
-            Object info = null;
-            for (ZoneOffsetTransition trans : transArray) {
-                info = findOffsetInfo(dt, trans);
-                if (info instanceof ZoneOffsetTransition || info.equals(trans.getOffsetBefore())) {
-                    return info;
+        if (lastRules.length > 0 && transCount > 0) {
+            long lastLocal = localTransitions[localTransitions.length - 1];
+            if (localSec > lastLocal) {
+                long epochDay = Jdk8Methods.floorDiv(localSec, 86400);
+                int year = LocalDate.ofEpochDay(epochDay).getYear();
+                long yearStart = LocalDate.of(year, 1, 1).toEpochDay() * 86400;
+                long start = Math.max(yearStart, lastLocal + 1);
+                long end = yearStart + (Year.isLeap(year) ? 366 : 365) * 86400L;
+                long[] epochSecs = findYearTransitions(year).epochSeconds;
+                ZoneOffsetTransitionRule[] ruleArray = lastRules;
+                for (int i = 0; i < epochSecs.length; i++) {
+                    ZoneOffset before = ruleArray[i].getOffsetBefore();
+                    long latestLocal = epochSecs[i] +
+                            Math.max(before.getTotalSeconds(), ruleArray[i].getOffsetAfter().getTotalSeconds());
+                    if (localSec < latestLocal) {
+                        return new OffsetInterval(start, Math.min(end, latestLocal), before);
+                    }
+                    start = Math.max(start, latestLocal);
                 }
+                return new OffsetInterval(start, end, ruleArray[ruleArray.length - 1].getOffsetAfter());
+            }
+        }
+
+        // using historic rules, the latest local date-time of each transition is at an odd index
+        int low = 0;
+        int high = transCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (localTransitions[mid * 2 + 1] <= localSec) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // the open ends are limited to the valid range so out of range input is searched and rejected
+        long start = (low > 0 ? localTransitions[low * 2 - 1] : MIN_LOCAL_EPOCH_SECOND);
+        long end;
+        if (low < transCount) {
+            end = localTransitions[low * 2 + 1];
+        } else {
+            end = (lastRules.length > 0 && transCount > 0 ? localSec + 1 : MAX_LOCAL_EPOCH_SECOND + 1);
+        }
+        return new OffsetInterval(start, end, wallOffsets[low]);
+    }
+
+    private Object getOffsetInfo(LocalDateTime dt) {
+        long localSec = dt.toEpochSecond(ZoneOffset.UTC);
+        if (localSec >= finalWallLocalEpochSecond) {
+            return wallOffsets[wallOffsets.length - 1];
+        }
+        long[] localTransitions = localTransitions();
+        boolean hasNano = dt.getNano() > 0;
+
+        // check if using last rules
+        if (lastRules.length > 0 && localTransitions.length > 0) {
+            long lastLocal = localTransitions[localTransitions.length - 1];
+            if (localSec > lastLocal || (localSec == lastLocal && hasNano)) {
+                return getOffsetInfoFromLastRules(dt);
             }
-            return info;
         }
 
         // using historic rules
-        int index  = Arrays.binarySearch(savingsLocalTransitions, dt);
+        int index  = Arrays.binarySearch(localTransitions, localSec);
+        if (index >= 0 && hasNano) {
+            // after the matched transition, so switch to insert position after all equal entries
+            while (index < localTransitions.length - 1 && localTransitions[index + 1] == localSec) {
+                index++;
+            }
+            index = -index - 2;
+        }
         if (index == -1) {
             // before first transition
             return wallOffsets[0];
@@ -353,30 +864,61 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         if (index < 0) {
             // switch negative insert position to start of matched range
             index = -index - 2;
-        } else if (index < savingsLocalTransitions.length - 1 &&
-                savingsLocalTransitions[index].equals(savingsLocalTransitions[index + 1])) {
+        } else if (index < localTransitions.length - 1 &&
+                localTransitions[index] == localTransitions[index + 1]) {
             // handle overlap immediately following gap
             index++;
         }
         if ((index & 1) == 0) {
             // gap or overlap
-            LocalDateTime dtBefore = savingsLocalTransitions[index];
-            LocalDateTime dtAfter = savingsLocalTransitions[index + 1];
-            ZoneOffset offsetBefore = wallOffsets[index / 2];
-            ZoneOffset offsetAfter = wallOffsets[index / 2 + 1];
-            if (offsetAfter.getTotalSeconds() > offsetBefore.getTotalSeconds()) {
-                // gap
-                return new ZoneOffsetTransition(dtBefore, offsetBefore, offsetAfter);
-            } else {
-                // overlap
-                return new ZoneOffsetTransition(dtAfter, offsetBefore, offsetAfter);
-            }
+            return findSavingsTransition(index / 2);
         } else {
             // normal (neither gap or overlap)
             return wallOffsets[index / 2 + 1];
         }
     }
 
+    /**
+     * Gets the historic transition at the specified index.
+     * <p>
+     * The transition objects are interned, as they are immutable a race
+     * to create them is harmless.
+     *
+     * @param index  the transition index
+     * @return the transition, not null
+     */
+    private ZoneOffsetTransition findSavingsTransition(int index) {
+        ZoneOffsetTransition[] cache = savingsTransitionCache;
+        if (cache == null) {
+            cache = new ZoneOffsetTransition[savingsInstantTransitions.length];
+            savingsTransitionCache = cache;
+        }
+        ZoneOffsetTransition trans = cache[index];
+        if (trans == null) {
+            trans = new ZoneOffsetTransition(savingsInstantTransitions[index], wallOffsets[index], wallOffsets[index + 1]);
+            cache[index] = trans;
+        }
+        return trans;
+    }
+
+    /**
+     * Finds the offset info for a local date-time using the last rules.
+     *
+     * @param dt  the date-time, not null
+     * @return the offset info, not null
+     */
+    private Object getOffsetInfoFromLastRules(LocalDateTime dt) {
+        ZoneOffsetTransition[] transArray = findTransitionArray(dt.getYear());
+        Object info = null;
+        for (ZoneOffsetTransition trans : transArray) {
+            info = findOffsetInfo(dt, trans);
+            if (info instanceof ZoneOffsetTransition || info.equals(trans.getOffsetBefore())) {
+                return info;
+            }
+        }
+        return info;
+    }
+
     /**
      * Finds the offset info for a local date-time and transition.
      *
@@ -420,26 +962,76 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      * @return the transition array, not null
      */
     private ZoneOffsetTransition[] findTransitionArray(int year) {
-        Integer yearObj = year;  // should use Year class, but this saves a class load
-        ZoneOffsetTransition[] transArray = lastRulesCache.get(yearObj);
-        if (transArray != null) {
-            return transArray;
+        return findYearTransitions(year).getTransitions(lastRules);
+    }
+
+    /**
+     * Finds the transitions created from the last rules for the given year.
+     * <p>
+     * Years from the last historic transition up to {@link #LAST_CACHED_YEAR} are
+     * cached in an array indexed by year. Other years share a single slot holding
+     * the most recently used year, thus the memory used is bounded.
+     *
+     * @param year  the year
+     * @return the transitions, not null
+     */
+    private YearTransitions findYearTransitions(int year) {
+        AtomicReferenceArray<YearTransitions> cache = lastRulesCache;
+        int index = year - lastRulesCacheStartYear;
+        if (cache != null && index >= 0 && index < cache.length()) {
+            YearTransitions yearTrans = cache.get(index);
+            if (yearTrans == null) {
+                if (ZoneRulesMetrics.ENABLED) {
+                    ZoneRulesMetrics.recordLastRulesCacheMiss();
+                }
+                cache.compareAndSet(index, null, createYearTransitions(year));
+                yearTrans = cache.get(index);
+            } else if (ZoneRulesMetrics.ENABLED) {
+                ZoneRulesMetrics.recordLastRulesCacheHit();
+            }
+            return yearTrans;
         }
+        if (ZoneRulesMetrics.ENABLED) {
+            ZoneRulesMetrics.recordUncachedYearLookup();
+        }
+        YearTransitions yearTrans = lastRulesOverflow;
+        if (yearTrans == null || yearTrans.year != year) {
+            yearTrans = createYearTransitions(year);
+            lastRulesOverflow = yearTrans;
+        }
+        return yearTrans;
+    }
+
+    /**
+     * Creates the transitions from the last rules for the given year.
+     * <p>
+     * Only the epoch-seconds and offsets are calculated, the transition
+     * objects are created when first requested.
+     *
+     * @param year  the year
+     * @return the transitions, not null
+     */
+    private YearTransitions createYearTransitions(int year) {
         ZoneOffsetTransitionRule[] ruleArray = lastRules;
-        transArray  = new ZoneOffsetTransition[ruleArray.length];
+        long[] epochSecs = new long[ruleArray.length];
+        ZoneOffset[] offsets = new ZoneOffset[ruleArray.length + 1];
         for (int i = 0; i < ruleArray.length; i++) {
-            transArray[i] = ruleArray[i].createTransition(year);
+            epochSecs[i] = ruleArray[i].createTransitionEpochSecond(year);
+            offsets[i] = ruleArray[i].getOffsetBefore();
         }
-        if (year < LAST_CACHED_YEAR) {
-            lastRulesCache.putIfAbsent(yearObj, transArray);
+        if (ruleArray.length > 0) {
+            offsets[ruleArray.length] = ruleArray[ruleArray.length - 1].getOffsetAfter();
         }
-        return transArray;
+        return new YearTransitions(year, epochSecs, offsets);
     }
 
     //-----------------------------------------------------------------------
     @Override
     public ZoneOffset getStandardOffset(Instant instant) {
         long epochSec = instant.getEpochSecond();
+        if (epochSec >= finalStandardEpochSecond) {
+            return standardOffsets[standardOffsets.length - 1];
+        }
         int index  = Arrays.binarySearch(standardTransitions, epochSec);
         if (index < 0) {
             // switch negative insert position to start of matched range
@@ -543,13 +1135,72 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return new ZoneOffsetTransition(savingsInstantTransitions[index - 1], wallOffsets[index - 1], wallOffsets[index]);
     }
 
-    private int findYear(long epochSecond, ZoneOffset offset) {
+    private static int findYear(long epochSecond, ZoneOffset offset) {
         // inline for performance
         long localSecond = epochSecond + offset.getTotalSeconds();
         long localEpochDay = Jdk8Methods.floorDiv(localSecond, 86400);
         return LocalDate.ofEpochDay(localEpochDay).getYear();
     }
 
+    /**
+     * Finds the year of the epoch-second, clamped to the valid range of years.
+     *
+     * @param epochSecond  the epoch-second, any value
+     * @param offset  the offset, not null
+     * @return the year, from {@code Year.MIN_VALUE} to {@code Year.MAX_VALUE}
+     */
+    private static int findYearClamped(long epochSecond, ZoneOffset offset) {
+        long localEpochDay = Jdk8Methods.floorDiv(epochSecond + offset.getTotalSeconds(), 86400);
+        if (localEpochDay < LocalDate.MIN.toEpochDay()) {
+            return Year.MIN_VALUE;
+        }
+        if (localEpochDay > LocalDate.MAX.toEpochDay()) {
+            return Year.MAX_VALUE;
+        }
+        return LocalDate.ofEpochDay(localEpochDay).getYear();
+    }
+
+    //-------------------------------------------------------------------------
+    @Override
+    public Iterable<ZoneOffsetTransition> getTransitions(Instant startInclusive, Instant endExclusive) {
+        checkWindow(startInclusive, endExclusive);
+        final long startSec = toWindowSecond(startInclusive);
+        final long endSec = toWindowSecond(endExclusive);
+        return new Iterable<ZoneOffsetTransition>() {
+            @Override
+            public Iterator<ZoneOffsetTransition> iterator() {
+                return new TransitionIterator(startSec, endSec, false);
+            }
+        };
+    }
+
+    @Override
+    public Iterable<ZoneOffsetTransition> getTransitionsDescending(Instant startInclusive, Instant endExclusive) {
+        checkWindow(startInclusive, endExclusive);
+        final long startSec = toWindowSecond(startInclusive);
+        final long endSec = toWindowSecond(endExclusive);
+        return new Iterable<ZoneOffsetTransition>() {
+            @Override
+            public Iterator<ZoneOffsetTransition> iterator() {
+                return new TransitionIterator(startSec, endSec, true);
+            }
+        };
+    }
+
+    /**
+     * Converts a window boundary to the first epoch-second not before it.
+     * <p>
+     * As transitions are always on a whole second, this allows the window to be
+     * compared using epoch-seconds alone.
+     *
+     * @param instant  the instant, not null
+     * @return the epoch-second
+     */
+    private static long toWindowSecond(Instant instant) {
+        long epochSec = instant.getEpochSecond();
+        return (instant.getNano() > 0 ? epochSec + 1 : epochSec);
+    }
+
     //-------------------------------------------------------------------------
     @Override
     public List<ZoneOffsetTransition> getTransitions() {
@@ -605,4 +1256,235 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return "StandardZoneRules[currentStandardOffset=" + standardOffsets[standardOffsets.length - 1] + "]";
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * An interval of epoch-seconds, or local epoch-seconds, during which the offset is constant.
+     */
+    private static final class OffsetInterval {
+        /** The start epoch-second, inclusive. */
+        final long start;
+        /** The end epoch-second, exclusive. */
+        final long end;
+        /** The offset. */
+        final ZoneOffset offset;
+
+        OffsetInterval(long start, long end, ZoneOffset offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Iterator over the transitions in a window.
+     * <p>
+     * The start position is found by a single search, then the historic transitions
+     * and the years of the last rules are walked by index.
+     */
+    private final class TransitionIterator implements Iterator<ZoneOffsetTransition> {
+        /** The year used to indicate that the historic transitions are being walked. */
+        private static final int HISTORIC = Integer.MIN_VALUE;
+        /** The first epoch-second of the window, inclusive. */
+        private final long startSec;
+        /** The last epoch-second of the window, exclusive. */
+        private final long endSec;
+        /** Whether the iteration is descending. */
+        private final boolean descending;
+        /** The epoch-second of the last historic transition. */
+        private final long lastHistoric;
+        /** The year of the last historic transition. */
+        private final int lastHistoricYear;
+        /** The year being walked, or {@code HISTORIC}. */
+        private int year;
+        /** The transitions of the year being walked, null if historic. */
+        private YearTransitions yearTrans;
+        /** The index of the candidate transition. */
+        private int index;
+        /** The next transition, null if the iteration is complete. */
+        private ZoneOffsetTransition next;
+
+        TransitionIterator(long startSec, long endSec, boolean descending) {
+            this.startSec = startSec;
+            this.endSec = endSec;
+            this.descending = descending;
+            long[] historic = savingsInstantTransitions;
+            if (historic.length == 0) {
+                // no transitions, matching nextTransition() and previousTransition()
+                lastHistoric = Long.MIN_VALUE;
+                lastHistoricYear = HISTORIC;
+                return;
+            }
+            lastHistoric = historic[historic.length - 1];
+            lastHistoricYear = findYear(lastHistoric, wallOffsets[wallOffsets.length - 1]);
+            if (descending) {
+                if (lastRules.length > 0 && endSec - 1 > lastHistoric) {
+                    setYear(findYearClamped(endSec - 1, wallOffsets[wallOffsets.length - 1]));
+                    index = yearTrans.epochSeconds.length - 1;
+                } else {
+                    year = HISTORIC;
+                    int pos = Arrays.binarySearch(historic, endSec);
+                    index = (pos < 0 ? -pos - 1 : pos) - 1;
+                }
+                next = findPrevious();
+            } else {
+                int pos = Arrays.binarySearch(historic, startSec);
+                pos = (pos < 0 ? -pos - 1 : pos);
+                if (pos < historic.length) {
+                    year = HISTORIC;
+                    index = pos;
+                } else if (lastRules.length > 0) {
+                    setYear(findYearClamped(startSec, wallOffsets[wallOffsets.length - 1]));
+                    index = 0;
+                } else {
+                    return;
+                }
+                next = findNext();
+            }
+        }
+
+        private void setYear(int year) {
+            this.year = year;
+            this.yearTrans = findYearTransitions(year);
+        }
+
+        private ZoneOffsetTransition findNext() {
+            while (true) {
+                if (year == HISTORIC) {
+                    if (index < savingsInstantTransitions.length) {
+                        if (savingsInstantTransitions[index] >= endSec) {
+                            return null;
+                        }
+                        return findSavingsTransition(index++);
+                    }
+                    if (lastRules.length == 0) {
+                        return null;
+                    }
+                    setYear(lastHistoricYear);
+                    index = 0;
+                }
+                long[] epochSecs = yearTrans.epochSeconds;
+                if (index < epochSecs.length) {
+                    long epochSec = epochSecs[index];
+                    if (epochSec <= lastHistoric || epochSec < startSec) {
+                        index++;
+                        continue;
+                    }
+                    if (epochSec >= endSec) {
+                        return null;
+                    }
+                    return yearTrans.getTransitions(lastRules)[index++];
+                }
+                if (year >= Year.MAX_VALUE) {
+                    return null;
+                }
+                setYear(year + 1);
+                index = 0;
+            }
+        }
+
+        private ZoneOffsetTransition findPrevious() {
+            while (true) {
+                if (year == HISTORIC) {
+                    if (index >= 0 && savingsInstantTransitions[index] >= startSec) {
+                        return findSavingsTransition(index--);
+                    }
+                    return null;
+                }
+                long[] epochSecs = yearTrans.epochSeconds;
+                if (index >= 0) {
+                    long epochSec = epochSecs[index];
+                    if (epochSec >= endSec) {
+                        index--;
+                        continue;
+                    }
+                    if (epochSec <= lastHistoric) {
+                        year = HISTORIC;
+                        yearTrans = null;
+                        index = savingsInstantTransitions.length - 1;
+                        continue;
+                    }
+                    if (epochSec < startSec) {
+                        return null;
+                    }
+                    return yearTrans.getTransitions(lastRules)[index--];
+                }
+                if (year <= lastHistoricYear) {
+                    year = HISTORIC;
+                    yearTrans = null;
+                    index = savingsInstantTransitions.length - 1;
+                    continue;
+                }
+                setYear(year - 1);
+                index = lastRules.length - 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ZoneOffsetTransition next() {
+            ZoneOffsetTransition trans = next;
+            if (trans == null) {
+                throw new NoSuchElementException();
+            }
+            next = (descending ? findPrevious() : findNext());
+            return trans;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The transitions created from the last rules for a single year.
+     * <p>
+     * The epoch-seconds and offsets are held in flat arrays for fast lookup.
+     * The offset at index {@code i} applies before the transition at index {@code i},
+     * with the final offset applying after the last transition.
+     * The transition objects are created lazily, as most lookups do not need them.
+     */
+    private static final class YearTransitions {
+        /** The year. */
+        final int year;
+        /** The transition epoch-seconds, sorted. */
+        final long[] epochSeconds;
+        /** The offsets, one larger than the transition array. */
+        final ZoneOffset[] offsets;
+        /** The transitions, null until first requested. */
+        private volatile ZoneOffsetTransition[] transitions;
+
+        YearTransitions(int year, long[] epochSeconds, ZoneOffset[] offsets) {
+            this.year = year;
+            this.epochSeconds = epochSeconds;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Gets the transitions, creating them if necessary.
+         * <p>
+         * As the transitions are immutable, a race to create them is harmless.
+         *
+         * @param rules  the last rules these transitions were created from, not null
+         * @return the transitions, not null
+         */
+        ZoneOffsetTransition[] getTransitions(ZoneOffsetTransitionRule[] rules) {
+            ZoneOffsetTransition[] transArray = transitions;
+            if (transArray == null) {
+                transArray = new ZoneOffsetTransition[epochSeconds.length];
+                for (int i = 0; i < transArray.length; i++) {
+                    transArray[i] = new ZoneOffsetTransition(epochSeconds[i], rules[i].getOffsetBefore(), rules[i].getOffsetAfter());
+                }
+                transitions = transArray;
+            }
+            return transArray;
+        }
+    }
+
 }
@@ -39,10 +39,15 @@ import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
 import java.text.ParsePosition;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -55,6 +60,14 @@ import java.util.SortedMap;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -97,6 +110,25 @@ final class TzdbZoneRulesCompiler {
      * @param args  the arguments
      */
     public static void main(String[] args) {
+        try {
+            run(args);
+        } catch (Exception ex) {
+            System.out.println("Failed: " + ex.toString());
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a set of TZDB files and builds a single combined data file.
+     * <p>
+     * This is the command line processing of {@link #main(String[])}, except that
+     * a failure is thrown to the caller rather than exiting the JVM.
+     *
+     * @param args  the arguments
+     * @throws Exception if an error occurs
+     */
+    static void run(String[] args) throws Exception {
         if (args.length < 2) {
             outputHelp();
             return;
@@ -107,7 +139,13 @@ final class TzdbZoneRulesCompiler {
         File baseSrcDir = null;
         File dstDir = null;
         boolean unpacked = false;
+        boolean incremental = false;
         boolean verbose = false;
+        int threads = 0;
+        int format = 0;
+        String javaClassName = null;
+        String includes = null;
+        String excludes = null;
 
         // parse options
         int i;
@@ -131,11 +169,47 @@ final class TzdbZoneRulesCompiler {
                     version = args[i];
                     continue;
                 }
+            } else if ("-format".equals(arg)) {
+                if (format == 0 && ++i < args.length) {
+                    if ("1".equals(args[i]) || "2".equals(args[i])) {
+                        format = Integer.parseInt(args[i]);
+                        continue;
+                    }
+                    System.out.println("Unrecognised format: " + args[i]);
+                }
+            } else if ("-java".equals(arg)) {
+                if (javaClassName == null && ++i < args.length) {
+                    javaClassName = args[i];
+                    continue;
+                }
+            } else if ("-include".equals(arg)) {
+                if (includes == null && ++i < args.length) {
+                    includes = args[i];
+                    continue;
+                }
+            } else if ("-exclude".equals(arg)) {
+                if (excludes == null && ++i < args.length) {
+                    excludes = args[i];
+                    continue;
+                }
+            } else if ("-threads".equals(arg)) {
+                if (threads == 0 && ++i < args.length) {
+                    if (args[i].matches("[1-9][0-9]{0,3}")) {
+                        threads = Integer.parseInt(args[i]);
+                        continue;
+                    }
+                    System.out.println("Invalid number of threads: " + args[i]);
+                }
             } else if ("-unpacked".equals(arg)) {
                 if (unpacked == false) {
                     unpacked = true;
                     continue;
                 }
+            } else if ("-incremental".equals(arg)) {
+                if (incremental == false) {
+                    incremental = true;
+                    continue;
+                }
             } else if ("-verbose".equals(arg)) {
                 if (verbose == false) {
                     verbose = true;
@@ -158,6 +232,10 @@ final class TzdbZoneRulesCompiler {
             return;
         }
         dstDir = (dstDir != null ? dstDir : baseSrcDir);
+        if (incremental && unpacked) {
+            System.out.println("Incremental compilation uses the version jar files, so cannot be used with -unpacked");
+            return;
+        }
 
         // parse source file names
         List<String> srcFileNames = Arrays.asList(Arrays.copyOfRange(args, i, args.length));
@@ -199,7 +277,10 @@ final class TzdbZoneRulesCompiler {
             System.out.println("Destination is not a directory: " + dstDir);
             return;
         }
-        process(srcDirs, srcFileNames, dstDir, unpacked, verbose);
+        format = (format != 0 ? format : 1);
+        threads = (threads != 0 ? threads : Runtime.getRuntime().availableProcessors());
+        RegionFilter regionFilter = RegionFilter.parse(includes, excludes);
+        process(srcDirs, srcFileNames, dstDir, unpacked, format, javaClassName, regionFilter, threads, incremental, verbose);
     }
 
     /**
@@ -212,6 +293,12 @@ final class TzdbZoneRulesCompiler {
         System.out.println("   -dstdir <directory>   Where to output generated files (default srcdir)");
         System.out.println("   -version <version>    Specify the version, such as 2009a (optional)");
         System.out.println("   -unpacked             Generate dat files without jar files");
+        System.out.println("   -format <format>      The dat file format, 1 (default) or 2 (indexed)");
+        System.out.println("   -java <classname>     Also generate the Java source of a provider with this class name");
+        System.out.println("   -include <patterns>   Only output regions matching these comma separated patterns");
+        System.out.println("   -exclude <patterns>   Do not output regions matching these comma separated patterns");
+        System.out.println("   -threads <count>      The number of threads to compile with (default the number of cores)");
+        System.out.println("   -incremental          Skip versions whose jar file is up to date with the source files");
         System.out.println("   -help                 Print this usage message");
         System.out.println("   -verbose              Output verbose information during compilation");
         System.out.println(" There must be one directory for each version in srcdir");
@@ -220,54 +307,80 @@ final class TzdbZoneRulesCompiler {
         System.out.println(" Directories must match the regex [12][0-9][0-9][0-9][A-Za-z0-9._-]+");
         System.out.println(" There will be one jar file for each version and one combined jar in dstdir");
         System.out.println(" If the version is specified, only that version is processed");
+        System.out.println(" The generated Java provider contains the most recent version processed");
+        System.out.println(" A pattern is a region ID, such as Europe/London, or a prefix ending in *, such as Europe/*");
+        System.out.println(" When incremental, a fingerprint of the source files is stored alongside each version jar");
     }
 
     /**
      * Process to create the jar files.
      */
-    private static void process(List<File> srcDirs, List<String> srcFileNames, File dstDir, boolean unpacked, boolean verbose) {
+    private static void process(List<File> srcDirs, List<String> srcFileNames, File dstDir, boolean unpacked,
+            int format, String javaClassName, RegionFilter regionFilter, int threads, boolean incremental, boolean verbose) throws Exception {
         // build actual jar files
-        Map<Object, Object> deduplicateMap = new HashMap<Object, Object>();
+        ConcurrentMap<Object, Object> deduplicateMap = new ConcurrentHashMap<Object, Object>();
         Map<String, SortedMap<String, ZoneRules>> allBuiltZones = new TreeMap<String, SortedMap<String, ZoneRules>>();
         Set<String> allRegionIds = new TreeSet<String>();
         Set<ZoneRules> allRules = new HashSet<ZoneRules>();
         SortedMap<LocalDate, Byte> bestLeapSeconds = null;
+        ExecutorService executor = (threads > 1 ? Executors.newFixedThreadPool(threads) : null);
 
-        for (File srcDir : srcDirs) {
-            // source files in this directory
-            List<File> srcFiles = new ArrayList<File>();
-            for (String srcFileName : srcFileNames) {
-                File file = new File(srcDir, srcFileName);
-                if (file.exists()) {
-                    srcFiles.add(file);
+        try {
+            for (File srcDir : srcDirs) {
+                // source files in this directory
+                List<File> srcFiles = new ArrayList<File>();
+                for (String srcFileName : srcFileNames) {
+                    File file = new File(srcDir, srcFileName);
+                    if (file.exists()) {
+                        srcFiles.add(file);
+                    }
+                }
+                if (srcFiles.isEmpty()) {
+                    continue;  // nothing to process
+                }
+                File leapSecondsFile = new File(srcDir, "leapseconds");
+                if (!leapSecondsFile.exists()) {
+                    System.out.println("Version " + srcDir.getName() + " does not include leap seconds information.");
+                    leapSecondsFile = null;
+                }
+
+                String loopVersion = srcDir.getName();
+                File dstFile = new File(dstDir, "threeten-TZDB-" + loopVersion + ".jar");
+                File fingerprintFile = new File(dstDir, "threeten-TZDB-" + loopVersion + ".fingerprint");
+                // reuse the version jar if the sources and options are unchanged
+                String fingerprint = null;
+                if (incremental) {
+                    fingerprint = fingerprint(srcFiles, leapSecondsFile, format, regionFilter);
+                    if (dstFile.isFile() && fingerprint.equals(readFingerprint(fingerprintFile))) {
+                        if (verbose) {
+                            System.out.println("Version up to date: " + dstFile);
+                        }
+                        SortedMap<String, ZoneRules> builtZones = readZones(dstFile);
+                        allBuiltZones.put(loopVersion, builtZones);
+                        allRegionIds.addAll(builtZones.keySet());
+                        allRules.addAll(builtZones.values());
+                        continue;
+                    }
                 }
-            }
-            if (srcFiles.isEmpty()) {
-                continue;  // nothing to process
-            }
-            File leapSecondsFile = new File(srcDir, "leapseconds");
-            if (!leapSecondsFile.exists()) {
-                System.out.println("Version " + srcDir.getName() + " does not include leap seconds information.");
-                leapSecondsFile = null;
-            }
 
-            // compile
-            String loopVersion = srcDir.getName();
-            TzdbZoneRulesCompiler compiler = new TzdbZoneRulesCompiler(loopVersion, srcFiles, leapSecondsFile, verbose);
-            compiler.setDeduplicateMap(deduplicateMap);
-            try {
                 // compile
+                TzdbZoneRulesCompiler compiler = new TzdbZoneRulesCompiler(loopVersion, srcFiles, leapSecondsFile, verbose);
+                compiler.setDeduplicateMap(deduplicateMap);
+                compiler.setExecutor(executor);
                 compiler.compile();
-                SortedMap<String, ZoneRules> builtZones = compiler.getZones();
+                SortedMap<String, ZoneRules> builtZones = filterZones(compiler.getZones(), regionFilter);
                 SortedMap<LocalDate, Byte> parsedLeapSeconds = compiler.getLeapSeconds();
 
                 // output version-specific file
                 if (unpacked == false) {
-                    File dstFile = new File(dstDir, "threeten-TZDB-" + loopVersion + ".jar");
                     if (verbose) {
                         System.out.println("Outputting file: " + dstFile);
                     }
-                    outputFile(dstFile, loopVersion, builtZones, parsedLeapSeconds);
+                    fingerprintFile.delete();
+                    outputFile(dstFile, loopVersion, builtZones, parsedLeapSeconds, format);
+                    if (incremental) {
+                        writeFingerprint(fingerprintFile, fingerprint);
+                    }
                 }
 
                 // create totals
@@ -283,25 +396,142 @@ final class TzdbZoneRulesCompiler {
                         bestLeapSeconds = parsedLeapSeconds;
                     }
                 }
-            } catch (Exception ex) {
-                System.out.println("Failed: " + ex.toString());
-                ex.printStackTrace();
-                System.exit(1);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
             }
         }
 
+        // output generated provider
+        if (javaClassName != null && allBuiltZones.isEmpty() == false) {
+            String latestVersion = ((TreeMap<String, SortedMap<String, ZoneRules>>) allBuiltZones).lastKey();
+            File dstFile = new File(dstDir, javaClassName.replace('.', File.separatorChar) + ".java");
+            if (verbose) {
+                System.out.println("Outputting Java file: " + dstFile);
+            }
+            outputFileJava(dstFile, javaClassName, latestVersion, allBuiltZones.get(latestVersion));
+        }
+
         // output merged file
         if (unpacked) {
             if (verbose) {
                 System.out.println("Outputting combined files: " + dstDir);
             }
-            outputFilesDat(dstDir, allBuiltZones, allRegionIds, allRules, bestLeapSeconds);
+            outputFilesDat(dstDir, allBuiltZones, allRegionIds, allRules, bestLeapSeconds, format);
         } else {
             File dstFile = new File(dstDir, "threeten-TZDB-all.jar");
             if (verbose) {
                 System.out.println("Outputting combined file: " + dstFile);
             }
-            outputFile(dstFile, allBuiltZones, allRegionIds, allRules, bestLeapSeconds);
+            outputFile(dstFile, allBuiltZones, allRegionIds, allRules, bestLeapSeconds, format);
+        }
+    }
+
+    /**
+     * Calculates the fingerprint of the inputs of a version.
+     * <p>
+     * The fingerprint is a SHA-256 hash of the name and content of each source file,
+     * and the options that affect the content of the version jar.
+     *
+     * @param srcFiles  the source files, not null
+     * @param leapSecondsFile  the leap seconds file, null if none
+     * @param format  the dat file format
+     * @param regionFilter  the filter of the regions to output, not null
+     * @return the fingerprint as hex, not null
+     * @throws Exception if an error occurs
+     */
+    static String fingerprint(List<File> srcFiles, File leapSecondsFile, int format, RegionFilter regionFilter) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(("format=" + format + "," + regionFilter).getBytes("UTF-8"));
+        List<File> files = new ArrayList<File>(srcFiles);
+        if (leapSecondsFile != null) {
+            files.add(leapSecondsFile);
+        }
+        byte[] buffer = new byte[8192];
+        for (File file : files) {
+            digest.update(("\n" + file.getName() + "\n").getBytes("UTF-8"));
+            InputStream in = new FileInputStream(file);
+            try {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            } finally {
+                in.close();
+            }
+        }
+        StringBuilder buf = new StringBuilder();
+        for (byte b : digest.digest()) {
+            buf.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Reads a fingerprint file.
+     *
+     * @param file  the file, not null
+     * @return the fingerprint, null if the file does not exist
+     * @throws IOException if an IO error occurs
+     */
+    private static String readFingerprint(File file) throws IOException {
+        if (file.isFile() == false) {
+            return null;
+        }
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            return in.readLine();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes a fingerprint file.
+     *
+     * @param file  the file, not null
+     * @param fingerprint  the fingerprint, not null
+     * @throws IOException if an IO error occurs
+     */
+    private static void writeFingerprint(File file, String fingerprint) throws IOException {
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write(fingerprint);
+            out.write('\n');
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the zones of a version back from its jar file.
+     *
+     * @param jarFile  the version jar file, not null
+     * @return the zones, not null
+     * @throws Exception if an error occurs
+     */
+    static SortedMap<String, ZoneRules> readZones(File jarFile) throws Exception {
+        JarFile jar = new JarFile(jarFile);
+        try {
+            ZipEntry entry = jar.getEntry("org/threeten/bp/TZDB.dat");
+            if (entry == null) {
+                throw new IOException("Jar file does not contain TZDB.dat: " + jarFile);
+            }
+            InputStream in = jar.getInputStream(entry);
+            TzdbZoneRulesProvider provider;
+            try {
+                provider = new TzdbZoneRulesProvider(in);
+            } finally {
+                in.close();
+            }
+            SortedMap<String, ZoneRules> zones = new TreeMap<String, ZoneRules>();
+            for (String regionId : provider.provideZoneIds()) {
+                zones.put(regionId, provider.provideRules(regionId, false));
+            }
+            return zones;
+        } finally {
+            jar.close();
         }
     }
 
@@ -309,50 +539,60 @@ final class TzdbZoneRulesCompiler {
      * Outputs the DAT files.
      */
     private static void outputFilesDat(File dstDir, Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules, SortedMap<LocalDate, Byte> leapSeconds) {
+            Set<String> allRegionIds, Set<ZoneRules> allRules, SortedMap<LocalDate, Byte> leapSeconds, int format) throws Exception {
         File tzdbFile = new File(dstDir, "TZDB.dat");
         tzdbFile.delete();
+        FileOutputStream fos = null;
         try {
-            FileOutputStream fos = null;
-            try {
-                fos = new FileOutputStream(tzdbFile);
-                outputTzdbDat(fos, allBuiltZones, allRegionIds, allRules);
-            } finally {
-                if (fos != null) {
-                    fos.close();
-                }
+            fos = new FileOutputStream(tzdbFile);
+            outputTzdbDat(fos, allBuiltZones, allRegionIds, allRules, format);
+        } finally {
+            if (fos != null) {
+                fos.close();
+            }
+        }
+    }
+
+    /**
+     * Filters the built zones to the regions matching the filter.
+     *
+     * @param builtZones  the built zones, not null
+     * @param regionFilter  the filter of the regions to output, not null
+     * @return the matching zones, not null
+     */
+    static SortedMap<String, ZoneRules> filterZones(SortedMap<String, ZoneRules> builtZones, RegionFilter regionFilter) {
+        if (regionFilter.isAll()) {
+            return builtZones;
+        }
+        SortedMap<String, ZoneRules> filtered = new TreeMap<String, ZoneRules>();
+        for (Map.Entry<String, ZoneRules> entry : builtZones.entrySet()) {
+            if (regionFilter.matches(entry.getKey())) {
+                filtered.put(entry.getKey(), entry.getValue());
             }
-        } catch (Exception ex) {
-            System.out.println("Failed: " + ex.toString());
-            ex.printStackTrace();
-            System.exit(1);
         }
+        return filtered;
     }
 
     /**
      * Outputs the file.
      */
-    private static void outputFile(File dstFile, String version, SortedMap<String, ZoneRules> builtZones, SortedMap<LocalDate, Byte> leapSeconds) {
+    private static void outputFile(File dstFile, String version, SortedMap<String, ZoneRules> builtZones, SortedMap<LocalDate, Byte> leapSeconds, int format) throws Exception {
         Map<String, SortedMap<String, ZoneRules>> loopAllBuiltZones = new TreeMap<String, SortedMap<String, ZoneRules>>();
         loopAllBuiltZones.put(version, builtZones);
         Set<String> loopAllRegionIds = new TreeSet<String>(builtZones.keySet());
         Set<ZoneRules> loopAllRules = new HashSet<ZoneRules>(builtZones.values());
-        outputFile(dstFile, loopAllBuiltZones, loopAllRegionIds, loopAllRules, leapSeconds);
+        outputFile(dstFile, loopAllBuiltZones, loopAllRegionIds, loopAllRules, leapSeconds, format);
     }
 
     /**
      * Outputs the file.
      */
     private static void outputFile(File dstFile, Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules, SortedMap<LocalDate, Byte> leapSeconds) {
+            Set<String> allRegionIds, Set<ZoneRules> allRules, SortedMap<LocalDate, Byte> leapSeconds, int format) throws Exception {
         JarOutputStream jos = null;
         try {
             jos = new JarOutputStream(new FileOutputStream(dstFile));
-            outputTzdbEntry(jos, allBuiltZones, allRegionIds, allRules);
-        } catch (Exception ex) {
-            System.out.println("Failed: " + ex.toString());
-            ex.printStackTrace();
-            System.exit(1);
+            outputTzdbEntry(jos, allBuiltZones, allRegionIds, allRules, format);
         } finally {
             if (jos != null) {
                 try {
@@ -369,16 +609,23 @@ final class TzdbZoneRulesCompiler {
      */
     private static void outputTzdbEntry(
             JarOutputStream jos, Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules) {
+            Set<String> allRegionIds, Set<ZoneRules> allRules, int format) throws Exception {
         // this format is not publicly specified
-        try {
-            jos.putNextEntry(new ZipEntry("org/threeten/bp/TZDB.dat"));
+        jos.putNextEntry(new ZipEntry("org/threeten/bp/TZDB.dat"));
+        outputTzdbDat(jos, allBuiltZones, allRegionIds, allRules, format);
+        jos.closeEntry();
+    }
+
+    /**
+     * Outputs the timezone DAT file in the specified format.
+     */
+    private static void outputTzdbDat(OutputStream jos,
+            Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
+            Set<String> allRegionIds, Set<ZoneRules> allRules, int format) throws IOException {
+        if (format == 2) {
+            outputTzdbDatIndexed(jos, allBuiltZones, allRegionIds, allRules);
+        } else {
             outputTzdbDat(jos, allBuiltZones, allRegionIds, allRules);
-            jos.closeEntry();
-        } catch (Exception ex) {
-            System.out.println("Failed: " + ex.toString());
-            ex.printStackTrace();
-            System.exit(1);
         }
     }
 
@@ -432,6 +679,265 @@ final class TzdbZoneRulesCompiler {
         out.flush();
     }
 
+    /**
+     * Outputs the timezone DAT file in the indexed format.
+     * <p>
+     * The indexed format allows the rules of a single region to be found and decoded
+     * without parsing the rest of the file. All values are big-endian:
+     * <ul>
+     * <li>byte: the format, 2</li>
+     * <li>UTF: the group, "TZDB"</li>
+     * <li>short: the number of versions, V</li>
+     * <li>short: the number of regions, R</li>
+     * <li>short: the number of rules, N</li>
+     * <li>UTF[V]: the version IDs, sorted</li>
+     * <li>int[R]: the offset of each region ID in the name table, sorted by region ID</li>
+     * <li>short[V][R]: the index of the rules for each version and region, -1 if none</li>
+     * <li>int[N + 1]: the offset of each rules in the rules table, followed by the end offset</li>
+     * <li>int: the length of the name table</li>
+     * <li>bytes: the name table, with each region ID as a length byte followed by ASCII</li>
+     * <li>bytes: the rules table, with each rules in the dense format</li>
+     * </ul>
+     */
+    static void outputTzdbDatIndexed(OutputStream os,
+            Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
+            Set<String> allRegionIds, Set<ZoneRules> allRules) throws IOException {
+        String[] versionArray = allBuiltZones.keySet().toArray(new String[allBuiltZones.size()]);
+        String[] regionArray = allRegionIds.toArray(new String[allRegionIds.size()]);
+        Arrays.sort(versionArray);
+        Arrays.sort(regionArray);
+        List<ZoneRules> rulesList = new ArrayList<ZoneRules>(allRules);
+        Map<ZoneRules, Integer> rulesIndices = new HashMap<ZoneRules, Integer>();
+        for (int i = 0; i < rulesList.size(); i++) {
+            rulesIndices.put(rulesList.get(i), i);
+        }
+
+        // name table
+        ByteArrayOutputStream names = new ByteArrayOutputStream(8192);
+        int[] nameOffsets = new int[regionArray.length];
+        for (int i = 0; i < regionArray.length; i++) {
+            String regionId = regionArray[i];
+            if (regionId.length() > 255) {
+                throw new IllegalArgumentException("Region ID too long: " + regionId);
+            }
+            nameOffsets[i] = names.size();
+            names.write(regionId.length());
+            for (int j = 0; j < regionId.length(); j++) {
+                char ch = regionId.charAt(j);
+                if (ch > 127) {
+                    throw new IllegalArgumentException("Region ID must be ASCII: " + regionId);
+                }
+                names.write(ch);
+            }
+        }
+
+        // rules table
+        ByteArrayOutputStream rulesBytes = new ByteArrayOutputStream(65536);
+        DataOutputStream rulesOut = new DataOutputStream(rulesBytes);
+        int[] rulesOffsets = new int[rulesList.size() + 1];
+        for (int i = 0; i < rulesList.size(); i++) {
+            rulesOffsets[i] = rulesBytes.size();
+            Ser.writeDense(rulesList.get(i), rulesOut);
+            rulesOut.flush();
+        }
+        rulesOffsets[rulesList.size()] = rulesBytes.size();
+
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeByte(2);
+        out.writeUTF("TZDB");
+        out.writeShort(versionArray.length);
+        out.writeShort(regionArray.length);
+        out.writeShort(rulesList.size());
+        for (String version : versionArray) {
+            out.writeUTF(version);
+        }
+        for (int nameOffset : nameOffsets) {
+            out.writeInt(nameOffset);
+        }
+        for (String version : versionArray) {
+            SortedMap<String, ZoneRules> builtZones = allBuiltZones.get(version);
+            for (String regionId : regionArray) {
+                ZoneRules rules = builtZones.get(regionId);
+                out.writeShort(rules != null ? rulesIndices.get(rules) : -1);
+            }
+        }
+        for (int rulesOffset : rulesOffsets) {
+            out.writeInt(rulesOffset);
+        }
+        out.writeInt(names.size());
+        names.writeTo(out);
+        rulesBytes.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Outputs the Java source file.
+     */
+    private static void outputFileJava(File dstFile, String className, String version, SortedMap<String, ZoneRules> builtZones) throws Exception {
+        File dir = dstFile.getParentFile();
+        if (dir.exists() == false && dir.mkdirs() == false) {
+            throw new IOException("Destination directory could not be created: " + dir);
+        }
+        Writer out = null;
+        try {
+            out = new OutputStreamWriter(new FileOutputStream(dstFile), "UTF-8");
+            outputJava(out, className, version, builtZones);
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Outputs the Java source of a provider holding the rules as constants.
+     * <p>
+     * The generated class is a {@link ZoneRulesProvider} that creates each rules
+     * directly from arrays of constants using the public API, thus no data file
+     * has to be read or deserialized. Each distinct rules is held in its own nested
+     * class, so the class data of a region is only loaded when the region is first used.
+     * The provider must be registered by the application, such as via a {@link ZoneRulesInitializer}.
+     */
+    static void outputJava(Appendable out, String className, String version, SortedMap<String, ZoneRules> builtZones)
+            throws IOException {
+        int dot = className.lastIndexOf('.');
+        String packageName = (dot < 0 ? null : className.substring(0, dot));
+        String simpleName = className.substring(dot + 1);
+        List<ZoneRules> rulesList = new ArrayList<ZoneRules>();
+        Map<ZoneRules, Integer> rulesIndices = new HashMap<ZoneRules, Integer>();
+        for (ZoneRules rules : builtZones.values()) {
+            if (rulesIndices.containsKey(rules) == false) {
+                rulesIndices.put(rules, rulesList.size());
+                rulesList.add(rules);
+            }
+        }
+
+        if (packageName != null) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import java.util.Arrays;\n");
+        out.append("import java.util.HashSet;\n");
+        out.append("import java.util.NavigableMap;\n");
+        out.append("import java.util.Set;\n");
+        out.append("import java.util.TreeMap;\n");
+        out.append("import java.util.concurrent.atomic.AtomicReferenceArray;\n\n");
+        out.append("import org.threeten.bp.DayOfWeek;\n");
+        out.append("import org.threeten.bp.LocalTime;\n");
+        out.append("import org.threeten.bp.Month;\n");
+        out.append("import org.threeten.bp.ZoneOffset;\n");
+        out.append("import org.threeten.bp.zone.ZoneOffsetTransitionRule;\n");
+        out.append("import org.threeten.bp.zone.ZoneOffsetTransitionRule.TimeDefinition;\n");
+        out.append("import org.threeten.bp.zone.ZoneRules;\n");
+        out.append("import org.threeten.bp.zone.ZoneRulesException;\n");
+        out.append("import org.threeten.bp.zone.ZoneRulesProvider;\n\n");
+        out.append("/**\n");
+        out.append(" * Time-zone rules for TZDB version ").append(version).append(".\n");
+        out.append(" * <p>\n");
+        out.append(" * Generated by TzdbZoneRulesCompiler, do not edit.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(simpleName).append(" extends ZoneRulesProvider {\n\n");
+        out.append("    private static final String VERSION = \"").append(version).append("\";\n");
+        out.append("    private static final String[] REGION_IDS = {\n");
+        for (String regionId : builtZones.keySet()) {
+            out.append("        \"").append(regionId).append("\",\n");
+        }
+        out.append("    };\n");
+        out.append("    private static final short[] RULES_INDICES = {\n");
+        for (ZoneRules rules : builtZones.values()) {
+            out.append("        ").append(Integer.toString(rulesIndices.get(rules))).append(",\n");
+        }
+        out.append("    };\n\n");
+        out.append("    private final AtomicReferenceArray<ZoneRules> rules = new AtomicReferenceArray<ZoneRules>(")
+            .append(Integer.toString(rulesList.size())).append(");\n\n");
+        out.append("    @Override\n");
+        out.append("    protected Set<String> provideZoneIds() {\n");
+        out.append("        return new HashSet<String>(Arrays.asList(REGION_IDS));\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    protected ZoneRules provideRules(String regionId, boolean forCaching) {\n");
+        out.append("        int index = Arrays.binarySearch(REGION_IDS, regionId);\n");
+        out.append("        if (index < 0) {\n");
+        out.append("            throw new ZoneRulesException(\"Unknown time-zone ID: \" + regionId);\n");
+        out.append("        }\n");
+        out.append("        int rulesIndex = RULES_INDICES[index];\n");
+        out.append("        ZoneRules result = rules.get(rulesIndex);\n");
+        out.append("        if (result == null) {\n");
+        out.append("            result = createRules(rulesIndex);\n");
+        out.append("            rules.compareAndSet(rulesIndex, null, result);\n");
+        out.append("        }\n");
+        out.append("        return result;\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    protected NavigableMap<String, ZoneRules> provideVersions(String regionId) {\n");
+        out.append("        TreeMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();\n");
+        out.append("        map.put(VERSION, provideRules(regionId, false));\n");
+        out.append("        return map;\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    public String toString() {\n");
+        out.append("        return \"TZDB[\" + VERSION + \"]\";\n");
+        out.append("    }\n\n");
+        out.append("    private static ZoneRules createRules(int rulesIndex) {\n");
+        out.append("        switch (rulesIndex) {\n");
+        for (int i = 0; i < rulesList.size(); i++) {
+            out.append("            case ").append(Integer.toString(i)).append(": return R").append(Integer.toString(i)).append(".create();\n");
+        }
+        out.append("            default: throw new IllegalArgumentException(\"Unknown rules: \" + rulesIndex);\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        for (int i = 0; i < rulesList.size(); i++) {
+            if (rulesList.get(i) instanceof StandardZoneRules == false) {
+                throw new IllegalArgumentException("Unable to generate Java source for rules: " + rulesList.get(i));
+            }
+            StandardZoneRules rules = (StandardZoneRules) rulesList.get(i);
+            out.append("\n    static final class R").append(Integer.toString(i)).append(" {\n");
+            out.append("        static ZoneRules create() {\n");
+            out.append("            return ZoneRules.of(\n");
+            outputJavaArray(out, rules.standardTransitions());
+            outputJavaArray(out, rules.standardOffsets());
+            outputJavaArray(out, rules.savingsInstantTransitions());
+            outputJavaArray(out, rules.wallOffsets());
+            out.append("                new ZoneOffsetTransitionRule[] {");
+            ZoneOffsetTransitionRule[] lastRules = rules.lastRules();
+            for (int j = 0; j < lastRules.length; j++) {
+                ZoneOffsetTransitionRule rule = lastRules[j];
+                out.append(j == 0 ? "\n" : ",\n");
+                out.append("                    ZoneOffsetTransitionRule.of(Month.").append(rule.getMonth().name())
+                    .append(", ").append(Integer.toString(rule.getDayOfMonthIndicator()))
+                    .append(", ").append(rule.getDayOfWeek() == null ? "null" : "DayOfWeek." + rule.getDayOfWeek().name())
+                    .append(", LocalTime.ofSecondOfDay(").append(Integer.toString(rule.getLocalTime().toSecondOfDay()))
+                    .append("), ").append(Boolean.toString(rule.isMidnightEndOfDay()))
+                    .append(", TimeDefinition.").append(rule.getTimeDefinition().name())
+                    .append(", ZoneOffset.ofTotalSeconds(").append(Integer.toString(rule.getStandardOffset().getTotalSeconds()))
+                    .append("), ZoneOffset.ofTotalSeconds(").append(Integer.toString(rule.getOffsetBefore().getTotalSeconds()))
+                    .append("), ZoneOffset.ofTotalSeconds(").append(Integer.toString(rule.getOffsetAfter().getTotalSeconds()))
+                    .append("))");
+            }
+            out.append("});\n");
+            out.append("        }\n");
+            out.append("    }\n");
+        }
+        out.append("\n}\n");
+    }
+
+    private static void outputJavaArray(Appendable out, long[] values) throws IOException {
+        out.append("                new long[] {");
+        for (int i = 0; i < values.length; i++) {
+            out.append(i % 8 == 0 ? "\n                    " : " ");
+            out.append(Long.toString(values[i])).append("L,");
+        }
+        out.append("},\n");
+    }
+
+    private static void outputJavaArray(Appendable out, ZoneOffset[] offsets) throws IOException {
+        out.append("                new int[] {");
+        for (int i = 0; i < offsets.length; i++) {
+            out.append(i % 8 == 0 ? "\n                    " : " ");
+            out.append(Integer.toString(offsets[i].getTotalSeconds())).append(",");
+        }
+        out.append("},\n");
+    }
+
     //-----------------------------------------------------------------------
     /** The TZDB rules. */
     private final Map<String, List<TZDBRule>> rules = new HashMap<String, List<TZDBRule>>();
@@ -442,7 +948,9 @@ final class TzdbZoneRulesCompiler {
     /** The built zones. */
     private final SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
     /** A map to deduplicate object instances. */
-    private Map<Object, Object> deduplicateMap = new HashMap<Object, Object>();
+    private ConcurrentMap<Object, Object> deduplicateMap = new ConcurrentHashMap<Object, Object>();
+    /** The executor to parse and build in parallel, null to run sequentially. */
+    private ExecutorService executor;
     /** Sorted collection of LeapSecondRules. */
     private final SortedMap<LocalDate, Byte> leapSeconds = new TreeMap<LocalDate, Byte>();
 
@@ -479,7 +987,9 @@ final class TzdbZoneRulesCompiler {
     public void compile() throws Exception {
         printVerbose("Compiling TZDB version " + version);
         parseFiles();
-        parseLeapSecondsFile();
+        if (leapSecondsFile != null) {
+            parseLeapSecondsFile();
+        }
         buildZoneRules();
         printVerbose("Compiled TZDB version " + version);
     }
@@ -516,10 +1026,19 @@ final class TzdbZoneRulesCompiler {
      *
      * @param deduplicateMap  the map to deduplicate items
      */
-    void setDeduplicateMap(Map<Object, Object> deduplicateMap) {
+    void setDeduplicateMap(ConcurrentMap<Object, Object> deduplicateMap) {
         this.deduplicateMap = deduplicateMap;
     }
 
+    /**
+     * Sets the executor used to parse the files and build the zones in parallel.
+     *
+     * @param executor  the executor, null to run sequentially
+     */
+    void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses the source files.
@@ -527,9 +1046,37 @@ final class TzdbZoneRulesCompiler {
      * @throws Exception if an error occurs
      */
     private void parseFiles() throws Exception {
-        for (File file : sourceFiles) {
-            printVerbose("Parsing file: " + file);
-            parseFile(file);
+        if (executor == null || sourceFiles.size() < 2) {
+            for (File file : sourceFiles) {
+                printVerbose("Parsing file: " + file);
+                parseFile(file, rules, zones, links);
+            }
+            return;
+        }
+        // parse in parallel, then merge in file order to match a sequential parse
+        List<Future<ParsedFile>> futures = new ArrayList<Future<ParsedFile>>();
+        for (final File file : sourceFiles) {
+            futures.add(executor.submit(new Callable<ParsedFile>() {
+                @Override
+                public ParsedFile call() throws Exception {
+                    printVerbose("Parsing file: " + file);
+                    ParsedFile parsed = new ParsedFile();
+                    parseFile(file, parsed.rules, parsed.zones, parsed.links);
+                    return parsed;
+                }
+            }));
+        }
+        for (Future<ParsedFile> future : futures) {
+            ParsedFile parsed = await(future);
+            for (Map.Entry<String, List<TZDBRule>> entry : parsed.rules.entrySet()) {
+                if (rules.containsKey(entry.getKey()) == false) {
+                    rules.put(entry.getKey(), entry.getValue());
+                } else {
+                    rules.get(entry.getKey()).addAll(entry.getValue());
+                }
+            }
+            zones.putAll(parsed.zones);
+            links.putAll(parsed.links);
         }
     }
 
@@ -629,9 +1176,13 @@ final class TzdbZoneRulesCompiler {
      * Parses a source file.
      *
      * @param file  the file being read, not null
+     * @param rules  the map to add the parsed rules to, not null
+     * @param zones  the map to add the parsed zones to, not null
+     * @param links  the map to add the parsed links to, not null
      * @throws Exception if an error occurs
      */
-    private void parseFile(File file) throws Exception {
+    private void parseFile(File file, Map<String, List<TZDBRule>> rules,
+            Map<String, List<TZDBZone>> zones, Map<String, String> links) throws Exception {
         int lineNumber = 1;
         String line = null;
         BufferedReader in = null;
@@ -671,7 +1222,7 @@ final class TzdbZoneRulesCompiler {
                                     printVerbose("Invalid Rule line in file: " + file + ", line: " + line);
                                     throw new IllegalArgumentException("Invalid Rule line");
                                 }
-                                parseRuleLine(st);
+                                parseRuleLine(st, rules);
 
                             } else if (first.equals("Link")) {
                                 if (st.countTokens() < 2) {
@@ -702,8 +1253,9 @@ final class TzdbZoneRulesCompiler {
      * Parses a Rule line.
      *
      * @param st  the tokenizer, not null
+     * @param rules  the map to add the rule to, not null
      */
-    private void parseRuleLine(StringTokenizer st) {
+    private void parseRuleLine(StringTokenizer st, Map<String, List<TZDBRule>> rules) {
         TZDBRule rule = new TZDBRule();
         String name = st.nextToken();
         if (rules.containsKey(name) == false) {
@@ -717,6 +1269,7 @@ final class TzdbZoneRulesCompiler {
         }
         parseOptional(st.nextToken());  // type is unused
         parseMonthDayTime(st, rule);
+        rule.adjustToFowards(2004);  // irrelevant, treat as leap year
         rule.savingsAmount = parsePeriod(st.nextToken());
         rule.text = parseOptional(st.nextToken());
     }
@@ -901,16 +1454,23 @@ final class TzdbZoneRulesCompiler {
      */
     private void buildZoneRules() throws Exception {
         // build zones
-        for (String zoneId : zones.keySet()) {
-            printVerbose("Building zone " + zoneId);
-            zoneId = deduplicate(zoneId);
-            List<TZDBZone> tzdbZones = zones.get(zoneId);
-            ZoneRulesBuilder bld = new ZoneRulesBuilder();
-            for (TZDBZone tzdbZone : tzdbZones) {
-                bld = tzdbZone.addToBuilder(bld, rules);
+        if (executor == null) {
+            for (String zoneId : zones.keySet()) {
+                builtZones.put(deduplicate(zoneId), buildZone(zoneId));
+            }
+        } else {
+            Map<String, Future<ZoneRules>> futures = new TreeMap<String, Future<ZoneRules>>();
+            for (final String zoneId : zones.keySet()) {
+                futures.put(zoneId, executor.submit(new Callable<ZoneRules>() {
+                    @Override
+                    public ZoneRules call() {
+                        return buildZone(zoneId);
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<ZoneRules>> entry : futures.entrySet()) {
+                builtZones.put(deduplicate(entry.getKey()), await(entry.getValue()));
             }
-            ZoneRules buildRules = bld.toRules(zoneId, deduplicateMap);
-            builtZones.put(zoneId, deduplicate(buildRules));
         }
 
         // build aliases
@@ -938,9 +1498,49 @@ final class TzdbZoneRulesCompiler {
         builtZones.remove("GMT-0");
     }
 
+    /**
+     * Builds the rules of a single zone.
+     * <p>
+     * This only reads the parsed data, thus zones may be built in parallel.
+     *
+     * @param zoneId  the zone ID, not null
+     * @return the rules, not null
+     */
+    private ZoneRules buildZone(String zoneId) {
+        printVerbose("Building zone " + zoneId);
+        List<TZDBZone> tzdbZones = zones.get(zoneId);
+        ZoneRulesBuilder bld = new ZoneRulesBuilder();
+        for (TZDBZone tzdbZone : tzdbZones) {
+            bld = tzdbZone.addToBuilder(bld, rules);
+        }
+        ZoneRules buildRules = bld.toRules(deduplicate(zoneId), deduplicateMap);
+        return deduplicate(buildRules);
+    }
+
+    /**
+     * Waits for the result of a task.
+     *
+     * @param <T> the result type
+     * @param future  the task, not null
+     * @return the result
+     * @throws Exception if the task failed
+     */
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Deduplicates an object instance.
+     * <p>
+     * This is thread-safe, as the map is concurrent.
      *
      * @param <T> the generic type
      * @param object  the object to deduplicate
@@ -948,10 +1548,11 @@ final class TzdbZoneRulesCompiler {
      */
     @SuppressWarnings("unchecked")
     <T> T deduplicate(T object) {
-        if (deduplicateMap.containsKey(object) == false) {
-            deduplicateMap.put(object, object);
+        if (object == null) {
+            return null;
         }
-        return (T) deduplicateMap.get(object);
+        Object existing = deduplicateMap.putIfAbsent(object, object);
+        return (existing != null ? (T) existing : object);
     }
 
     //-----------------------------------------------------------------------
@@ -1011,7 +1612,7 @@ final class TzdbZoneRulesCompiler {
         String text;
 
         void addToBuilder(ZoneRulesBuilder bld) {
-            adjustToFowards(2004);  // irrelevant, treat as leap year
+            // adjusted forwards when parsed, as a rule may be shared by zones built in parallel
             bld.addRuleToWindow(startYear, endYear, month, dayOfMonth, dayOfWeek, time, endOfDay, timeDefinition, savingsAmount);
         }
     }
@@ -1078,6 +1679,19 @@ final class TzdbZoneRulesCompiler {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * The rules, zones and links parsed from a single file.
+     */
+    static final class ParsedFile {
+        /** The TZDB rules. */
+        final Map<String, List<TZDBRule>> rules = new HashMap<String, List<TZDBRule>>();
+        /** The TZDB zones. */
+        final Map<String, List<TZDBZone>> zones = new HashMap<String, List<TZDBZone>>();
+        /** The TZDB links. */
+        final Map<String, String> links = new HashMap<String, String>();
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Class representing a rule line in the TZDB file.
@@ -31,22 +31,28 @@
  */
 package org.threeten.bp.zone;
 
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StreamCorruptedException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentNavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.threeten.bp.jdk8.Jdk8Methods;
@@ -54,6 +60,25 @@ import org.threeten.bp.jdk8.Jdk8Methods;
 /**
  * Loads time-zone rules for 'TZDB'.
  * <p>
+ * The data is held in a single buffer, read fully when loaded.
+ * The rules for each region are only decoded from the buffer when first requested.
+ * <p>
+ * The regions may be restricted to a subset to reduce the resident footprint.
+ * The instance created by the {@code ServiceLoader} reads comma separated patterns
+ * from the system properties {@code org.threeten.bp.zone.TzdbZoneRulesProvider.include}
+ * and {@code org.threeten.bp.zone.TzdbZoneRulesProvider.exclude}, where each pattern is
+ * a region ID, such as 'Europe/London', or a prefix followed by an asterisk, such as 'Europe/*'.
+ * Alternatively, a {@link ZoneRulesInitializer} may register an instance created with
+ * {@link #TzdbZoneRulesProvider(Collection, Collection)}.
+ * Regions that are excluded are never decoded, and are unknown to this provider.
+ * <p>
+ * The loaded regions and versions are held in an immutable snapshot that is replaced
+ * atomically when more data is loaded. Refreshing the provider loads any new data files
+ * found by the class loader, or a data file on disk that has been modified since it was
+ * last loaded, thus a newer version of the rules can be added without a restart.
+ * As a data file is read fully rather than memory-mapped, it may be rewritten in place
+ * or replaced while loaded.
+ * <p>
  * This class is public for the service loader to access.
  *
  * <h3>Specification for implementors</h3>
@@ -64,18 +89,26 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
     // service loader seems to need it to be public
 
     /**
-     * All the regions that are available.
+     * The snapshot of all the regions and versions that are available.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>(Snapshot.EMPTY);
+    /**
+     * The filter of the regions to load.
+     */
+    private final RegionFilter regionFilter;
+    /**
+     * The class loader to refresh from, null if not loaded from a class loader.
      */
-    private List<String> regionIds;
+    private final ClassLoader classLoader;
     /**
-     * All the versions that are available.
+     * The URL to refresh from, null if not loaded from a URL.
      */
-    private final ConcurrentNavigableMap<String, Version> versions = new ConcurrentSkipListMap<String, Version>();
+    private final URL url;
     /**
-     * All the URLs that have been loaded.
+     * All the URLs that have been loaded, mapped to the modification time if a file, otherwise zero.
      * Uses String to avoid equals() on URL.
      */
-    private Set<String> loadedUrls = new CopyOnWriteArraySet<String>();
+    private final ConcurrentMap<String, Long> loadedUrls = new ConcurrentHashMap<String, Long>();
 
     /**
      * Creates an instance.
@@ -84,8 +117,39 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      * @throws ZoneRulesException if unable to load
      */
     public TzdbZoneRulesProvider() {
+        this(RegionFilter.ofSystemProperties());
+    }
+
+    /**
+     * Creates an instance loading a subset of the regions.
+     * <p>
+     * Each pattern is either a region ID, such as 'Europe/London', or a prefix followed
+     * by an asterisk, such as 'Europe/*'. A region is loaded if it matches any include
+     * pattern, or there are no include patterns, and it matches no exclude pattern.
+     * Links, such as 'US/Eastern', are regions in their own right and must match separately.
+     * <p>
+     * This could be used by a {@link ZoneRulesInitializer} to shrink the resident footprint.
+     *
+     * @param includes  the patterns of the regions to include, empty or null to include all
+     * @param excludes  the patterns of the regions to exclude, empty or null to exclude none
+     * @throws ZoneRulesException if unable to load
+     */
+    public TzdbZoneRulesProvider(Collection<String> includes, Collection<String> excludes) {
+        this(RegionFilter.of(includes, excludes));
+    }
+
+    /**
+     * Creates an instance loading a subset of the regions.
+     *
+     * @param regionFilter  the filter of the regions to load, not null
+     * @throws ZoneRulesException if unable to load
+     */
+    private TzdbZoneRulesProvider(RegionFilter regionFilter) {
         super();
-        if (load(ZoneRulesProvider.class.getClassLoader()) == false) {
+        this.regionFilter = regionFilter;
+        this.classLoader = ZoneRulesProvider.class.getClassLoader();
+        this.url = null;
+        if (load(classLoader) == false) {
             throw new ZoneRulesException("No time-zone rules found for 'TZDB'");
         }
     }
@@ -100,6 +164,9 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      */
     public TzdbZoneRulesProvider(URL url) {
         super();
+        this.regionFilter = RegionFilter.ALL;
+        this.classLoader = null;
+        this.url = url;
         try {
             if (load(url) == false) {
                 throw new ZoneRulesException("No time-zone rules found: " + url);
@@ -119,8 +186,35 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      */
     public TzdbZoneRulesProvider(InputStream stream) {
         super();
+        this.regionFilter = RegionFilter.ALL;
+        this.classLoader = null;
+        this.url = null;
+        try {
+            load(readData(stream), false);
+        } catch (Exception ex) {
+            throw new ZoneRulesException("Unable to load TZDB time-zone rules", ex);
+        }
+    }
+
+    /**
+     * Creates an instance and loads the specified buffer.
+     * <p>
+     * The buffer is used directly, without copying, from its position to its limit.
+     * The rules for each region are decoded from the buffer when first requested,
+     * thus the contents of the buffer must not be changed after calling this constructor.
+     * A buffer created by memory-mapping a {@code TZDB.dat} file is suitable.
+     *
+     * @param buffer  the buffer to load, not null, position and limit unaltered
+     * @throws ZoneRulesException if unable to load
+     */
+    public TzdbZoneRulesProvider(ByteBuffer buffer) {
+        super();
+        this.regionFilter = RegionFilter.ALL;
+        this.classLoader = null;
+        this.url = null;
+        Jdk8Methods.requireNonNull(buffer, "buffer");
         try {
-            load(stream);
+            load(buffer.slice(), false);
         } catch (Exception ex) {
             throw new ZoneRulesException("Unable to load TZDB time-zone rules", ex);
         }
@@ -129,13 +223,13 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
     //-----------------------------------------------------------------------
     @Override
     protected Set<String> provideZoneIds() {
-        return new HashSet<String>(regionIds);
+        return new HashSet<String>(snapshot.get().regionIds);
     }
 
     @Override
     protected ZoneRules provideRules(String zoneId, boolean forCaching) {
         Jdk8Methods.requireNonNull(zoneId, "zoneId");
-        ZoneRules rules = versions.lastEntry().getValue().getRules(zoneId);
+        ZoneRules rules = (regionFilter.matches(zoneId) ? snapshot.get().versions.lastEntry().getValue().getRules(zoneId) : null);
         if (rules == null) {
             throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
         }
@@ -145,7 +239,10 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
     @Override
     protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
         TreeMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();
-        for (Version version : versions.values()) {
+        if (regionFilter.matches(zoneId) == false) {
+            return map;
+        }
+        for (Version version : snapshot.get().versions.values()) {
             ZoneRules rules = version.getRules(zoneId);
             if (rules != null) {
                 map.put(version.versionId, rules);
@@ -154,6 +251,33 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
         return map;
     }
 
+    /**
+     * Refreshes the rules by loading any new or modified data.
+     * <p>
+     * An instance created from the class loader loads any new data files found by
+     * the class loader. An instance created from a URL reloads the URL if it is a file
+     * that has been modified. The versions found are published in a single atomic update.
+     * Versions of a modified file replace those previously loaded from it with the same ID,
+     * otherwise versions that were already loaded are retained unaltered.
+     *
+     * @return true if new or replaced versions were loaded
+     * @throws ZoneRulesException if unable to load
+     */
+    @Override
+    protected boolean provideRefresh() {
+        if (classLoader != null) {
+            return load(classLoader);
+        }
+        if (url != null) {
+            try {
+                return load(url);
+            } catch (Exception ex) {
+                throw new ZoneRulesException("Unable to load TZDB time-zone rules: " + url, ex);
+            }
+        }
+        return false;
+    }
+
     //-------------------------------------------------------------------------
     /**
      * Loads the rules.
@@ -187,51 +311,122 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      * @throws ZoneRulesException if the data is already loaded for the version
      */
     private boolean load(URL url) throws ClassNotFoundException, IOException, ZoneRulesException {
-        boolean updated = false;
-        if (loadedUrls.add(url.toExternalForm())) {
-            InputStream in = null;
+        File file = toFile(url);
+        Long modified = Long.valueOf(file != null ? file.lastModified() : 0);
+        Long previous = loadedUrls.put(url.toExternalForm(), modified);
+        if (modified.equals(previous)) {
+            return false;
+        }
+        // a file that has been modified since it was loaded replaces the versions it contains
+        return load(readData(url), previous != null);
+    }
+
+    /**
+     * Converts a URL to a file on disk.
+     *
+     * @param url  the URL to convert, not null
+     * @return the file, null if the URL is not a file on disk
+     */
+    private static File toFile(URL url) {
+        if ("file".equals(url.getProtocol())) {
+            File file;
             try {
-                in = url.openStream();
-                updated |= load(in);
-            } finally {
-                if (in != null) {
-                    in.close();
-                }
+                file = new File(url.toURI());
+            } catch (URISyntaxException ex) {
+                file = new File(url.getPath());
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+            if (file.isFile()) {
+                return file;
             }
         }
-        return updated;
+        return null;
     }
 
     /**
-     * Loads the rules from an input stream.
+     * Reads the data from a URL into a single buffer.
+     * <p>
+     * A file on disk is read fully rather than memory-mapped, so the buffer is not
+     * altered if the file is rewritten, which a refresh relies on, and the file is not locked.
      *
-     * @param in  the stream to load, not null, not closed after use
+     * @param url  the URL to read, not null
+     * @return the buffer, not null
+     * @throws IOException if an IO error occurs
+     */
+    private static ByteBuffer readData(URL url) throws IOException {
+        InputStream in = null;
+        try {
+            in = url.openStream();
+            return readData(in);
+        } finally {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the data from an input stream into a single buffer.
+     *
+     * @param in  the stream to read, not null, not closed after use
+     * @return the buffer, not null
+     * @throws IOException if an IO error occurs
+     */
+    private static ByteBuffer readData(InputStream in) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(in.available() > 0 ? in.available() : 8192);
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            baos.write(chunk, 0, read);
+        }
+        return ByteBuffer.wrap(baos.toByteArray());
+    }
+
+    /**
+     * Loads the rules from a buffer.
+     * <p>
+     * The loaded data is merged with the current snapshot, which is then replaced atomically.
+     *
+     * @param buffer  the buffer to load, not null, not altered
+     * @param replace  whether the loaded versions replace those already loaded with the same ID
+     * @return true if new or replaced versions were loaded
      * @throws Exception if an error occurs
      */
-    private boolean load(InputStream in) throws IOException, StreamCorruptedException {
-        boolean updated = false;
-        Iterable<Version> loadedVersions = loadData(in);
-        for (Version loadedVersion : loadedVersions) {
+    private boolean load(ByteBuffer buffer, boolean replace) throws IOException, StreamCorruptedException {
+        Snapshot loaded = loadData(buffer);
+        while (true) {
+            Snapshot current = snapshot.get();
             // see https://github.com/ThreeTen/threetenbp/pull/28 for issue wrt
-            // multiple versions of lib on classpath
-            Version existing = versions.putIfAbsent(loadedVersion.versionId, loadedVersion);
-            if (existing != null && !existing.versionId.equals(loadedVersion.versionId)) {
-                throw new ZoneRulesException("Data already loaded for TZDB time-zone rules version: " + loadedVersion.versionId);
+            // multiple versions of lib on classpath, versions already loaded are retained
+            // unless the data is from a modified file that they were loaded from
+            Snapshot merged = current.merge(loaded, replace);
+            if (merged == current) {
+                return false;
+            }
+            if (snapshot.compareAndSet(current, merged)) {
+                return true;
             }
-            updated = true;
         }
-        return updated;
     }
 
     /**
-     * Loads the rules from an input stream.
+     * Loads the rules from a buffer.
+     * <p>
+     * Only the header is parsed, the rules are located by their offset in the buffer.
      *
-     * @param in  the stream to load, not null, not closed after use
+     * @param buffer  the buffer to load, not null, not altered
+     * @return the loaded regions and versions, not null
      * @throws Exception if an error occurs
      */
-    private Iterable<Version> loadData(InputStream in) throws IOException, StreamCorruptedException {
-        DataInputStream dis = new DataInputStream(in);
-        if (dis.readByte() != 1) {
+    private Snapshot loadData(ByteBuffer buffer) throws IOException, StreamCorruptedException {
+        ByteBuffer buf = buffer.duplicate();
+        DataInputStream dis = new DataInputStream(new ByteBufferInputStream(buf));
+        byte format = dis.readByte();
+        if (format == 2) {
+            return loadIndexedData(buffer, buf, dis);
+        }
+        if (format != 1) {
             throw new StreamCorruptedException("File format not recognised");
         }
         // group
@@ -251,29 +446,100 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
         for (int i = 0; i < regionCount; i++) {
             regionArray[i] = dis.readUTF();
         }
-        regionIds = Arrays.asList(regionArray);
         // rules
         int ruleCount = dis.readShort();
-        Object[] ruleArray = new Object[ruleCount];
+        int[] ruleOffsets = new int[ruleCount];
         for (int i = 0; i < ruleCount; i++) {
-            byte[] bytes = new byte[dis.readShort()];
-            dis.readFully(bytes);
-            ruleArray[i] = bytes;
+            ruleOffsets[i] = buf.position();
+            int length = dis.readShort();
+            if (length < 0 || length > buf.remaining()) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+            buf.position(buf.position() + length);
         }
-        AtomicReferenceArray<Object> ruleData = new AtomicReferenceArray<Object>(ruleArray);
+        RuleData ruleData = new RuleData(buffer, ruleOffsets);
         // link version-region-rules
-        Set<Version> versionSet = new HashSet<Version>(versionCount);
+        NavigableMap<String, Version> versionMap = new TreeMap<String, Version>();
         for (int i = 0; i < versionCount; i++) {
             int versionRegionCount = dis.readShort();
             String[] versionRegionArray = new String[versionRegionCount];
             short[] versionRulesArray = new short[versionRegionCount];
+            int matched = 0;
             for (int j = 0; j < versionRegionCount; j++) {
-                versionRegionArray[j] = regionArray[dis.readShort()];
-                versionRulesArray[j] = dis.readShort();
+                String regionId = regionArray[dis.readShort()];
+                short rulesIndex = dis.readShort();
+                if (regionFilter.matches(regionId)) {
+                    versionRegionArray[matched] = regionId;
+                    versionRulesArray[matched] = rulesIndex;
+                    matched++;
+                }
+            }
+            if (matched < versionRegionCount) {
+                versionRegionArray = Arrays.copyOf(versionRegionArray, matched);
+                versionRulesArray = Arrays.copyOf(versionRulesArray, matched);
             }
-            versionSet.add(new Version(versionArray[i], versionRegionArray, versionRulesArray, ruleData));
+            versionMap.put(versionArray[i], new ArrayVersion(versionArray[i], versionRegionArray, versionRulesArray, ruleData));
         }
-        return versionSet;
+        return new Snapshot(filterRegionIds(regionArray), versionMap);
+    }
+
+    /**
+     * Loads the rules from a buffer in the indexed format.
+     * <p>
+     * Only the version and region IDs are parsed, the region table is searched in place
+     * and the rules of each region are decoded on first use.
+     * See {@code TzdbZoneRulesCompiler.outputTzdbDatIndexed} for the format.
+     *
+     * @param buffer  the buffer to load, not null, not altered
+     * @param buf  the buffer positioned after the format byte, not null
+     * @param dis  the input stream reading the buffer, not null
+     * @return the loaded regions and versions, not null
+     * @throws Exception if an error occurs
+     */
+    private Snapshot loadIndexedData(
+            ByteBuffer buffer, ByteBuffer buf, DataInputStream dis) throws IOException, StreamCorruptedException {
+        // group
+        String groupId = dis.readUTF();
+        if ("TZDB".equals(groupId) == false) {
+            throw new StreamCorruptedException("File format not recognised");
+        }
+        int versionCount = dis.readShort();
+        int regionCount = dis.readShort();
+        int ruleCount = dis.readShort();
+        String[] versionArray = new String[versionCount];
+        for (int i = 0; i < versionCount; i++) {
+            versionArray[i] = dis.readUTF();
+        }
+        IndexedData data = new IndexedData(buffer, buf.position(), versionCount, regionCount, ruleCount);
+        String[] regionArray = new String[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            regionArray[i] = data.getRegionId(i);
+        }
+        // versions
+        NavigableMap<String, Version> versionMap = new TreeMap<String, Version>();
+        for (int i = 0; i < versionCount; i++) {
+            versionMap.put(versionArray[i], new IndexedVersion(versionArray[i], i, data));
+        }
+        return new Snapshot(filterRegionIds(regionArray), versionMap);
+    }
+
+    /**
+     * Filters the region IDs to those matching the region filter.
+     *
+     * @param regionArray  the region IDs, not null
+     * @return the matching region IDs, not null
+     */
+    private List<String> filterRegionIds(String[] regionArray) {
+        if (regionFilter.isAll()) {
+            return Arrays.asList(regionArray);
+        }
+        List<String> list = new ArrayList<String>();
+        for (String regionId : regionArray) {
+            if (regionFilter.matches(regionId)) {
+                list.add(regionId);
+            }
+        }
+        return list;
     }
 
     @Override
@@ -281,49 +547,335 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
         return "TZDB";
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * An immutable snapshot of the loaded regions and versions.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(
+                Collections.<String>emptySet(), new TreeMap<String, Version>());
+
+        final Set<String> regionIds;
+        final NavigableMap<String, Version> versions;
+
+        /**
+         * Constructor.
+         *
+         * @param regionIds  the region IDs, copied, not null
+         * @param versions  the versions, not altered after construction, not null
+         */
+        Snapshot(Collection<String> regionIds, NavigableMap<String, Version> versions) {
+            this.regionIds = Collections.unmodifiableSet(new HashSet<String>(regionIds));
+            this.versions = versions;
+        }
+
+        /**
+         * Merges the loaded data into this snapshot.
+         * <p>
+         * Versions that are already loaded are retained unless replacing,
+         * and the regions of all versions remain available.
+         *
+         * @param loaded  the loaded data, not null
+         * @param replace  whether the loaded versions replace those already loaded with the same ID
+         * @return the merged snapshot, this snapshot if no versions were added or replaced
+         */
+        Snapshot merge(Snapshot loaded, boolean replace) {
+            NavigableMap<String, Version> mergedVersions;
+            if (replace) {
+                mergedVersions = new TreeMap<String, Version>(versions);
+                mergedVersions.putAll(loaded.versions);
+                if (loaded.versions.isEmpty()) {
+                    return this;
+                }
+            } else {
+                mergedVersions = new TreeMap<String, Version>(loaded.versions);
+                mergedVersions.putAll(versions);
+                if (mergedVersions.size() == versions.size()) {
+                    return this;
+                }
+            }
+            Set<String> mergedRegionIds = new HashSet<String>(regionIds);
+            mergedRegionIds.addAll(loaded.regionIds);
+            return new Snapshot(mergedRegionIds, mergedVersions);
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * A version of the TZDB rules.
      */
-    static class Version {
-        private final String versionId;
+    abstract static class Version {
+        final String versionId;
+
+        Version(String versionId) {
+            this.versionId = versionId;
+        }
+
+        abstract ZoneRules getRules(String regionId);
+
+        @Override
+        public String toString() {
+            return versionId;
+        }
+    }
+
+    /**
+     * A version of the TZDB rules loaded from the original format.
+     */
+    static class ArrayVersion extends Version {
         private final String[] regionArray;
         private final short[] ruleIndices;
-        private final AtomicReferenceArray<Object> ruleData;
+        private final RuleData ruleData;
 
-        Version(String versionId, String[] regionIds, short[] ruleIndices, AtomicReferenceArray<Object> ruleData) {
+        ArrayVersion(String versionId, String[] regionIds, short[] ruleIndices, RuleData ruleData) {
+            super(versionId);
             this.ruleData = ruleData;
-            this.versionId = versionId;
             this.regionArray = regionIds;
             this.ruleIndices = ruleIndices;
         }
 
+        @Override
         ZoneRules getRules(String regionId) {
             int regionIndex = Arrays.binarySearch(regionArray, regionId);
             if (regionIndex < 0) {
                 return null;
             }
             try {
-                return createRule(ruleIndices[regionIndex]);
+                return createRule(ruleIndices[regionIndex], regionId);
+            } catch (Exception ex) {
+                throw new ZoneRulesException("Invalid binary time-zone data: TZDB:" + regionId + ", version: " + versionId, ex);
+            }
+        }
+
+        ZoneRules createRule(short index, String regionId) throws Exception {
+            return ruleData.getRules(index, regionId);
+        }
+    }
+
+    /**
+     * A version of the TZDB rules loaded from the indexed format.
+     */
+    static class IndexedVersion extends Version {
+        private final int versionIndex;
+        private final IndexedData data;
+
+        IndexedVersion(String versionId, int versionIndex, IndexedData data) {
+            super(versionId);
+            this.versionIndex = versionIndex;
+            this.data = data;
+        }
+
+        @Override
+        ZoneRules getRules(String regionId) {
+            int regionIndex = data.findRegion(regionId);
+            if (regionIndex < 0) {
+                return null;
+            }
+            try {
+                return data.getRules(versionIndex, regionIndex);
             } catch (Exception ex) {
                 throw new ZoneRulesException("Invalid binary time-zone data: TZDB:" + regionId + ", version: " + versionId, ex);
             }
         }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The rules of all versions, decoded from the buffer on first use.
+     * <p>
+     * The offsets and last rules are shared between all the rules decoded.
+     */
+    static class RuleData {
+        private final ByteBuffer buffer;
+        private final int[] ruleOffsets;
+        private final AtomicReferenceArray<ZoneRules> rules;
+        private final ConcurrentMap<Object, Object> deduplicateMap = new ConcurrentHashMap<Object, Object>();
+
+        RuleData(ByteBuffer buffer, int[] ruleOffsets) {
+            this.buffer = buffer;
+            this.ruleOffsets = ruleOffsets;
+            this.rules = new AtomicReferenceArray<ZoneRules>(ruleOffsets.length);
+        }
+
+        ZoneRules getRules(int index, String regionId) throws Exception {
+            ZoneRules obj = rules.get(index);
+            if (obj == null) {
+                long startNanos = (ZoneRulesMetrics.ENABLED ? System.nanoTime() : 0);
+                int start = ruleOffsets[index] + 2;
+                obj = decodeRules(buffer, start, start + buffer.getShort(ruleOffsets[index]), deduplicateMap);
+                // if another thread decoded the rules first, its instance is used
+                if (rules.compareAndSet(index, null, obj) == false) {
+                    return rules.get(index);
+                }
+                if (ZoneRulesMetrics.ENABLED) {
+                    ZoneRulesMetrics.recordRulesLoad(regionId, System.nanoTime() - startNanos);
+                }
+            }
+            return obj;
+        }
+    }
 
-        ZoneRules createRule(short index) throws Exception {
-            Object obj = ruleData.get(index);
-            if (obj instanceof byte[]) {
-                byte[] bytes = (byte[]) obj;
-                DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
-                obj = Ser.read(dis);
-                ruleData.set(index, obj);
+    //-----------------------------------------------------------------------
+    /**
+     * The rules of all versions in the indexed format, read from the buffer in place.
+     * <p>
+     * The buffer is only accessed using absolute methods, or via a duplicate,
+     * thus it can be shared between threads.
+     * The offsets and last rules are shared between all the rules decoded.
+     */
+    static class IndexedData {
+        private final ByteBuffer buffer;
+        private final int regionCount;
+        private final int nameOffsetsStart;
+        private final int versionTableStart;
+        private final int ruleOffsetsStart;
+        private final int namesStart;
+        private final int rulesStart;
+        private final AtomicReferenceArray<ZoneRules> rules;
+        private final ConcurrentMap<Object, Object> deduplicateMap = new ConcurrentHashMap<Object, Object>();
+
+        IndexedData(ByteBuffer buffer, int position, int versionCount, int regionCount, int ruleCount)
+                throws StreamCorruptedException {
+            if (versionCount < 0 || regionCount < 0 || ruleCount < 0) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+            this.buffer = buffer;
+            this.regionCount = regionCount;
+            this.nameOffsetsStart = position;
+            this.versionTableStart = nameOffsetsStart + regionCount * 4;
+            this.ruleOffsetsStart = versionTableStart + versionCount * regionCount * 2;
+            int namesLengthPosition = ruleOffsetsStart + (ruleCount + 1) * 4;
+            if (namesLengthPosition + 4 > buffer.limit()) {
+                throw new StreamCorruptedException("File format not recognised");
             }
-            return (ZoneRules) obj;
+            this.namesStart = namesLengthPosition + 4;
+            this.rulesStart = namesStart + buffer.getInt(namesLengthPosition);
+            int rulesEnd = buffer.getInt(ruleOffsetsStart + ruleCount * 4);
+            if (rulesStart < namesStart || rulesEnd < 0 || rulesStart + rulesEnd > buffer.limit()) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+            this.rules = new AtomicReferenceArray<ZoneRules>(ruleCount);
+        }
+
+        int findRegion(String regionId) {
+            int low = 0;
+            int high = regionCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareRegionId(mid, regionId);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int compareRegionId(int regionIndex, String regionId) {
+            int position = namesStart + buffer.getInt(nameOffsetsStart + regionIndex * 4);
+            int length = buffer.get(position) & 0xFF;
+            int common = Math.min(length, regionId.length());
+            for (int i = 0; i < common; i++) {
+                int diff = (buffer.get(position + 1 + i) & 0xFF) - regionId.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - regionId.length();
+        }
+
+        String getRegionId(int regionIndex) {
+            int position = namesStart + buffer.getInt(nameOffsetsStart + regionIndex * 4);
+            int length = buffer.get(position) & 0xFF;
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) (buffer.get(position + 1 + i) & 0xFF);
+            }
+            return new String(chars);
+        }
+
+        ZoneRules getRules(int versionIndex, int regionIndex) throws Exception {
+            int index = buffer.getShort(versionTableStart + (versionIndex * regionCount + regionIndex) * 2);
+            if (index < 0) {
+                return null;
+            }
+            ZoneRules obj = rules.get(index);
+            if (obj == null) {
+                long startNanos = (ZoneRulesMetrics.ENABLED ? System.nanoTime() : 0);
+                int start = rulesStart + buffer.getInt(ruleOffsetsStart + index * 4);
+                int end = rulesStart + buffer.getInt(ruleOffsetsStart + index * 4 + 4);
+                obj = decodeRules(buffer, start, end, deduplicateMap);
+                // if another thread decoded the rules first, its instance is used
+                if (rules.compareAndSet(index, null, obj) == false) {
+                    return rules.get(index);
+                }
+                if (ZoneRulesMetrics.ENABLED) {
+                    ZoneRulesMetrics.recordRulesLoad(getRegionId(regionIndex), System.nanoTime() - startNanos);
+                }
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Decodes the rules from a range of the buffer.
+     *
+     * @param buffer  the buffer, not null, not altered
+     * @param start  the start position
+     * @param end  the end position
+     * @param deduplicateMap  the map to share offsets and rules between the rules of the data, not null
+     * @return the rules, not null
+     * @throws Exception if an error occurs
+     */
+    static ZoneRules decodeRules(ByteBuffer buffer, int start, int end, ConcurrentMap<Object, Object> deduplicateMap) throws Exception {
+        ByteBuffer buf = buffer.duplicate();
+        buf.limit(end);
+        buf.position(start);
+        return (ZoneRules) Ser.read(new DataInputStream(new ByteBufferInputStream(buf)), deduplicateMap);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An input stream reading from a buffer, advancing its position.
+     */
+    static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
         }
 
         @Override
-        public String toString() {
-            return versionId;
+        public int read() {
+            return (buffer.hasRemaining() ? buffer.get() & 0xFF : -1);
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (buffer.hasRemaining() == false) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
         }
     }
 
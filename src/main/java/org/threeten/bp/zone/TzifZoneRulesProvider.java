@@ -0,0 +1,809 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import org.threeten.bp.DayOfWeek;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.LocalTime;
+import org.threeten.bp.Month;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.jdk8.Jdk8Methods;
+import org.threeten.bp.zone.ZoneOffsetTransitionRule.TimeDefinition;
+
+/**
+ * Loads time-zone rules from a directory of compiled TZif files, such as
+ * the {@code /usr/share/zoneinfo} directory of the operating system.
+ * <p>
+ * This allows the rules to track the time-zone database of the operating system,
+ * without a new version of the {@code TZDB.dat} file. Each file is memory-mapped and
+ * decoded when the rules for the region are first requested, thus only the regions
+ * that are used are held in memory. Files in version 1, 2, 3 and 4 of the format are
+ * supported, as described by RFC 8536, including the rules in the footer that define
+ * transitions after the last transition in the file.
+ * <p>
+ * The region IDs are the paths of the TZif files relative to the directory.
+ * The {@code posix} and {@code right} directories and the {@code posixrules},
+ * {@code localtime} and {@code Factory} files are ignored. The version is read from
+ * the {@code +VERSION} or {@code tzdata.zi} file, if present. Refreshing the provider
+ * rescans the directory if the version has changed.
+ * <p>
+ * This provider is not registered by the {@code ServiceLoader}, as it would clash with
+ * the 'TZDB' provider. Instead, a {@link ZoneRulesInitializer} may register an instance.
+ * The no-args constructor reads the directory from the system property
+ * {@code org.threeten.bp.zone.TzifZoneRulesProvider.directory}.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is immutable and thread-safe.
+ */
+public final class TzifZoneRulesProvider extends ZoneRulesProvider {
+
+    /**
+     * The system property defining the directory used by the no-args constructor.
+     */
+    private static final String DIRECTORY_PROPERTY = "org.threeten.bp.zone.TzifZoneRulesProvider.directory";
+    /**
+     * The default directory.
+     */
+    private static final String DEFAULT_DIRECTORY = "/usr/share/zoneinfo";
+    /**
+     * The version used if the directory does not define one.
+     */
+    private static final String UNKNOWN_VERSION = "UNKNOWN";
+    /**
+     * The pattern of a valid region ID, matching that of {@code ZoneRegion}.
+     */
+    private static final Pattern REGION_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9~/._+-]+");
+    /**
+     * The directories that are not scanned, as they hold duplicate or leap second data.
+     */
+    private static final Set<String> IGNORED_DIRECTORIES = new HashSet<String>(Arrays.asList("posix", "right"));
+    /**
+     * The files that are not regions.
+     */
+    private static final Set<String> IGNORED_FILES = new HashSet<String>(Arrays.asList("posixrules", "localtime", "Factory"));
+    /**
+     * The earliest epoch-second that can be represented.
+     */
+    private static final long MIN_EPOCH_SECOND = Instant.MIN.getEpochSecond();
+    /**
+     * The latest epoch-second that can be represented.
+     */
+    private static final long MAX_EPOCH_SECOND = Instant.MAX.getEpochSecond();
+
+    /**
+     * The directory to load from.
+     */
+    private final File directory;
+    /**
+     * The snapshot of the regions and rules that are available.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+
+    /**
+     * Creates an instance loading the directory defined by the system property
+     * {@code org.threeten.bp.zone.TzifZoneRulesProvider.directory}, which
+     * defaults to {@code /usr/share/zoneinfo}.
+     * The default is also used if the property cannot be read.
+     *
+     * @throws ZoneRulesException if unable to load
+     */
+    public TzifZoneRulesProvider() {
+        this(new File(defaultDirectory()));
+    }
+
+    private static String defaultDirectory() {
+        try {
+            return System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY);
+        } catch (SecurityException ex) {
+            return DEFAULT_DIRECTORY;
+        }
+    }
+
+    /**
+     * Creates an instance loading the specified directory.
+     * <p>
+     * The directory tree is scanned and the first bytes of each file are read to check
+     * for the TZif magic number, but the rules are only decoded when first requested.
+     *
+     * @param directory  the directory containing the TZif files, not null
+     * @throws ZoneRulesException if unable to load
+     */
+    public TzifZoneRulesProvider(File directory) {
+        super();
+        Jdk8Methods.requireNonNull(directory, "directory");
+        this.directory = directory;
+        Snapshot loaded = load();
+        if (loaded.regionIds.isEmpty()) {
+            throw new ZoneRulesException("No time-zone rules found: " + directory);
+        }
+        snapshot.set(loaded);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Set<String> provideZoneIds() {
+        return new HashSet<String>(snapshot.get().regionIds);
+    }
+
+    @Override
+    protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+        Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        ZoneRules rules = snapshot.get().getRules(zoneId);
+        if (rules == null) {
+            throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
+        }
+        return rules;
+    }
+
+    @Override
+    protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+        TreeMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();
+        Snapshot current = snapshot.get();
+        ZoneRules rules = current.getRules(zoneId);
+        if (rules != null) {
+            map.put(current.versionId, rules);
+        }
+        return map;
+    }
+
+    /**
+     * Refreshes the rules by rescanning the directory if the version has changed.
+     * <p>
+     * Rules that have already been decoded are discarded when the version changes.
+     *
+     * @return true if a new version was loaded
+     * @throws ZoneRulesException if unable to load
+     */
+    @Override
+    protected boolean provideRefresh() {
+        Snapshot current = snapshot.get();
+        if (readVersion(directory).equals(current.versionId)) {
+            return false;
+        }
+        return snapshot.compareAndSet(current, load());
+    }
+
+    @Override
+    public String toString() {
+        return "TZif[" + directory + "]";
+    }
+
+    //-------------------------------------------------------------------------
+    /**
+     * Loads the version and region IDs from the directory.
+     *
+     * @return the snapshot, not null
+     * @throws ZoneRulesException if unable to load
+     */
+    private Snapshot load() {
+        if (directory.isDirectory() == false) {
+            throw new ZoneRulesException("Unable to load TZif time-zone rules, not a directory: " + directory);
+        }
+        try {
+            Set<String> regionIds = new HashSet<String>();
+            scan(directory, "", regionIds);
+            return new Snapshot(readVersion(directory), regionIds);
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to load TZif time-zone rules: " + directory, ex);
+        }
+    }
+
+    /**
+     * Scans a directory for TZif files.
+     *
+     * @param dir  the directory to scan, not null
+     * @param prefix  the region ID prefix of the directory, not null
+     * @param regionIds  the set to add to, not null
+     * @throws IOException if an IO error occurs
+     */
+    private static void scan(File dir, String prefix, Set<String> regionIds) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list directory: " + dir);
+        }
+        for (File file : files) {
+            String name = file.getName();
+            String regionId = prefix + name;
+            if (file.isDirectory()) {
+                if (IGNORED_DIRECTORIES.contains(regionId) == false) {
+                    scan(file, regionId + '/', regionIds);
+                }
+            } else if (IGNORED_FILES.contains(regionId) == false &&
+                    REGION_PATTERN.matcher(regionId).matches() && isTzif(file)) {
+                regionIds.add(regionId);
+            }
+        }
+    }
+
+    /**
+     * Checks if a file starts with the TZif magic number.
+     *
+     * @param file  the file to check, not null
+     * @return true if the file is a TZif file
+     * @throws IOException if an IO error occurs
+     */
+    private static boolean isTzif(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return in.read() == 'T' && in.read() == 'Z' && in.read() == 'i' && in.read() == 'f';
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the version of the time-zone database in a directory.
+     *
+     * @param dir  the directory, not null
+     * @return the version, not null
+     * @throws ZoneRulesException if unable to read the version
+     */
+    private static String readVersion(File dir) {
+        try {
+            String version = readFirstLine(new File(dir, "+VERSION"));
+            if (version != null && version.trim().length() > 0) {
+                return version.trim();
+            }
+            version = readFirstLine(new File(dir, "tzdata.zi"));
+            if (version != null && version.startsWith("# version ")) {
+                return version.substring(10).trim();
+            }
+            return UNKNOWN_VERSION;
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to read TZif version: " + dir, ex);
+        }
+    }
+
+    /**
+     * Reads the first line of a file.
+     *
+     * @param file  the file, not null
+     * @return the line, null if the file does not exist or is empty
+     * @throws IOException if an IO error occurs
+     */
+    private static String readFirstLine(File file) throws IOException {
+        if (file.isFile() == false) {
+            return null;
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            return reader.readLine();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads a file by memory-mapping it.
+     *
+     * @param file  the file, not null
+     * @return the buffer, not null
+     * @throws IOException if an IO error occurs
+     */
+    private static ByteBuffer readData(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            in.close();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An immutable snapshot of the version and regions, with the rules decoded so far.
+     */
+    private final class Snapshot {
+        final String versionId;
+        final Set<String> regionIds;
+        private final ConcurrentMap<String, ZoneRules> rules = new ConcurrentHashMap<String, ZoneRules>();
+
+        Snapshot(String versionId, Set<String> regionIds) {
+            this.versionId = versionId;
+            this.regionIds = Collections.unmodifiableSet(regionIds);
+        }
+
+        /**
+         * Gets the rules for a region, decoding them on first use.
+         *
+         * @param regionId  the region ID, not null
+         * @return the rules, null if the region is unknown
+         * @throws ZoneRulesException if the rules cannot be decoded
+         */
+        ZoneRules getRules(String regionId) {
+            ZoneRules obj = rules.get(regionId);
+            if (obj == null) {
+                if (regionIds.contains(regionId) == false) {
+                    return null;
+                }
+                File file = new File(directory, regionId);
+                try {
+                    long startNanos = (ZoneRulesMetrics.ENABLED ? System.nanoTime() : 0);
+                    obj = decodeRules(readData(file));
+                    if (ZoneRulesMetrics.ENABLED) {
+                        ZoneRulesMetrics.recordRulesLoad(regionId, System.nanoTime() - startNanos);
+                    }
+                } catch (Exception ex) {
+                    throw new ZoneRulesException("Invalid TZif time-zone data: " + file + ", version: " + versionId, ex);
+                }
+                ZoneRules existing = rules.putIfAbsent(regionId, obj);
+                if (existing != null) {
+                    obj = existing;
+                }
+            }
+            return obj;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Decodes the rules from the contents of a TZif file.
+     * <p>
+     * The 64-bit data block is used if present, otherwise the 32-bit data block.
+     * The footer, if present, is converted to the last rules.
+     *
+     * @param buffer  the contents of the file, not null, not altered
+     * @return the rules, not null
+     * @throws StreamCorruptedException if the data is invalid
+     * @throws IllegalArgumentException if the data is invalid or the footer cannot be represented
+     */
+    static ZoneRules decodeRules(ByteBuffer buffer) throws StreamCorruptedException {
+        ByteBuffer buf = buffer.duplicate();
+        try {
+            int version = readHeader(buf);
+            int[] counts = readCounts(buf);
+            if (version == 0) {
+                return decodeBlock(buf, counts, 4, null);
+            }
+            // skip the 32-bit data block, used by version 1 readers
+            buf.position(buf.position() + blockLength(counts, 4));
+            readHeader(buf);
+            counts = readCounts(buf);
+            int blockStart = buf.position();
+            buf.position(blockStart + blockLength(counts, 8));
+            String footer = readFooter(buf);
+            buf.position(blockStart);
+            return decodeBlock(buf, counts, 8, footer);
+        } catch (BufferUnderflowException ex) {
+            StreamCorruptedException sce = new StreamCorruptedException("File format not recognised");
+            sce.initCause(ex);
+            throw sce;
+        }
+    }
+
+    /**
+     * Reads the header up to the counts.
+     *
+     * @param buf  the buffer positioned at the header, not null
+     * @return the version, zero for version 1
+     * @throws StreamCorruptedException if the data is invalid
+     */
+    private static int readHeader(ByteBuffer buf) throws StreamCorruptedException {
+        if (buf.get() != 'T' || buf.get() != 'Z' || buf.get() != 'i' || buf.get() != 'f') {
+            throw new StreamCorruptedException("File format not recognised");
+        }
+        int version = buf.get();
+        buf.position(buf.position() + 15);
+        return (version == 0 ? 0 : version - '0');
+    }
+
+    /**
+     * Reads the counts of the header.
+     *
+     * @param buf  the buffer positioned at the counts, not null
+     * @return the isutcnt, isstdcnt, leapcnt, timecnt, typecnt and charcnt, not null
+     * @throws StreamCorruptedException if the data is invalid
+     */
+    private static int[] readCounts(ByteBuffer buf) throws StreamCorruptedException {
+        int[] counts = new int[6];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buf.getInt();
+            if (counts[i] < 0) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+        }
+        if (counts[4] == 0) {
+            throw new StreamCorruptedException("File format not recognised");
+        }
+        return counts;
+    }
+
+    /**
+     * Calculates the length of a data block.
+     *
+     * @param counts  the counts, not null
+     * @param timeSize  the size of each time, 4 or 8
+     * @return the length
+     */
+    private static int blockLength(int[] counts, int timeSize) {
+        return counts[3] * (timeSize + 1) + counts[4] * 6 + counts[5] + counts[2] * (timeSize + 4) + counts[1] + counts[0];
+    }
+
+    /**
+     * Reads the footer.
+     *
+     * @param buf  the buffer positioned at the footer, not null
+     * @return the TZ string of the footer, empty if none
+     * @throws StreamCorruptedException if the data is invalid
+     */
+    private static String readFooter(ByteBuffer buf) throws StreamCorruptedException {
+        if (buf.hasRemaining() == false) {
+            return "";
+        }
+        if (buf.get() != '\n') {
+            throw new StreamCorruptedException("File format not recognised");
+        }
+        StringBuilder footer = new StringBuilder();
+        while (true) {
+            char ch = (char) (buf.get() & 0xFF);
+            if (ch == '\n') {
+                return footer.toString();
+            }
+            footer.append(ch);
+        }
+    }
+
+    /**
+     * Decodes a data block.
+     *
+     * @param buf  the buffer positioned at the data block, not null
+     * @param counts  the counts, not null
+     * @param timeSize  the size of each time, 4 or 8
+     * @param footer  the TZ string of the footer, null or empty if none
+     * @return the rules, not null
+     * @throws StreamCorruptedException if the data is invalid
+     */
+    private static ZoneRules decodeBlock(ByteBuffer buf, int[] counts, int timeSize, String footer) throws StreamCorruptedException {
+        if (counts[2] > 0) {
+            throw new StreamCorruptedException("TZif files with leap seconds are not supported");
+        }
+        int timeCount = counts[3];
+        int typeCount = counts[4];
+        long[] times = new long[timeCount];
+        for (int i = 0; i < timeCount; i++) {
+            times[i] = (timeSize == 8 ? buf.getLong() : buf.getInt());
+        }
+        int[] typeIndices = new int[timeCount];
+        for (int i = 0; i < timeCount; i++) {
+            typeIndices[i] = buf.get() & 0xFF;
+            if (typeIndices[i] >= typeCount) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+        }
+        int[] utOffsets = new int[typeCount];
+        boolean[] dst = new boolean[typeCount];
+        for (int i = 0; i < typeCount; i++) {
+            utOffsets[i] = buf.getInt();
+            dst[i] = buf.get() != 0;
+            buf.get();  // designation index
+        }
+
+        // the standard offset is not stored, so the initial one is taken from the first non-DST type
+        // and later ones from each transition to a non-DST type
+        int initialStandard = utOffsets[0];
+        if (dst[0]) {
+            for (int i = 0; i < typeCount; i++) {
+                if (dst[i] == false) {
+                    initialStandard = utOffsets[i];
+                    break;
+                }
+            }
+        }
+        long[] wallTransitions = new long[timeCount];
+        int[] wallOffsets = new int[timeCount + 1];
+        long[] standardTransitions = new long[timeCount];
+        int[] standardOffsets = new int[timeCount + 1];
+        int wallCount = 0;
+        int standardCount = 0;
+        wallOffsets[0] = utOffsets[0];
+        standardOffsets[0] = initialStandard;
+        for (int i = 0; i < timeCount; i++) {
+            long time = times[i];
+            int type = typeIndices[i];
+            int standard = (dst[type] ? standardOffsets[standardCount] : utOffsets[type]);
+            if (time < MIN_EPOCH_SECOND) {
+                // before the earliest instant, so defines the initial offsets
+                wallOffsets[0] = utOffsets[type];
+                standardOffsets[0] = standard;
+                continue;
+            }
+            if (time > MAX_EPOCH_SECOND) {
+                break;
+            }
+            if (utOffsets[type] != wallOffsets[wallCount]) {
+                wallTransitions[wallCount] = time;
+                wallOffsets[++wallCount] = utOffsets[type];
+            }
+            if (standard != standardOffsets[standardCount]) {
+                standardTransitions[standardCount] = time;
+                standardOffsets[++standardCount] = standard;
+            }
+        }
+        ZoneOffsetTransitionRule[] lastRules = new ZoneOffsetTransitionRule[0];
+        if (footer != null && footer.length() > 0) {
+            lastRules = parseFooter(footer);
+        }
+        return ZoneRules.of(
+                Arrays.copyOf(standardTransitions, standardCount),
+                Arrays.copyOf(standardOffsets, standardCount + 1),
+                Arrays.copyOf(wallTransitions, wallCount),
+                Arrays.copyOf(wallOffsets, wallCount + 1),
+                lastRules);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Parses the POSIX TZ string of the footer into the last rules.
+     * <p>
+     * A TZ string without daylight saving time, or with daylight saving time
+     * all year, results in no rules.
+     *
+     * @param footer  the TZ string, not null
+     * @return the last rules, sorted by month, not null
+     * @throws IllegalArgumentException if the TZ string is invalid or cannot be represented
+     */
+    static ZoneOffsetTransitionRule[] parseFooter(String footer) {
+        TzParser parser = new TzParser(footer);
+        parser.parseName();
+        int standard = -parser.parseTime();
+        if (parser.atEnd()) {
+            return new ZoneOffsetTransitionRule[0];
+        }
+        parser.parseName();
+        int savings = standard + 3600;
+        if (parser.peek() != ',') {
+            savings = -parser.parseTime();
+        }
+        parser.expect(',');
+        int[] start = parser.parseRule();
+        parser.expect(',');
+        int[] end = parser.parseRule();
+        if (parser.atEnd() == false) {
+            throw new IllegalArgumentException("Invalid TZ string: " + footer);
+        }
+        boolean startsYear = (start[0] == 'J' ? start[1] == 1 : start[0] == 0 && start[1] == 0);
+        if (startsYear && start[4] == 0 && end[0] == 'J' && end[1] == 365 && end[4] == 86400 + savings - standard) {
+            // daylight saving time all year
+            return new ZoneOffsetTransitionRule[0];
+        }
+        ZoneOffset standardOffset = ZoneOffset.ofTotalSeconds(standard);
+        ZoneOffset savingsOffset = ZoneOffset.ofTotalSeconds(savings);
+        ZoneOffsetTransitionRule startRule = createRule(footer, start, standardOffset, standardOffset, savingsOffset);
+        ZoneOffsetTransitionRule endRule = createRule(footer, end, standardOffset, savingsOffset, standardOffset);
+        if (endRule.getMonth().compareTo(startRule.getMonth()) < 0) {
+            return new ZoneOffsetTransitionRule[] {endRule, startRule};
+        }
+        return new ZoneOffsetTransitionRule[] {startRule, endRule};
+    }
+
+    /**
+     * Creates a rule from a parsed POSIX rule.
+     * <p>
+     * A time outside the day is moved into the day by adjusting the date, which is only
+     * possible if the adjusted date can be expressed by {@code ZoneOffsetTransitionRule}.
+     *
+     * @param footer  the TZ string, for errors, not null
+     * @param parsed  the parsed rule, from {@link TzParser#parseRule()}, not null
+     * @param standardOffset  the standard offset, not null
+     * @param offsetBefore  the offset before the transition, not null
+     * @param offsetAfter  the offset after the transition, not null
+     * @return the rule, not null
+     * @throws IllegalArgumentException if the rule cannot be represented
+     */
+    private static ZoneOffsetTransitionRule createRule(
+            String footer, int[] parsed, ZoneOffset standardOffset, ZoneOffset offsetBefore, ZoneOffset offsetAfter) {
+        int days = Jdk8Methods.floorDiv(parsed[4], 86400);
+        int secs = Jdk8Methods.floorMod(parsed[4], 86400);
+        boolean endOfDay = false;
+        if (days == 1 && secs == 0) {
+            days = 0;
+            endOfDay = true;
+        }
+        LocalTime time = LocalTime.ofSecondOfDay(secs);
+        Month month;
+        int dayOfMonthIndicator;
+        DayOfWeek dayOfWeek = null;
+        if (parsed[0] == 'M') {
+            month = Month.of(parsed[1]);
+            dayOfWeek = DayOfWeek.of(parsed[3] == 0 ? 7 : parsed[3]).plus(days);
+            if (parsed[2] == 5) {
+                // last day-of-week in the month, can only be moved backwards
+                dayOfMonthIndicator = -1 + days;
+                if (days > 0 || dayOfMonthIndicator < -28) {
+                    throw new IllegalArgumentException("Unsupported TZ string: " + footer);
+                }
+            } else {
+                dayOfMonthIndicator = 1 + (parsed[2] - 1) * 7 + days;
+                if (dayOfMonthIndicator < 1 || dayOfMonthIndicator > 31) {
+                    throw new IllegalArgumentException("Unsupported TZ string: " + footer);
+                }
+            }
+        } else {
+            // Julian day, 'J' ignores February 29th, otherwise only days before it are supported
+            int dayOfYear = (parsed[0] == 'J' ? parsed[1] : parsed[1] + 1);
+            if (parsed[0] != 'J' && dayOfYear > 59) {
+                throw new IllegalArgumentException("Unsupported TZ string: " + footer);
+            }
+            int adjusted = dayOfYear + days;
+            if (adjusted < 1 || adjusted > 365) {
+                throw new IllegalArgumentException("Unsupported TZ string: " + footer);
+            }
+            LocalDate date = LocalDate.ofYearDay(2001, adjusted);
+            month = date.getMonth();
+            dayOfMonthIndicator = date.getDayOfMonth();
+        }
+        return ZoneOffsetTransitionRule.of(
+                month, dayOfMonthIndicator, dayOfWeek, time, endOfDay, TimeDefinition.WALL,
+                standardOffset, offsetBefore, offsetAfter);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Parser for a POSIX TZ string, as extended by RFC 8536.
+     */
+    private static final class TzParser {
+        private final String text;
+        private int pos;
+
+        TzParser(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            return pos == text.length();
+        }
+
+        char peek() {
+            return (pos < text.length() ? text.charAt(pos) : 0);
+        }
+
+        void expect(char ch) {
+            if (peek() != ch) {
+                throw invalid();
+            }
+            pos++;
+        }
+
+        /**
+         * Parses a time-zone abbreviation, either alphabetic or quoted by angle brackets.
+         */
+        void parseName() {
+            int start = pos;
+            if (peek() == '<') {
+                int end = text.indexOf('>', pos);
+                if (end < 0) {
+                    throw invalid();
+                }
+                pos = end + 1;
+            } else {
+                while (Character.isLetter(peek())) {
+                    pos++;
+                }
+                if (pos - start < 3) {
+                    throw invalid();
+                }
+            }
+        }
+
+        /**
+         * Parses a signed time of the form {@code hh[:mm[:ss]]}.
+         *
+         * @return the time in seconds
+         */
+        int parseTime() {
+            int sign = 1;
+            if (peek() == '+' || peek() == '-') {
+                sign = (text.charAt(pos++) == '-' ? -1 : 1);
+            }
+            int secs = parseNumber(0, 167) * 3600;
+            if (peek() == ':') {
+                pos++;
+                secs += parseNumber(0, 59) * 60;
+                if (peek() == ':') {
+                    pos++;
+                    secs += parseNumber(0, 59);
+                }
+            }
+            return sign * secs;
+        }
+
+        /**
+         * Parses a rule of the form {@code date[/time]}.
+         *
+         * @return the type ('M', 'J' or zero), the month or day, the week, the day-of-week and the time
+         */
+        int[] parseRule() {
+            int[] parsed = new int[5];
+            char ch = peek();
+            if (ch == 'M') {
+                pos++;
+                parsed[0] = 'M';
+                parsed[1] = parseNumber(1, 12);
+                expect('.');
+                parsed[2] = parseNumber(1, 5);
+                expect('.');
+                parsed[3] = parseNumber(0, 6);
+            } else if (ch == 'J') {
+                pos++;
+                parsed[0] = 'J';
+                parsed[1] = parseNumber(1, 365);
+            } else {
+                parsed[1] = parseNumber(0, 365);
+            }
+            parsed[4] = 7200;
+            if (peek() == '/') {
+                pos++;
+                parsed[4] = parseTime();
+            }
+            return parsed;
+        }
+
+        private int parseNumber(int min, int max) {
+            int start = pos;
+            int value = 0;
+            while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9' && value <= max) {
+                value = value * 10 + text.charAt(pos++) - '0';
+            }
+            if (pos == start || value < min || value > max) {
+                throw invalid();
+            }
+            return value;
+        }
+
+        private IllegalArgumentException invalid() {
+            return new IllegalArgumentException("Invalid TZ string: " + text);
+        }
+    }
+
+}
@@ -31,14 +31,14 @@
  */
 package org.threeten.bp.zone;
 
-import static org.threeten.bp.temporal.TemporalAdjusters.nextOrSame;
-import static org.threeten.bp.temporal.TemporalAdjusters.previousOrSame;
+import static org.threeten.bp.temporal.ChronoField.YEAR;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.DayOfWeek;
 import org.threeten.bp.LocalDate;
 import org.threeten.bp.LocalDateTime;
@@ -70,6 +70,14 @@ public final class ZoneOffsetTransitionRule implements Serializable {
      * Serialization version.
      */
     private static final long serialVersionUID = 6889046316657758795L;
+    /**
+     * Seconds per day.
+     */
+    private static final long SECONDS_PER_DAY = 86400;
+    /**
+     * The number of days from year zero to year 1970.
+     */
+    private static final long DAYS_0000_TO_1970 = (146097 * 5L) - (30L * 365L + 7L);
 
     /**
      * The month of the month-day of the first day of the cutover week.
@@ -397,24 +405,79 @@ public final class ZoneOffsetTransitionRule implements Serializable {
      * @return the transition instance, not null
      */
     public ZoneOffsetTransition createTransition(int year) {
-        LocalDate date;
+        return new ZoneOffsetTransition(createTransitionEpochSecond(year), offsetBefore, offsetAfter);
+    }
+
+    /**
+     * Creates the epoch-second of the transition for the specified year.
+     * <p>
+     * This is equivalent to {@code createTransition(year).toEpochSecond()},
+     * but is calculated directly, without creating any objects.
+     *
+     * @param year  the year to create a transition for
+     * @return the transition epoch-second
+     * @throws DateTimeException if the year or day-of-month is invalid
+     */
+    long createTransitionEpochSecond(int year) {
+        YEAR.checkValidValue(year);
+        boolean leapYear = IsoChronology.INSTANCE.isLeapYear(year);
+        int monthLength = month.length(leapYear);
+        long epochDay;
         if (dom < 0) {
-            date = LocalDate.of(year, month, month.length(IsoChronology.INSTANCE.isLeapYear(year)) + 1 + dom);
+            epochDay = toEpochDay(year, month.getValue(), monthLength + 1 + dom, leapYear);
             if (dow != null) {
-                date = date.with(previousOrSame(dow));
+                // previous or same day-of-week, where Monday is zero
+                epochDay -= Jdk8Methods.floorMod(Jdk8Methods.floorMod(epochDay + 3, 7) - dow.ordinal(), 7);
             }
         } else {
-            date = LocalDate.of(year, month, dom);
+            if (dom > monthLength) {
+                LocalDate.of(year, month, dom);  // throws the standard exception
+            }
+            epochDay = toEpochDay(year, month.getValue(), dom, leapYear);
             if (dow != null) {
-                date = date.with(nextOrSame(dow));
+                // next or same day-of-week, where Monday is zero
+                epochDay += Jdk8Methods.floorMod(dow.ordinal() - Jdk8Methods.floorMod(epochDay + 3, 7), 7);
             }
         }
         if (timeEndOfDay) {
-            date = date.plusDays(1);
+            epochDay++;
+        }
+        long localSecond = epochDay * SECONDS_PER_DAY + time.toSecondOfDay();
+        switch (timeDefinition) {
+            case UTC:
+                return localSecond;
+            case STANDARD:
+                return localSecond - standardOffset.getTotalSeconds();
+            default:  // WALL
+                return localSecond - offsetBefore.getTotalSeconds();
+        }
+    }
+
+    /**
+     * Calculates the epoch-day of a valid ISO date, as per {@link LocalDate#toEpochDay()}.
+     *
+     * @param year  the year
+     * @param month  the month-of-year, from 1 to 12
+     * @param day  the day-of-month, valid for the month
+     * @param leapYear  whether the year is a leap year
+     * @return the epoch-day
+     */
+    private static long toEpochDay(long year, long month, int day, boolean leapYear) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += ((367 * month - 362) / 12);
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (leapYear == false) {
+                total--;
+            }
         }
-        LocalDateTime localDT = LocalDateTime.of(date, time);
-        LocalDateTime transition = timeDefinition.createDateTime(localDT, standardOffset, offsetBefore);
-        return new ZoneOffsetTransition(transition, offsetBefore, offsetAfter);
+        return total - DAYS_0000_TO_1970;
     }
 
     //-----------------------------------------------------------------------
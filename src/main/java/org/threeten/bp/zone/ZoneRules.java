@@ -32,9 +32,13 @@
 package org.threeten.bp.zone;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDateTime;
@@ -67,6 +71,15 @@ import org.threeten.bp.jdk8.Jdk8Methods;
  */
 public abstract class ZoneRules {
 
+    /**
+     * The minimum local epoch-second, that of {@code LocalDateTime.MIN}.
+     */
+    static final long MIN_LOCAL_EPOCH_SECOND = LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC);
+    /**
+     * The maximum local epoch-second, that of {@code LocalDateTime.MAX}.
+     */
+    static final long MAX_LOCAL_EPOCH_SECOND = LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC);
+
     /**
      * Obtains an instance of {@code ZoneRules} with full transition rules.
      *
@@ -91,6 +104,68 @@ public abstract class ZoneRules {
                              standardOffsetTransitionList, transitionList, lastRules);
     }
 
+    /**
+     * Obtains an instance of {@code ZoneRules} with full transition rules from arrays.
+     * <p>
+     * This factory is intended for code generated from the time-zone database,
+     * allowing rules to be created from constants without creating any transition objects.
+     * The offsets are specified in seconds. Each array of offsets must be one larger
+     * than the associated array of transitions, with the first offset applying before
+     * the first transition and each subsequent offset applying from the matching transition.
+     * The arrays are copied.
+     *
+     * @param standardTransitions  the epoch-seconds of the changes to the standard offset, strictly increasing, not null
+     * @param standardOffsets  the standard offsets in seconds, not null
+     * @param savingsInstantTransitions  the epoch-seconds of the transitions, strictly increasing, not null
+     * @param wallOffsets  the wall offsets in seconds, not null
+     * @param lastRules  the recurring last rules, size 15 or less, not null
+     * @return the zone rules, not null
+     * @throws IllegalArgumentException if the array sizes are invalid or the transitions are not strictly increasing
+     */
+    public static ZoneRules of(long[] standardTransitions,
+                               int[] standardOffsets,
+                               long[] savingsInstantTransitions,
+                               int[] wallOffsets,
+                               ZoneOffsetTransitionRule[] lastRules) {
+        Jdk8Methods.requireNonNull(standardTransitions, "standardTransitions");
+        Jdk8Methods.requireNonNull(standardOffsets, "standardOffsets");
+        Jdk8Methods.requireNonNull(savingsInstantTransitions, "savingsInstantTransitions");
+        Jdk8Methods.requireNonNull(wallOffsets, "wallOffsets");
+        Jdk8Methods.requireNonNull(lastRules, "lastRules");
+        if (standardOffsets.length != standardTransitions.length + 1 ||
+                wallOffsets.length != savingsInstantTransitions.length + 1) {
+            throw new IllegalArgumentException("Offset arrays must be one larger than transition arrays");
+        }
+        if (lastRules.length > 15) {
+            throw new IllegalArgumentException("Too many transition rules");
+        }
+        ZoneOffsetTransitionRule[] rules = lastRules.clone();
+        for (ZoneOffsetTransitionRule rule : rules) {
+            Jdk8Methods.requireNonNull(rule, "lastRules");
+        }
+        long[] standard = standardTransitions.clone();
+        long[] savings = savingsInstantTransitions.clone();
+        checkIncreasing(standard, "standardTransitions");
+        checkIncreasing(savings, "savingsInstantTransitions");
+        return new StandardZoneRules(standard, toOffsets(standardOffsets), savings, toOffsets(wallOffsets), rules);
+    }
+
+    private static void checkIncreasing(long[] transitions, String name) {
+        for (int i = 1; i < transitions.length; i++) {
+            if (transitions[i] <= transitions[i - 1]) {
+                throw new IllegalArgumentException("Transitions must be strictly increasing: " + name + "[" + i + "]");
+            }
+        }
+    }
+
+    private static ZoneOffset[] toOffsets(int[] offsetSecs) {
+        ZoneOffset[] offsets = new ZoneOffset[offsetSecs.length];
+        for (int i = 0; i < offsetSecs.length; i++) {
+            offsets[i] = ZoneOffset.ofTotalSeconds(offsetSecs[i]);
+        }
+        return offsets;
+    }
+
     /**
      * Obtains an instance of {@code ZoneRules} that always uses the same offset.
      * <p>
@@ -111,6 +186,39 @@ public abstract class ZoneRules {
     }
 
     //-----------------------------------------------------------------------
+    /**
+     * Returns rules equal to these that remember the last offset interval found.
+     * <p>
+     * When converting a stream of nearly sorted instants, most lookups fall within
+     * the same interval between two transitions as the previous lookup.
+     * The returned rules remember the start and end of that interval together with its offset,
+     * so such a lookup via {@link #getOffset(Instant)} or {@link #getOffset(long)}
+     * costs two comparisons rather than a search.
+     * <p>
+     * The remembered interval is immutable and is published via a volatile field,
+     * thus the returned rules are thread-safe without locking. Since threads sharing
+     * the returned rules replace each other's interval, it is best for each stream
+     * of instants to use its own instance. The remembered interval is not serialized.
+     *
+     * @return the memoizing rules, not null
+     */
+    public ZoneRules memoized() {
+        return this;
+    }
+
+    /**
+     * Populates the caches of these rules for a range of years.
+     * <p>
+     * This is called when preloading the rules, such that later lookups within
+     * the range of years do not need to create transitions.
+     * This implementation does nothing.
+     *
+     * @param startYear  the first year to populate, inclusive
+     * @param endYear  the last year to populate, inclusive
+     */
+    void preload(int startYear, int endYear) {
+    }
+
     /**
      * Checks of the zone rules are fixed, such that the offset never varies.
      *
@@ -132,6 +240,148 @@ public abstract class ZoneRules {
      */
     public abstract ZoneOffset getOffset(Instant instant);
 
+    /**
+     * Gets the offset applicable at the specified epoch-second in these rules.
+     * <p>
+     * This is equivalent to {@link #getOffset(Instant)} but avoids the need
+     * to create an {@code Instant}, which is useful in performance sensitive code.
+     * The offset returned is shared, no object is created by the supplied implementations.
+     *
+     * @param epochSecond  the epoch-second to find the offset for, from 1970-01-01T00:00:00Z
+     * @return the offset, not null
+     */
+    public ZoneOffset getOffset(long epochSecond) {
+        return getOffset(Instant.ofEpochSecond(epochSecond));
+    }
+
+    /**
+     * Gets the total offset in seconds applicable at the specified epoch-second in these rules.
+     * <p>
+     * This is equivalent to {@code getOffset(epochSecond).getTotalSeconds()}.
+     *
+     * @param epochSecond  the epoch-second to find the offset for, from 1970-01-01T00:00:00Z
+     * @return the total offset in seconds
+     */
+    public int getOffsetSeconds(long epochSecond) {
+        return getOffset(epochSecond).getTotalSeconds();
+    }
+
+    /**
+     * Gets the total offsets in seconds applicable at each of the specified epoch-seconds.
+     * <p>
+     * This is equivalent to calling {@link #getOffsetSeconds(long)} for each element.
+     *
+     * @param epochSeconds  the epoch-seconds to find the offsets for, not null
+     * @return the total offsets in seconds, one for each epoch-second, not null
+     */
+    public int[] getOffsetSeconds(long[] epochSeconds) {
+        Jdk8Methods.requireNonNull(epochSeconds, "epochSeconds");
+        int[] offsetSeconds = new int[epochSeconds.length];
+        getOffsetSeconds(epochSeconds, 0, offsetSeconds, 0, epochSeconds.length);
+        return offsetSeconds;
+    }
+
+    /**
+     * Gets the total offsets in seconds applicable at a range of epoch-seconds.
+     * <p>
+     * This is equivalent to calling {@link #getOffsetSeconds(long)} for each element
+     * of the source range, storing the result in the destination range.
+     * No objects are created by the supplied implementations.
+     * <p>
+     * Input that is sorted, or nearly sorted, is processed fastest, as the rules
+     * only search for the offset when an epoch-second falls outside the interval
+     * of constant offset containing the previous epoch-second.
+     *
+     * @param epochSeconds  the epoch-seconds to find the offsets for, not null
+     * @param srcIndex  the index of the first epoch-second
+     * @param offsetSeconds  the array to store the total offsets in seconds, not null
+     * @param destIndex  the index to store the first offset
+     * @param length  the number of epoch-seconds to process
+     * @throws IndexOutOfBoundsException if either range is outside the bounds of its array
+     */
+    public void getOffsetSeconds(long[] epochSeconds, int srcIndex, int[] offsetSeconds, int destIndex, int length) {
+        checkBulkRange(epochSeconds.length, srcIndex, offsetSeconds.length, destIndex, length);
+        for (int i = 0; i < length; i++) {
+            offsetSeconds[destIndex + i] = getOffsetSeconds(epochSeconds[srcIndex + i]);
+        }
+    }
+
+    /**
+     * Gets the total offsets in seconds suitable for each of the specified local epoch-seconds.
+     * <p>
+     * A local epoch-second is the number of seconds from 1970-01-01T00:00 on the
+     * local time-line, as returned by {@code LocalDateTime.toEpochSecond(ZoneOffset.UTC)}.
+     * This is equivalent to calling {@link #getOffset(LocalDateTime)} for each element,
+     * thus in a gap or overlap the offset before the transition is returned.
+     *
+     * @param localEpochSeconds  the local epoch-seconds to find the offsets for, not null
+     * @return the total offsets in seconds, one for each local epoch-second, not null
+     * @throws DateTimeException if a local epoch-second exceeds the supported range
+     */
+    public int[] getLocalOffsetSeconds(long[] localEpochSeconds) {
+        Jdk8Methods.requireNonNull(localEpochSeconds, "localEpochSeconds");
+        int[] offsetSeconds = new int[localEpochSeconds.length];
+        getLocalOffsetSeconds(localEpochSeconds, 0, offsetSeconds, 0, localEpochSeconds.length);
+        return offsetSeconds;
+    }
+
+    /**
+     * Gets the total offsets in seconds suitable for a range of local epoch-seconds.
+     * <p>
+     * This is equivalent to calling {@link #getOffset(LocalDateTime)} for each element
+     * of the source range, storing the total seconds in the destination range.
+     * See {@link #getLocalOffsetSeconds(long[])} for the definition of a local epoch-second.
+     * <p>
+     * Input that is sorted, or nearly sorted, is processed fastest, as the rules
+     * only search for the offset when a local epoch-second falls outside the interval
+     * of constant offset containing the previous local epoch-second.
+     *
+     * @param localEpochSeconds  the local epoch-seconds to find the offsets for, not null
+     * @param srcIndex  the index of the first local epoch-second
+     * @param offsetSeconds  the array to store the total offsets in seconds, not null
+     * @param destIndex  the index to store the first offset
+     * @param length  the number of local epoch-seconds to process
+     * @throws IndexOutOfBoundsException if either range is outside the bounds of its array
+     * @throws DateTimeException if a local epoch-second exceeds the supported range
+     */
+    public void getLocalOffsetSeconds(long[] localEpochSeconds, int srcIndex, int[] offsetSeconds, int destIndex, int length) {
+        checkBulkRange(localEpochSeconds.length, srcIndex, offsetSeconds.length, destIndex, length);
+        for (int i = 0; i < length; i++) {
+            LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(localEpochSeconds[srcIndex + i], 0, ZoneOffset.UTC);
+            offsetSeconds[destIndex + i] = getOffset(localDateTime).getTotalSeconds();
+        }
+    }
+
+    /**
+     * Checks the ranges of a bulk operation.
+     *
+     * @param srcLength  the length of the source array
+     * @param srcIndex  the index of the first source element
+     * @param destLength  the length of the destination array
+     * @param destIndex  the index of the first destination element
+     * @param length  the number of elements
+     * @throws IndexOutOfBoundsException if either range is outside the bounds of its array
+     */
+    static void checkBulkRange(int srcLength, int srcIndex, int destLength, int destIndex, int length) {
+        if (srcIndex < 0 || destIndex < 0 || length < 0 ||
+                srcIndex > srcLength - length || destIndex > destLength - length) {
+            throw new IndexOutOfBoundsException("Invalid range: srcIndex=" + srcIndex +
+                    ", destIndex=" + destIndex + ", length=" + length);
+        }
+    }
+
+    /**
+     * Checks that a local epoch-second is within the range of {@code LocalDateTime}.
+     *
+     * @param localEpochSecond  the local epoch-second to check
+     * @throws DateTimeException if the local epoch-second exceeds the supported range
+     */
+    static void checkLocalEpochSecond(long localEpochSecond) {
+        if (localEpochSecond < MIN_LOCAL_EPOCH_SECOND || localEpochSecond > MAX_LOCAL_EPOCH_SECOND) {
+            throw new DateTimeException("Local epoch-second exceeds the supported range: " + localEpochSecond);
+        }
+    }
+
     /**
      * Gets a suitable offset for the specified local date-time in these rules.
      * <p>
@@ -334,6 +584,72 @@ public abstract class ZoneRules {
      */
     public abstract ZoneOffsetTransition previousTransition(Instant instant);
 
+    /**
+     * Gets a view of the transitions within the specified window, in ascending order.
+     * <p>
+     * This returns the transitions whose instant is equal to or after the start
+     * and before the end, including those created from the transition rules.
+     * The transitions are found lazily as the view is iterated, thus a view over
+     * a long window is cheap to create and can be abandoned part way through.
+     * Each call to {@code iterator()} starts a new iteration from the start.
+     *
+     * @param startInclusive  the start of the window, inclusive, not null
+     * @param endExclusive  the end of the window, exclusive, not null
+     * @return a view of the transitions in ascending order, not null
+     * @throws IllegalArgumentException if the end is before the start
+     */
+    public Iterable<ZoneOffsetTransition> getTransitions(final Instant startInclusive, final Instant endExclusive) {
+        checkWindow(startInclusive, endExclusive);
+        return new Iterable<ZoneOffsetTransition>() {
+            @Override
+            public Iterator<ZoneOffsetTransition> iterator() {
+                ZoneOffsetTransition first;
+                if (startInclusive.equals(Instant.MIN)) {
+                    first = nextTransition(startInclusive);
+                } else {
+                    first = nextTransition(startInclusive.minusNanos(1));
+                }
+                return new TransitionIterator(first, endExclusive, false);
+            }
+        };
+    }
+
+    /**
+     * Gets a view of the transitions within the specified window, in descending order.
+     * <p>
+     * This returns the same transitions as {@link #getTransitions(Instant, Instant)}
+     * but iterates from the end of the window back towards the start.
+     *
+     * @param startInclusive  the start of the window, inclusive, not null
+     * @param endExclusive  the end of the window, exclusive, not null
+     * @return a view of the transitions in descending order, not null
+     * @throws IllegalArgumentException if the end is before the start
+     */
+    public Iterable<ZoneOffsetTransition> getTransitionsDescending(final Instant startInclusive, final Instant endExclusive) {
+        checkWindow(startInclusive, endExclusive);
+        return new Iterable<ZoneOffsetTransition>() {
+            @Override
+            public Iterator<ZoneOffsetTransition> iterator() {
+                return new TransitionIterator(previousTransition(endExclusive), startInclusive, true);
+            }
+        };
+    }
+
+    /**
+     * Checks the window of a transition view.
+     *
+     * @param startInclusive  the start of the window, not null
+     * @param endExclusive  the end of the window, not null
+     * @throws IllegalArgumentException if the end is before the start
+     */
+    static void checkWindow(Instant startInclusive, Instant endExclusive) {
+        Jdk8Methods.requireNonNull(startInclusive, "startInclusive");
+        Jdk8Methods.requireNonNull(endExclusive, "endExclusive");
+        if (endExclusive.isBefore(startInclusive)) {
+            throw new IllegalArgumentException("End must not be before start: " + startInclusive + " " + endExclusive);
+        }
+    }
+
     /**
      * Gets the complete list of fully defined transitions.
      * <p>
@@ -395,6 +711,57 @@ public abstract class ZoneRules {
     @Override
     public abstract int hashCode();
 
+    //-----------------------------------------------------------------------
+    /**
+     * Iterator over transitions using {@link #nextTransition(Instant)}
+     * or {@link #previousTransition(Instant)}.
+     */
+    private final class TransitionIterator implements Iterator<ZoneOffsetTransition> {
+        /** The limit of the window, exclusive when ascending, inclusive when descending. */
+        private final Instant limit;
+        /** Whether the iteration is descending. */
+        private final boolean descending;
+        /** The next transition, null if the iteration is complete. */
+        private ZoneOffsetTransition next;
+
+        TransitionIterator(ZoneOffsetTransition first, Instant limit, boolean descending) {
+            this.limit = limit;
+            this.descending = descending;
+            this.next = checkLimit(first);
+        }
+
+        private ZoneOffsetTransition checkLimit(ZoneOffsetTransition trans) {
+            if (trans == null) {
+                return null;
+            }
+            if (descending ? trans.getInstant().isBefore(limit) : trans.getInstant().isBefore(limit) == false) {
+                return null;
+            }
+            return trans;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ZoneOffsetTransition next() {
+            ZoneOffsetTransition trans = next;
+            if (trans == null) {
+                throw new NoSuchElementException();
+            }
+            Instant instant = trans.getInstant();
+            next = checkLimit(descending ? previousTransition(instant) : nextTransition(instant));
+            return trans;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Fixed time-zone.
@@ -425,11 +792,31 @@ public abstract class ZoneRules {
             return offset;
         }
 
+        @Override
+        public ZoneOffset getOffset(long epochSecond) {
+            return offset;
+        }
+
+        @Override
+        public void getOffsetSeconds(long[] epochSeconds, int srcIndex, int[] offsetSeconds, int destIndex, int length) {
+            checkBulkRange(epochSeconds.length, srcIndex, offsetSeconds.length, destIndex, length);
+            Arrays.fill(offsetSeconds, destIndex, destIndex + length, offset.getTotalSeconds());
+        }
+
         @Override
         public ZoneOffset getOffset(LocalDateTime localDateTime) {
             return offset;
         }
 
+        @Override
+        public void getLocalOffsetSeconds(long[] localEpochSeconds, int srcIndex, int[] offsetSeconds, int destIndex, int length) {
+            checkBulkRange(localEpochSeconds.length, srcIndex, offsetSeconds.length, destIndex, length);
+            for (int i = 0; i < length; i++) {
+                checkLocalEpochSecond(localEpochSeconds[srcIndex + i]);
+            }
+            Arrays.fill(offsetSeconds, destIndex, destIndex + length, offset.getTotalSeconds());
+        }
+
         @Override
         public List<ZoneOffset> getValidOffsets(LocalDateTime localDateTime) {
             return Collections.singletonList(offset);
@@ -477,6 +864,18 @@ public abstract class ZoneRules {
             return Collections.emptyList();
         }
 
+        @Override
+        public Iterable<ZoneOffsetTransition> getTransitions(Instant startInclusive, Instant endExclusive) {
+            checkWindow(startInclusive, endExclusive);
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<ZoneOffsetTransition> getTransitionsDescending(Instant startInclusive, Instant endExclusive) {
+            checkWindow(startInclusive, endExclusive);
+            return Collections.emptyList();
+        }
+
         @Override
         public List<ZoneOffsetTransitionRule> getTransitionRules() {
             return Collections.emptyList();
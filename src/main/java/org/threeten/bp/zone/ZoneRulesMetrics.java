@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the work done to load and look up time-zone rules.
+ * <p>
+ * The counters are opt-in, being enabled by setting the system property
+ * {@code org.threeten.bp.zone.ZoneRulesMetrics.enabled} to {@code true} before
+ * this class is loaded. When disabled, the counters are never updated, and as the
+ * flag is a constant, the code that would update them is removed by the JIT compiler.
+ * <p>
+ * The counters cover:
+ * <p><ul>
+ * <li>the number of times the rules of each region are decoded by the TZDB provider,
+ *  together with the total time spent decoding</li>
+ * <li>the hits and misses of the cache of transitions created from the last rules</li>
+ * <li>the lookups of transitions for years beyond the cached range</li>
+ * <li>the calls to {@link ZoneRulesProvider#getRules(String, boolean)}</li>
+ * </ul><p>
+ * Use {@link #snapshot()} to obtain the current values, for example to export
+ * to a monitoring system.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is thread-safe.
+ */
+public final class ZoneRulesMetrics {
+
+    /**
+     * The system property that enables the counters.
+     */
+    private static final String ENABLED_PROPERTY = "org.threeten.bp.zone.ZoneRulesMetrics.enabled";
+    /**
+     * Whether the counters are enabled.
+     */
+    static final boolean ENABLED = isEnabled();
+
+    /**
+     * The number of rules decoded by region ID.
+     */
+    private static final ConcurrentMap<String, AtomicLong> RULES_LOAD_COUNTS = new ConcurrentHashMap<String, AtomicLong>();
+    /**
+     * The total time spent decoding rules.
+     */
+    private static final AtomicLong RULES_LOAD_NANOS = new AtomicLong();
+    /**
+     * The hits of the last rules cache.
+     */
+    private static final AtomicLong LAST_RULES_CACHE_HITS = new AtomicLong();
+    /**
+     * The misses of the last rules cache.
+     */
+    private static final AtomicLong LAST_RULES_CACHE_MISSES = new AtomicLong();
+    /**
+     * The lookups for years beyond the last rules cache.
+     */
+    private static final AtomicLong UNCACHED_YEAR_LOOKUPS = new AtomicLong();
+    /**
+     * The calls to get the rules.
+     */
+    private static final AtomicLong RULES_LOOKUPS = new AtomicLong();
+
+    private static boolean isEnabled() {
+        try {
+            return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY));
+        } catch (SecurityException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Restricted constructor.
+     */
+    private ZoneRulesMetrics() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if the counters are enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean isCounting() {
+        return ENABLED;
+    }
+
+    /**
+     * Obtains a snapshot of the current values of the counters.
+     * <p>
+     * Each counter is read atomically, but the counters are not read
+     * atomically as a group.
+     *
+     * @return the snapshot, not null
+     */
+    public static Snapshot snapshot() {
+        Map<String, Long> loadCounts = new HashMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : RULES_LOAD_COUNTS.entrySet()) {
+            loadCounts.put(entry.getKey(), entry.getValue().get());
+        }
+        return new Snapshot(loadCounts, RULES_LOAD_NANOS.get(),
+                LAST_RULES_CACHE_HITS.get(), LAST_RULES_CACHE_MISSES.get(),
+                UNCACHED_YEAR_LOOKUPS.get(), RULES_LOOKUPS.get());
+    }
+
+    /**
+     * Resets the counters to zero.
+     */
+    public static void reset() {
+        RULES_LOAD_COUNTS.clear();
+        RULES_LOAD_NANOS.set(0);
+        LAST_RULES_CACHE_HITS.set(0);
+        LAST_RULES_CACHE_MISSES.set(0);
+        UNCACHED_YEAR_LOOKUPS.set(0);
+        RULES_LOOKUPS.set(0);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Records the decoding of the rules of a region.
+     *
+     * @param regionId  the region ID, not null
+     * @param nanos  the time spent decoding
+     */
+    static void recordRulesLoad(String regionId, long nanos) {
+        AtomicLong count = RULES_LOAD_COUNTS.get(regionId);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = RULES_LOAD_COUNTS.putIfAbsent(regionId, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        count.incrementAndGet();
+        RULES_LOAD_NANOS.addAndGet(nanos);
+    }
+
+    /**
+     * Records a hit of the last rules cache.
+     */
+    static void recordLastRulesCacheHit() {
+        LAST_RULES_CACHE_HITS.incrementAndGet();
+    }
+
+    /**
+     * Records a miss of the last rules cache.
+     */
+    static void recordLastRulesCacheMiss() {
+        LAST_RULES_CACHE_MISSES.incrementAndGet();
+    }
+
+    /**
+     * Records a lookup for a year beyond the last rules cache.
+     */
+    static void recordUncachedYearLookup() {
+        UNCACHED_YEAR_LOOKUPS.incrementAndGet();
+    }
+
+    /**
+     * Records a call to get the rules.
+     */
+    static void recordRulesLookup() {
+        RULES_LOOKUPS.incrementAndGet();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An immutable snapshot of the counters.
+     *
+     * <h3>Specification for implementors</h3>
+     * This class is immutable and thread-safe.
+     */
+    public static final class Snapshot {
+        private final Map<String, Long> rulesLoadCounts;
+        private final long rulesLoadNanos;
+        private final long lastRulesCacheHits;
+        private final long lastRulesCacheMisses;
+        private final long uncachedYearLookups;
+        private final long rulesLookups;
+
+        Snapshot(Map<String, Long> rulesLoadCounts, long rulesLoadNanos,
+                long lastRulesCacheHits, long lastRulesCacheMisses, long uncachedYearLookups, long rulesLookups) {
+            this.rulesLoadCounts = Collections.unmodifiableMap(rulesLoadCounts);
+            this.rulesLoadNanos = rulesLoadNanos;
+            this.lastRulesCacheHits = lastRulesCacheHits;
+            this.lastRulesCacheMisses = lastRulesCacheMisses;
+            this.uncachedYearLookups = uncachedYearLookups;
+            this.rulesLookups = rulesLookups;
+        }
+
+        /**
+         * Gets the number of times the rules of each region were decoded.
+         *
+         * @return the unmodifiable map of region ID to count, not null
+         */
+        public Map<String, Long> getRulesLoadCounts() {
+            return rulesLoadCounts;
+        }
+
+        /**
+         * Gets the total number of times rules were decoded.
+         *
+         * @return the count
+         */
+        public long getRulesLoadCount() {
+            long total = 0;
+            for (Long count : rulesLoadCounts.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Gets the total time spent decoding rules.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getRulesLoadNanos() {
+            return rulesLoadNanos;
+        }
+
+        /**
+         * Gets the number of lookups of transitions found in the last rules cache.
+         *
+         * @return the count
+         */
+        public long getLastRulesCacheHits() {
+            return lastRulesCacheHits;
+        }
+
+        /**
+         * Gets the number of lookups of transitions that created them for the last rules cache.
+         *
+         * @return the count
+         */
+        public long getLastRulesCacheMisses() {
+            return lastRulesCacheMisses;
+        }
+
+        /**
+         * Gets the number of lookups of transitions for years beyond the last rules cache.
+         * <p>
+         * Transitions are only cached for years up to 2100, later years are
+         * created on demand, with only the most recently used year retained.
+         *
+         * @return the count
+         */
+        public long getUncachedYearLookups() {
+            return uncachedYearLookups;
+        }
+
+        /**
+         * Gets the number of calls to {@link ZoneRulesProvider#getRules(String, boolean)}.
+         *
+         * @return the count
+         */
+        public long getRulesLookups() {
+            return rulesLookups;
+        }
+
+        @Override
+        public String toString() {
+            return "ZoneRulesMetrics[rulesLoads=" + getRulesLoadCount() + ", rulesLoadNanos=" + rulesLoadNanos +
+                    ", lastRulesCacheHits=" + lastRulesCacheHits + ", lastRulesCacheMisses=" + lastRulesCacheMisses +
+                    ", uncachedYearLookups=" + uncachedYearLookups + ", rulesLookups=" + rulesLookups + "]";
+        }
+    }
+
+}
@@ -31,14 +31,24 @@
  */
 package org.threeten.bp.zone;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.threeten.bp.DateTimeException;
+import org.threeten.bp.Duration;
 import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZonedDateTime;
 import org.threeten.bp.jdk8.Jdk8Methods;
@@ -66,18 +76,20 @@ import org.threeten.bp.jdk8.Jdk8Methods;
  * <p>
  * Many systems would like to update time-zone rules dynamically without stopping the JVM.
  * When examined in detail, this is a complex problem.
- * Providers may choose to handle dynamic updates, however the default provider does not.
+ * Providers may choose to handle dynamic updates, see {@link #refresh()}.
+ * <p>
+ * The registered providers and zone IDs are held in an immutable snapshot
+ * that is replaced atomically when a provider is registered or refreshed.
+ * Each lookup reads the snapshot once, thus a lookup never sees a partially
+ * registered provider. The snapshot maps each zone ID to its provider, not to
+ * its rules, so the rules returned are from the current state of the provider.
  */
 public abstract class ZoneRulesProvider {
 
     /**
-     * The set of loaded providers.
-     */
-    private static final CopyOnWriteArrayList<ZoneRulesProvider> PROVIDERS = new CopyOnWriteArrayList<ZoneRulesProvider>();
-    /**
-     * The lookup from zone region ID to provider.
+     * The snapshot of the loaded providers and the lookup from zone region ID to provider.
      */
-    private static final ConcurrentMap<String, ZoneRulesProvider> ZONES = new ConcurrentHashMap<String, ZoneRulesProvider>(512, 0.75f, 2);
+    private static final AtomicReference<Registry> REGISTRY = new AtomicReference<Registry>(Registry.EMPTY);
     static {
         ZoneRulesInitializer.initialize();
     }
@@ -87,11 +99,14 @@ public abstract class ZoneRulesProvider {
      * Gets the set of available zone IDs.
      * <p>
      * These zone IDs are loaded and available for use by {@code ZoneId}.
+     * The set is a snapshot, it does not change if more zone IDs are registered.
+     * The same set instance is returned until a provider is registered or refreshed,
+     * thus the identity of the set can be used to detect such changes.
      *
      * @return the unmodifiable set of zone IDs, not null
      */
     public static Set<String> getAvailableZoneIds() {
-        return Collections.unmodifiableSet(ZONES.keySet());
+        return REGISTRY.get().zoneIds;
     }
 
     /**
@@ -119,6 +134,9 @@ public abstract class ZoneRulesProvider {
      */
     public static ZoneRules getRules(String zoneId, boolean forCaching) {
         Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        if (ZoneRulesMetrics.ENABLED) {
+            ZoneRulesMetrics.recordRulesLookup();
+        }
         return getProvider(zoneId).provideRules(zoneId, forCaching);
     }
 
@@ -159,9 +177,10 @@ public abstract class ZoneRulesProvider {
      * @throws ZoneRulesException if the zone ID is unknown
      */
     private static ZoneRulesProvider getProvider(String zoneId) {
-        ZoneRulesProvider provider = ZONES.get(zoneId);
+        Map<String, ZoneRulesProvider> zones = REGISTRY.get().zones;
+        ZoneRulesProvider provider = zones.get(zoneId);
         if (provider == null) {
-            if (ZONES.isEmpty()) {
+            if (zones.isEmpty()) {
                 throw new ZoneRulesException("No time-zone data files registered");
             }
             throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
@@ -181,30 +200,20 @@ public abstract class ZoneRulesProvider {
      * <p>
      * To ensure the integrity of time-zones already created, there is no way
      * to deregister providers.
+     * <p>
+     * The registration is atomic, either all the zone IDs of the provider
+     * become available at once, or none do.
      *
      * @param provider  the provider to register, not null
      * @throws ZoneRulesException if a region is already registered
      */
     public static void registerProvider(ZoneRulesProvider provider) {
         Jdk8Methods.requireNonNull(provider, "provider");
-        registerProvider0(provider);
-        PROVIDERS.add(provider);
-    }
-
-    /**
-     * Registers the provider.
-     *
-     * @param provider  the provider to register, not null
-     * @throws ZoneRulesException if unable to complete the registration
-     */
-    private static void registerProvider0(ZoneRulesProvider provider) {
-        for (String zoneId : provider.provideZoneIds()) {
-            Jdk8Methods.requireNonNull(zoneId, "zoneId");
-            ZoneRulesProvider old = ZONES.putIfAbsent(zoneId, provider);
-            if (old != null) {
-                throw new ZoneRulesException(
-                    "Unable to register zone as one already registered with that ID: " + zoneId +
-                    ", currently loading from provider: " + provider);
+        Set<String> zoneIds = provider.provideZoneIds();
+        while (true) {
+            Registry current = REGISTRY.get();
+            if (REGISTRY.compareAndSet(current, current.withProvider(provider, zoneIds))) {
+                return;
             }
         }
     }
@@ -218,20 +227,137 @@ public abstract class ZoneRulesProvider {
      * After calling this method, the offset stored in any {@link ZonedDateTime}
      * may be invalid for the zone ID.
      * <p>
-     * Dynamic behavior is entirely optional and most providers, including the
-     * default provider, do not support it.
+     * Dynamic behavior is entirely optional and most providers do not support it.
+     * The default provider loads any new {@code TZDB.dat} files found by the class loader.
+     * <p>
+     * Each provider refreshes its own rules in turn, thus the refresh as a whole is not
+     * atomic and, while it is in progress, a lookup may see the refreshed rules of one
+     * provider and the previous rules of another. Once all the providers have refreshed,
+     * any zone IDs they newly provide are published together in a single atomic update,
+     * thus no lookup sees a partially refreshed set of zone IDs.
+     * <p>
+     * A {@code ZoneId} keeps the rules it was created with, unless the provider prevented
+     * caching, thus existing instances continue to use the previous rules.
+     * When the rules are updated, the set of {@linkplain #getAvailableZoneIds() available zone IDs}
+     * is replaced, even if no zone IDs were added, so {@link ZoneId#of(String)} stops
+     * returning the zone IDs it has cached and creates new ones using the refreshed rules.
      *
      * @return true if the rules were updated
      * @throws ZoneRulesException if an error occurs during the refresh
      */
     public static boolean refresh() {
         boolean changed = false;
-        for (ZoneRulesProvider provider : PROVIDERS) {
+        for (ZoneRulesProvider provider : REGISTRY.get().providers) {
             changed |= provider.provideRefresh();
         }
+        if (changed) {
+            while (true) {
+                Registry current = REGISTRY.get();
+                if (REGISTRY.compareAndSet(current, current.refreshed())) {
+                    break;
+                }
+            }
+        }
         return changed;
     }
 
+    //-------------------------------------------------------------------------
+    /**
+     * Preloads the rules of all available zone IDs.
+     * <p>
+     * This is equivalent to {@link #preload(Collection, int, int, ExecutorService)}
+     * for the {@linkplain #getAvailableZoneIds() available zone IDs}
+     * using a temporary thread pool sized to the number of processors.
+     *
+     * @param startYear  the first year of the transition caches to populate, inclusive
+     * @param endYear  the last year of the transition caches to populate, inclusive
+     * @return the report of the preload, not null
+     * @throws IllegalArgumentException if the start year is after the end year
+     * @throws ZoneRulesException if the rules of a zone cannot be obtained
+     */
+    public static PreloadReport preloadAll(int startYear, int endYear) {
+        return preload(getAvailableZoneIds(), startYear, endYear, null);
+    }
+
+    /**
+     * Preloads the rules of the specified zone IDs in parallel.
+     * <p>
+     * Providers typically decode the rules of a zone when first requested, which
+     * causes a delay on the first use of each zone after startup. This method obtains
+     * the rules of each zone, populating the caches of the providers, and populates
+     * the transition caches of the rules for the specified range of years.
+     * <p>
+     * The work is split into one task per zone ID, run using the specified executor.
+     * If the executor is null, a temporary thread pool sized to the number of
+     * processors is used and shut down before this method returns.
+     * This method waits for all the tasks to complete.
+     *
+     * @param zoneIds  the zone region IDs to preload, not null
+     * @param startYear  the first year of the transition caches to populate, inclusive
+     * @param endYear  the last year of the transition caches to populate, inclusive
+     * @param executor  the executor to run the tasks, null to use a temporary thread pool
+     * @return the report of the preload, not null
+     * @throws IllegalArgumentException if the start year is after the end year
+     * @throws ZoneRulesException if a zone ID is unknown or the rules cannot be obtained
+     */
+    public static PreloadReport preload(Collection<String> zoneIds, final int startYear, final int endYear, ExecutorService executor) {
+        Jdk8Methods.requireNonNull(zoneIds, "zoneIds");
+        if (startYear > endYear) {
+            throw new IllegalArgumentException("Start year must not be after end year");
+        }
+        List<String> ids = new ArrayList<String>(zoneIds);
+        for (String zoneId : ids) {
+            Jdk8Methods.requireNonNull(zoneId, "zoneId");
+            getProvider(zoneId);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
+        long startNanos = System.nanoTime();
+        ExecutorService pool = executor;
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(runtime.availableProcessors(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ZoneRulesProvider-preload");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>(ids.size());
+            for (final String zoneId : ids) {
+                futures.add(pool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        ZoneRules rules = getRules(zoneId, true);
+                        if (rules != null) {
+                            rules.preload(startYear, endYear);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ZoneRulesException("Interrupted while preloading time-zone rules", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new ZoneRulesException("Unable to preload time-zone rules", ex.getCause());
+        } finally {
+            if (executor == null) {
+                pool.shutdown();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long memoryAfter = runtime.totalMemory() - runtime.freeMemory();
+        return new PreloadReport(ids.size(), Duration.ofNanos(elapsedNanos), memoryAfter - memoryBefore);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Constructor.
@@ -308,4 +434,162 @@ public abstract class ZoneRulesProvider {
         return false;
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * The immutable snapshot of the registered providers.
+     */
+    private static final class Registry {
+        /**
+         * The empty registry.
+         */
+        static final Registry EMPTY = new Registry(
+                Collections.<ZoneRulesProvider>emptyList(), Collections.<String, ZoneRulesProvider>emptyMap());
+
+        /**
+         * The loaded providers, in order of registration.
+         */
+        final List<ZoneRulesProvider> providers;
+        /**
+         * The lookup from zone region ID to provider.
+         */
+        final Map<String, ZoneRulesProvider> zones;
+        /**
+         * The zone region IDs.
+         */
+        final Set<String> zoneIds;
+
+        /**
+         * Constructor.
+         *
+         * @param providers  the providers, not altered, not null
+         * @param zones  the lookup from zone region ID to provider, not altered, not null
+         */
+        Registry(List<ZoneRulesProvider> providers, Map<String, ZoneRulesProvider> zones) {
+            this.providers = Collections.unmodifiableList(providers);
+            this.zones = Collections.unmodifiableMap(zones);
+            this.zoneIds = Collections.unmodifiableSet(zones.keySet());
+        }
+
+        /**
+         * Returns a copy of this registry with the provider added.
+         *
+         * @param provider  the provider to add, not null
+         * @param zoneIds  the zone IDs of the provider, not null
+         * @return the new registry, not null
+         * @throws ZoneRulesException if a zone ID is already registered
+         */
+        Registry withProvider(ZoneRulesProvider provider, Set<String> zoneIds) {
+            List<ZoneRulesProvider> newProviders = new ArrayList<ZoneRulesProvider>(providers);
+            newProviders.add(provider);
+            Map<String, ZoneRulesProvider> newZones = new HashMap<String, ZoneRulesProvider>(zones);
+            addZones(newZones, provider, zoneIds);
+            return new Registry(newProviders, newZones);
+        }
+
+        /**
+         * Returns a copy of this registry including any zone IDs newly provided
+         * by the registered providers.
+         *
+         * @return the new registry, not null
+         * @throws ZoneRulesException if a new zone ID is already registered by another provider
+         */
+        Registry refreshed() {
+            Map<String, ZoneRulesProvider> newZones = new HashMap<String, ZoneRulesProvider>(zones);
+            for (ZoneRulesProvider provider : providers) {
+                Set<String> zoneIds = new HashSet<String>(provider.provideZoneIds());
+                for (Map.Entry<String, ZoneRulesProvider> entry : zones.entrySet()) {
+                    if (entry.getValue() == provider) {
+                        zoneIds.remove(entry.getKey());
+                    }
+                }
+                addZones(newZones, provider, zoneIds);
+            }
+            return new Registry(new ArrayList<ZoneRulesProvider>(providers), newZones);
+        }
+
+        private static void addZones(Map<String, ZoneRulesProvider> zones, ZoneRulesProvider provider, Set<String> zoneIds) {
+            for (String zoneId : zoneIds) {
+                Jdk8Methods.requireNonNull(zoneId, "zoneId");
+                ZoneRulesProvider old = zones.get(zoneId);
+                if (old != null) {
+                    throw new ZoneRulesException(
+                        "Unable to register zone as one already registered with that ID: " + zoneId +
+                        ", currently loading from provider: " + provider);
+                }
+                zones.put(zoneId, provider);
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The report of a preload of time-zone rules.
+     * <p>
+     * The memory used is estimated from the heap in use before and after the preload.
+     * Since garbage collection may run at any time, and other threads may allocate,
+     * the estimate is approximate and may even be negative.
+     *
+     * <h3>Specification for implementors</h3>
+     * This class is immutable and thread-safe.
+     */
+    public static final class PreloadReport {
+        /**
+         * The number of zones preloaded.
+         */
+        private final int zoneCount;
+        /**
+         * The time spent.
+         */
+        private final Duration elapsed;
+        /**
+         * The estimated memory used in bytes.
+         */
+        private final long memoryUsed;
+
+        /**
+         * Constructor.
+         *
+         * @param zoneCount  the number of zones preloaded
+         * @param elapsed  the time spent, not null
+         * @param memoryUsed  the estimated memory used in bytes
+         */
+        PreloadReport(int zoneCount, Duration elapsed, long memoryUsed) {
+            this.zoneCount = zoneCount;
+            this.elapsed = elapsed;
+            this.memoryUsed = memoryUsed;
+        }
+
+        /**
+         * Gets the number of zones preloaded.
+         *
+         * @return the number of zones
+         */
+        public int getZoneCount() {
+            return zoneCount;
+        }
+
+        /**
+         * Gets the time spent preloading.
+         *
+         * @return the elapsed time, not null
+         */
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        /**
+         * Gets the estimated heap memory used by preloading.
+         *
+         * @return the estimated memory in bytes, approximate
+         */
+        public long getMemoryUsed() {
+            return memoryUsed;
+        }
+
+        @Override
+        public String toString() {
+            return "PreloadReport[zones=" + zoneCount + ", elapsed=" + elapsed + ", memoryUsed=" + memoryUsed + "]";
+        }
+    }
+
 }
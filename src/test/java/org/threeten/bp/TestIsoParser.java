@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.threeten.bp.format.DateTimeFormatter;
+import org.threeten.bp.format.DateTimeParseException;
+import org.threeten.bp.temporal.TemporalQuery;
+
+/**
+ * Test IsoParser.
+ */
+@Test
+public class TestIsoParser {
+
+    @DataProvider(name="dates")
+    Object[][] data_dates() {
+        return new Object[][] {
+            {"2012-06-30", true},
+            {"0000-01-01", true},
+            {"9999-12-31", true},
+            {"2012-02-29", true},
+            {"2000-02-29", true},
+            {"1900-02-29", false},
+            {"2011-02-29", false},
+            {"2012-04-31", false},
+            {"2012-13-01", false},
+            {"2012-00-01", false},
+            {"2012-01-00", false},
+            {"+10000-01-01", false},
+            {"-0001-01-01", false},
+            {"2012-6-30", false},
+            {"2012/06/30", false},
+            {"2012-06-3X", false},
+            {"2012-06-30 ", false},
+            {"", false},
+        };
+    }
+
+    @DataProvider(name="times")
+    Object[][] data_times() {
+        return new Object[][] {
+            {"10:15", true},
+            {"10:15:30", true},
+            {"00:00:00.000000001", true},
+            {"23:59:59.999999999", true},
+            {"10:15:30.1", true},
+            {"10:15:30.1234", true},
+            {"24:00", false},
+            {"10:60", false},
+            {"23:59:60", false},
+            {"10:15:30.", false},
+            {"10:15:30.1234567890", false},
+            {"10:15:30,5", false},
+            {"10:1", false},
+            {"1015", false},
+        };
+    }
+
+    @DataProvider(name="offsets")
+    Object[][] data_offsets() {
+        return new Object[][] {
+            {"Z", true},
+            {"+01:00", true},
+            {"-05:30", true},
+            {"+00:00", true},
+            {"-00:00", true},
+            {"+18:00", true},
+            {"+01:02:03", true},
+            {"z", false},
+            {"+18:01", false},
+            {"+01", false},
+            {"+0100", false},
+            {"+01:60", false},
+            {"01:00", false},
+            {"", false},
+        };
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider="dates")
+    public void test_parseLocalDate(String text, boolean direct) {
+        assertDirect(IsoParser.parseLocalDate(text), direct);
+        assertSame(text, IsoParser.parseLocalDate(text), DateTimeFormatter.ISO_LOCAL_DATE, LocalDate.FROM);
+    }
+
+    @Test(dataProvider="times")
+    public void test_parseLocalTime(String text, boolean direct) {
+        assertDirect(IsoParser.parseLocalTime(text), direct);
+        assertSame(text, IsoParser.parseLocalTime(text), DateTimeFormatter.ISO_LOCAL_TIME, LocalTime.FROM);
+    }
+
+    @Test
+    public void test_parseLocalDateTime() {
+        for (Object[] date : data_dates()) {
+            for (Object[] time : data_times()) {
+                String text = date[0] + "T" + time[0];
+                LocalDateTime parsed = IsoParser.parseLocalDateTime(text);
+                assertDirect(parsed, (Boolean) date[1] && (Boolean) time[1]);
+                assertSame(text, parsed, DateTimeFormatter.ISO_LOCAL_DATE_TIME, LocalDateTime.FROM);
+            }
+        }
+        assertNull(IsoParser.parseLocalDateTime("2012-06-30t10:15"));
+        assertNull(IsoParser.parseLocalDateTime("2012-06-30 10:15"));
+    }
+
+    @Test
+    public void test_parseOffsetDateTime() {
+        for (Object[] time : data_times()) {
+            for (Object[] offset : data_offsets()) {
+                String text = "2012-06-30T" + time[0] + offset[0];
+                OffsetDateTime parsed = IsoParser.parseOffsetDateTime(text);
+                assertDirect(parsed, (Boolean) time[1] && (Boolean) offset[1]);
+                assertSame(text, parsed, DateTimeFormatter.ISO_OFFSET_DATE_TIME, OffsetDateTime.FROM);
+            }
+        }
+    }
+
+    @Test
+    public void test_parseZonedDateTime() {
+        String[] zones = {"", "[Europe/Paris]", "[America/New_York]", "[Etc/GMT+1]",
+            "[UTC]", "[GMT]", "[Europe/Nowhere]", "[europe/paris]", "[+01:00]", "[Europe/Paris", "Europe/Paris]"};
+        String[] dateTimes = {"2012-06-30T10:15:30", "2012-03-25T02:30", "2012-10-28T02:30", "2012-10-28T01:30:00.5"};
+        for (String dateTime : dateTimes) {
+            for (Object[] offset : data_offsets()) {
+                for (String zone : zones) {
+                    String text = dateTime + offset[0] + zone;
+                    ZonedDateTime parsed = IsoParser.parseZonedDateTime(text);
+                    if ((Boolean) offset[1] && (zone.equals("") || zone.equals("[Europe/Paris]"))) {
+                        assertNotNull(parsed, text);
+                    }
+                    assertSame(text, parsed, DateTimeFormatter.ISO_ZONED_DATE_TIME, ZonedDateTime.FROM);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_parseInstant() {
+        for (Object[] date : data_dates()) {
+            for (Object[] time : data_times()) {
+                for (String zone : new String[] {"Z", "z", "+01:00", ""}) {
+                    String text = date[0] + "T" + time[0] + zone;
+                    Instant parsed = IsoParser.parseInstant(text);
+                    if ((Boolean) date[1] && (Boolean) time[1] && zone.equals("Z") && time[0].toString().length() > 5) {
+                        assertNotNull(parsed, text);
+                    }
+                    assertSame(text, parsed, DateTimeFormatter.ISO_INSTANT, Instant.FROM);
+                }
+            }
+        }
+        assertNull(IsoParser.parseInstant("2012-06-30T23:59:60Z"));
+        assertEquals(Instant.parse("2012-06-30T23:59:60Z"), Instant.parse("2012-06-30T23:59:59Z"));
+    }
+
+    @Test(expectedExceptions=NullPointerException.class)
+    public void test_parseInstant_null() {
+        IsoParser.parseInstant(null);
+    }
+
+    //-----------------------------------------------------------------------
+    private static void assertDirect(Object parsed, boolean direct) {
+        if (direct) {
+            assertNotNull(parsed);
+        } else {
+            assertNull(parsed);
+        }
+    }
+
+    private static <T> void assertSame(String text, T parsed, DateTimeFormatter formatter,
+            TemporalQuery<T> query) {
+        if (parsed == null) {
+            return;
+        }
+        try {
+            T expected = formatter.parse(text, query);
+            assertEquals(parsed, expected, text);
+            assertEquals(parsed.toString(), expected.toString(), text);
+        } catch (DateTimeParseException ex) {
+            throw new AssertionError("Parsed " + text + " directly but the formatter failed: " + ex);
+        }
+    }
+
+}
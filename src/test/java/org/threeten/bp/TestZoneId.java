@@ -34,17 +34,26 @@ package org.threeten.bp;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
 import java.util.SimpleTimeZone;
 import java.util.TimeZone;
+import java.util.TreeMap;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -53,6 +62,8 @@ import org.threeten.bp.temporal.TemporalAccessor;
 import org.threeten.bp.zone.ZoneOffsetTransition;
 import org.threeten.bp.zone.ZoneRules;
 import org.threeten.bp.zone.ZoneRulesException;
+import org.threeten.bp.zone.ZoneRulesInitializer;
+import org.threeten.bp.zone.ZoneRulesProvider;
 
 /**
  * Test ZoneId.
@@ -385,6 +396,60 @@ public class TestZoneId extends AbstractTest {
         assertEquals(test.getRules().isFixedOffset(), false);
     }
 
+    //-----------------------------------------------------------------------
+    public void test_of_string_cached() {
+        assertSame(ZoneId.of("Europe/London"), ZoneId.of("Europe/London"));
+        assertSame(ZoneId.of("UTC+05:30"), ZoneId.of("UTC+05:30"));
+        assertSame(ZoneId.of("GMT"), ZoneId.of("GMT"));
+        assertEquals(ZoneId.of("UTC+5"), ZoneId.of("UTC+05:00"));
+    }
+
+    public void test_of_string_prefixed_doesNotLoadProviders() throws Exception {
+        // a fresh copy of the library, so the providers have not been initialized
+        URL classes = ZoneId.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader loader = new URLClassLoader(new URL[] {classes}, null);
+        Class<?> zoneIdClass = loader.loadClass(ZoneId.class.getName());
+        for (String zoneId : new String[] {"UTC", "GMT+02:00", "UT-05:30", "UTC+01:00"}) {
+            Object test = zoneIdClass.getMethod("of", String.class).invoke(null, zoneId);
+            assertSame(zoneIdClass.getMethod("of", String.class).invoke(null, zoneId), test);
+        }
+        Class<?> initializerClass = loader.loadClass(ZoneRulesInitializer.class.getName());
+        initializerClass.getMethod("setInitializer", initializerClass).invoke(
+                null, initializerClass.getField("DO_NOTHING").get(null));
+    }
+
+    public void test_of_string_cached_prefixedDoNotEvictRegions() {
+        ZoneId region = ZoneId.of("Europe/London");
+        for (int i = 0; i < 1100; i++) {
+            ZoneId.of("UTC+00:" + (i / 60 < 10 ? "0" : "") + (i / 60) + ":" + (i % 60 < 10 ? "0" : "") + (i % 60));
+        }
+        assertSame(ZoneId.of("Europe/London"), region);
+    }
+
+    public void test_of_string_cached_discardedOnRegister() {
+        ZoneId before = ZoneId.of("Europe/Paris");
+        ZoneRulesProvider.registerProvider(new ZoneRulesProvider() {
+            @Override
+            protected Set<String> provideZoneIds() {
+                return new HashSet<String>(Collections.singleton("CacheTestLocation"));
+            }
+            @Override
+            protected ZoneRules provideRules(String regionId, boolean forCaching) {
+                return ZoneOffset.ofHours(3).getRules();
+            }
+            @Override
+            protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+                NavigableMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();
+                map.put("1", ZoneOffset.ofHours(3).getRules());
+                return map;
+            }
+        });
+        ZoneId after = ZoneId.of("Europe/Paris");
+        assertNotSame(after, before);
+        assertEquals(after, before);
+        assertEquals(ZoneId.of("CacheTestLocation").getRules().getOffset(Instant.EPOCH), ZoneOffset.ofHours(3));
+    }
+
     //-----------------------------------------------------------------------
     @Test(expectedExceptions=NullPointerException.class)
     public void test_of_string_null() {
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import static org.threeten.bp.temporal.ChronoField.NANO_OF_SECOND;
+import static org.threeten.bp.temporal.ChronoField.YEAR_OF_ERA;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.threeten.bp.DateTimeException;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.LocalTime;
+import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.OffsetTime;
+import org.threeten.bp.Year;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeFormatterBuilder.CompiledPrinter;
+import org.threeten.bp.temporal.TemporalAccessor;
+
+/**
+ * Test CompiledPrinter.
+ */
+@Test
+public class TestCompiledPrinter {
+
+    @DataProvider(name="formatters")
+    Object[][] data_formatters() {
+        return new Object[][] {
+            {DateTimeFormatter.ISO_LOCAL_DATE},
+            {DateTimeFormatter.ISO_LOCAL_TIME},
+            {DateTimeFormatter.ISO_LOCAL_DATE_TIME},
+            {DateTimeFormatter.ISO_OFFSET_DATE_TIME},
+            {DateTimeFormatter.ISO_OFFSET_TIME},
+            {DateTimeFormatter.ISO_DATE_TIME},
+            {DateTimeFormatter.ISO_INSTANT},
+            {DateTimeFormatter.BASIC_ISO_DATE},
+            {DateTimeFormatter.ofPattern("yyyyMMddHHmmss")},
+            {DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSS")},
+            {DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSSXXX")},
+            {DateTimeFormatter.ofPattern("d/M/yy[ HH:mm]")},
+            {new DateTimeFormatterBuilder().appendInstant(0).toFormatter()},
+            {new DateTimeFormatterBuilder().appendInstant(3).toFormatter()},
+            {new DateTimeFormatterBuilder().appendInstant(-1).toFormatter()},
+            {new DateTimeFormatterBuilder().appendValue(YEAR_OF_ERA, 4).appendFraction(NANO_OF_SECOND, 0, 4, true).toFormatter()},
+        };
+    }
+
+    private static List<TemporalAccessor> temporals() {
+        List<TemporalAccessor> list = new ArrayList<TemporalAccessor>();
+        LocalDateTime[] dateTimes = {
+            LocalDateTime.of(2012, 6, 30, 12, 30, 40, 0),
+            LocalDateTime.of(1970, 1, 1, 0, 0),
+            LocalDateTime.of(0, 1, 1, 0, 0),
+            LocalDateTime.of(0, 2, 29, 23, 59, 59, 999999999),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999999999),
+            LocalDateTime.of(10000, 1, 1, 0, 0),
+            LocalDateTime.of(-1, 12, 31, 23, 59, 59, 1000),
+            LocalDateTime.of(Year.MAX_VALUE, 12, 31, 23, 59, 59, 120000000),
+            LocalDateTime.of(Year.MIN_VALUE, 1, 1, 1, 2, 3, 456000),
+            LocalDateTime.of(2000, 2, 29, 5, 6, 7, 100),
+            LocalDateTime.of(1900, 3, 1, 5, 6, 7, 10000000),
+        };
+        ZoneOffset[] offsets = {ZoneOffset.UTC, ZoneOffset.ofHours(2), ZoneOffset.ofHoursMinutes(-5, -30),
+            ZoneOffset.ofHoursMinutesSeconds(1, 2, 3), ZoneOffset.MAX};
+        for (LocalDateTime dt : dateTimes) {
+            list.add(dt);
+            list.add(dt.toLocalDate());
+            list.add(dt.toLocalTime());
+            for (ZoneOffset offset : offsets) {
+                if (dt.getYear() > Year.MIN_VALUE && dt.getYear() < Year.MAX_VALUE) {
+                    list.add(OffsetDateTime.of(dt, offset));
+                    list.add(OffsetDateTime.of(dt, offset).toInstant());
+                }
+                list.add(OffsetTime.of(dt.toLocalTime(), offset));
+            }
+            if (dt.getYear() > Year.MIN_VALUE && dt.getYear() < Year.MAX_VALUE) {
+                list.add(ZonedDateTime.of(dt, ZoneId.of("Europe/Paris")));
+            }
+        }
+        return list;
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider="formatters")
+    public void test_format_matchesPrinterParsers(DateTimeFormatter formatter) {
+        for (TemporalAccessor temporal : temporals()) {
+            String expected;
+            try {
+                expected = printerParsers(formatter, temporal);
+            } catch (DateTimeException ex) {
+                expected = null;
+            }
+            try {
+                String formatted = formatter.format(temporal);
+                assertEquals(formatted, expected, temporal.toString());
+                StringBuilder buf = new StringBuilder("EXISTING");
+                formatter.formatTo(temporal, buf);
+                assertEquals(buf.toString(), "EXISTING" + expected, temporal.toString());
+            } catch (DateTimeException ex) {
+                assertNull(expected, temporal + " " + ex);
+            }
+        }
+    }
+
+    private static String printerParsers(DateTimeFormatter formatter, TemporalAccessor temporal) {
+        StringBuilder buf = new StringBuilder();
+        formatter.toPrinterParser(false).print(new DateTimePrintContext(temporal, formatter), buf);
+        return buf.toString();
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_compile_supported() {
+        assertNotNull(compile(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        assertNotNull(compile(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        assertNotNull(compile(DateTimeFormatter.ISO_INSTANT));
+        assertNotNull(compile(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")));
+        assertNotNull(compile(DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSS")));
+        assertNotNull(compile(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSSXXX")));
+    }
+
+    public void test_compile_unsupported() {
+        assertNull(compile(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+        assertNull(compile(DateTimeFormatter.ISO_WEEK_DATE));
+        assertNull(compile(DateTimeFormatter.ofPattern("dd MMM yyyy")));
+        assertNull(compile(DateTimeFormatter.ofPattern("yy-MM-dd")));
+    }
+
+    public void test_print_fallback() {
+        CompiledPrinter printer = compile(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        char[] buf = new char[printer.maxLength()];
+        assertEquals(printer.print(LocalDateTime.of(2012, 6, 30, 12, 30), buf, 0), 19);
+        assertEquals(new String(buf, 0, 19), "2012-06-30T12:30:00");
+        assertEquals(printer.print(LocalDateTime.of(10000, 6, 30, 12, 30), buf, 0), -1);
+        assertEquals(printer.print(LocalDate.of(2012, 6, 30), buf, 0), -1);
+        assertEquals(printer.print(Instant.EPOCH, buf, 0), -1);
+        assertEquals(printer.print(null, buf, 0), -1);
+    }
+
+    public void test_print_maxLength() {
+        CompiledPrinter printer = compile(DateTimeFormatter.ISO_INSTANT);
+        char[] buf = new char[printer.maxLength()];
+        int end = printer.print(Instant.parse("9999-12-31T23:59:59.999999999Z"), buf, 0);
+        assertTrue(end > 0 && end <= buf.length);
+    }
+
+    public void test_format_overrides() {
+        LocalDateTime dt = LocalDateTime.of(2012, 6, 30, 12, 30);
+        OffsetDateTime odt = OffsetDateTime.of(dt, ZoneOffset.ofHours(2));
+        DateTimeFormatter f = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        assertEquals(f.withZone(ZoneOffset.UTC).format(odt), "2012-06-30T10:30:00Z");
+        assertEquals(f.withDecimalStyle(DecimalStyle.STANDARD.withZeroDigit('A')).format(dt.atOffset(ZoneOffset.UTC)), "CABC-AG-DATBC:DA:AAZ");
+        assertEquals(f.withLocale(Locale.FRANCE).format(odt), "2012-06-30T12:30:00+02:00");
+    }
+
+    public void test_format_errors() {
+        try {
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDate.of(2012, 6, 30));
+            fail();
+        } catch (DateTimeException ex) {
+            // expected
+        }
+        try {
+            DateTimeFormatter.ISO_LOCAL_DATE.format(null);
+            fail();
+        } catch (NullPointerException ex) {
+            // expected
+        }
+    }
+
+    private static CompiledPrinter compile(DateTimeFormatter formatter) {
+        return CompiledPrinter.compile(formatter.toPrinterParser(false));
+    }
+
+}
@@ -34,9 +34,13 @@ package org.threeten.bp.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
 
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.text.Format;
 import java.text.ParseException;
 import java.text.ParsePosition;
@@ -45,10 +49,14 @@ import java.util.Locale;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.threeten.bp.DateTimeException;
+import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDate;
+import org.threeten.bp.LocalDateTime;
 import org.threeten.bp.LocalTime;
+import org.threeten.bp.OffsetDateTime;
 import org.threeten.bp.YearMonth;
 import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
 import org.threeten.bp.ZonedDateTime;
 import org.threeten.bp.temporal.TemporalAccessor;
 import org.threeten.bp.temporal.TemporalQuery;
@@ -147,6 +155,105 @@ public class TestDateTimeFormatter {
         }
     }
 
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_formatTo_charArray() throws Exception {
+        char[] buf = "XXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX".toCharArray();
+        int end = DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(LocalDateTime.of(2008, 6, 30, 11, 30), buf, 2);
+        assertEquals(end, 21);
+        assertEquals(new String(buf, 0, 23), "XX2008-06-30T11:30:00XX");
+        end = fmt.formatTo(LocalDate.of(2008, 6, 30), buf, end);
+        assertEquals(end, 26);
+        assertEquals(new String(buf, 0, 27), "XX2008-06-30T11:30:00ONE30X");
+    }
+
+    @Test
+    public void test_formatTo_charArray_exactFit() throws Exception {
+        char[] buf = new char[10];
+        assertEquals(DateTimeFormatter.ISO_LOCAL_DATE.formatTo(LocalDate.of(2008, 6, 30), buf, 0), 10);
+        assertEquals(new String(buf), "2008-06-30");
+    }
+
+    @Test
+    public void test_formatTo_charArray_tooSmall() throws Exception {
+        char[] buf = "XXXXXXXXXX".toCharArray();
+        try {
+            DateTimeFormatter.ISO_LOCAL_DATE.formatTo(LocalDate.of(2008, 6, 30), buf, 1);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {
+            assertEquals(new String(buf), "XXXXXXXXXX");
+        }
+    }
+
+    @Test(expectedExceptions=IndexOutOfBoundsException.class)
+    public void test_formatTo_charArray_invalidOffset() throws Exception {
+        DateTimeFormatter.ISO_LOCAL_DATE.formatTo(LocalDate.of(2008, 6, 30), new char[20], 21);
+    }
+
+    @Test(expectedExceptions=DateTimeException.class)
+    public void test_formatTo_charArray_noSuchField() throws Exception {
+        DateTimeFormatter.ISO_LOCAL_DATE.formatTo(LocalTime.of(11, 30), new char[20], 0);
+    }
+
+    @Test
+    public void test_formatTo_byteArray() throws Exception {
+        byte[] buf = new byte[30];
+        int end = DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochSecond(1214825400L, 123000000), buf, 1);
+        assertEquals(end, 25);
+        assertEquals(new String(buf, 1, 24, "US-ASCII"), "2008-06-30T11:30:00.123Z");
+        end = fmt.formatTo(LocalDate.of(2008, 6, 30), buf, end);
+        assertEquals(new String(buf, 25, end - 25, "US-ASCII"), "ONE30");
+    }
+
+    @Test
+    public void test_formatTo_byteArray_notAscii() throws Exception {
+        byte[] buf = new byte[30];
+        DateTimeFormatter test = DateTimeFormatter.ofPattern("d MMMM", Locale.FRENCH);
+        try {
+            test.formatTo(LocalDate.of(2008, 2, 1), buf, 0);
+            fail();
+        } catch (DateTimeException ex) {
+            assertEquals(buf, new byte[30]);
+        }
+    }
+
+    @Test(expectedExceptions=IndexOutOfBoundsException.class)
+    public void test_formatTo_byteArray_tooSmall() throws Exception {
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochSecond(1214825400L), new byte[19], 0);
+    }
+
+    @Test
+    public void test_formatTo_ByteBuffer() throws Exception {
+        ByteBuffer[] buffers = {ByteBuffer.allocate(30), ByteBuffer.allocateDirect(30)};
+        for (ByteBuffer buffer : buffers) {
+            buffer.put((byte) 'X');
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME.formatTo(
+                    OffsetDateTime.of(2008, 6, 30, 11, 30, 0, 0, ZoneOffset.ofHours(2)), buffer);
+            assertEquals(buffer.position(), 26);
+            byte[] bytes = new byte[26];
+            buffer.flip();
+            buffer.get(bytes);
+            assertEquals(new String(bytes, "US-ASCII"), "X2008-06-30T11:30:00+02:00");
+        }
+    }
+
+    @Test
+    public void test_formatTo_ByteBuffer_overflow() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.position(11);
+        try {
+            DateTimeFormatter.ISO_LOCAL_DATE.formatTo(LocalDate.of(2008, 6, 30), buffer);
+            fail();
+        } catch (BufferOverflowException ex) {
+            assertEquals(buffer.position(), 11);
+        }
+    }
+
+    @Test(expectedExceptions=ReadOnlyBufferException.class)
+    public void test_formatTo_ByteBuffer_readOnly() throws Exception {
+        DateTimeFormatter.ISO_LOCAL_DATE.formatTo(LocalDate.of(2008, 6, 30), ByteBuffer.allocate(20).asReadOnlyBuffer());
+    }
+
     //-----------------------------------------------------------------------
     // parse(Class)
     //-----------------------------------------------------------------------
@@ -212,6 +319,128 @@ public class TestDateTimeFormatter {
         test.parse("30", (TemporalQuery<?>) null);
     }
 
+    //-----------------------------------------------------------------------
+    // parse(bytes)
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_parse_Class_byteArray() throws Exception {
+        byte[] bytes = "XXONE2012 07 27XX".getBytes("US-ASCII");
+        LocalDate result = DATE_FORMATTER.parse(bytes, 2, 13, LocalDate.FROM);
+        assertEquals(result, LocalDate.of(2012, 7, 27));
+    }
+
+    @Test
+    public void test_parse_Class_byteArray_utf8() throws Exception {
+        DateTimeFormatter test = DateTimeFormatter.ofPattern("'\u00e9t\u00e9' d MMMM uuuu", Locale.FRENCH);
+        byte[] bytes = "\u00e9t\u00e9 27 juillet 2012".getBytes("UTF-8");
+        assertEquals(test.parse(bytes, 0, bytes.length, LocalDate.FROM), LocalDate.of(2012, 7, 27));
+    }
+
+    @Test
+    public void test_parse_Class_byteArray_strictAndLenient() throws Exception {
+        byte[] bytes = "2012-7-27".getBytes("US-ASCII");
+        DateTimeFormatter strict = DateTimeFormatter.ofPattern("uuuu-MM-dd");
+        try {
+            strict.parse(bytes, 0, bytes.length, LocalDate.FROM);
+            fail();
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getErrorIndex(), 5);
+        }
+        DateTimeFormatter lenient = new DateTimeFormatterBuilder().parseLenient().appendPattern("uuuu-MM-dd").toFormatter();
+        assertEquals(lenient.parse(bytes, 0, bytes.length, LocalDate.FROM), LocalDate.of(2012, 7, 27));
+    }
+
+    @Test(expectedExceptions=DateTimeParseException.class)
+    public void test_parse_Class_byteArray_parseError() throws Exception {
+        try {
+            byte[] bytes = "XX\u00e9ONE2012 07 XX".getBytes("UTF-8");
+            DATE_FORMATTER.parse(bytes, 4, bytes.length - 4, LocalDate.FROM);
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getParsedString(), "ONE2012 07 XX");
+            assertEquals(ex.getErrorIndex(), 11);
+            throw ex;
+        }
+    }
+
+    @Test(expectedExceptions=DateTimeParseException.class)
+    public void test_parse_Class_byteArray_parseErrorUtf8() throws Exception {
+        try {
+            byte[] bytes = "\u00e9ONE2012 07 XX".getBytes("UTF-8");
+            DateTimeFormatter.ofPattern("'\u00e9ONE'uuuu MM dd").parse(bytes, 0, bytes.length, LocalDate.FROM);
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getErrorIndex(), 13);  // two bytes for the accented character
+            assertTrue(ex.getMessage().endsWith("could not be parsed at index 13"), ex.getMessage());
+            throw ex;
+        }
+    }
+
+    @Test(expectedExceptions=DateTimeParseException.class)
+    public void test_parse_Class_byteArray_parseIncompleteUtf8() throws Exception {
+        try {
+            byte[] bytes = "\u00e9ONE2012 07 27XX".getBytes("UTF-8");
+            DateTimeFormatter.ofPattern("'\u00e9ONE'uuuu MM dd").parse(bytes, 0, bytes.length, LocalDate.FROM);
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getErrorIndex(), 15);
+            assertTrue(ex.getMessage().endsWith("unparsed text found at index 15"), ex.getMessage());
+            throw ex;
+        }
+    }
+
+    @Test(expectedExceptions=DateTimeParseException.class)
+    public void test_parse_Class_byteArray_parseIncomplete() throws Exception {
+        try {
+            byte[] bytes = "ONE2012 07 27SomethingElse".getBytes("US-ASCII");
+            DATE_FORMATTER.parse(bytes, 0, bytes.length, LocalDate.FROM);
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getParsedString(), "ONE2012 07 27SomethingElse");
+            assertEquals(ex.getErrorIndex(), 13);
+            throw ex;
+        }
+    }
+
+    @Test(expectedExceptions=IndexOutOfBoundsException.class)
+    public void test_parse_Class_byteArray_invalidRange() throws Exception {
+        DATE_FORMATTER.parse(new byte[10], 5, 6, LocalDate.FROM);
+    }
+
+    @Test
+    public void test_parse_Class_ByteBuffer() throws Exception {
+        byte[] bytes = "XXONE2012 07 27,ONE2013 08 28".getBytes("US-ASCII");
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        ByteBuffer[] buffers = {ByteBuffer.wrap(bytes), direct};
+        for (ByteBuffer buffer : buffers) {
+            buffer.position(2);
+            assertEquals(DATE_FORMATTER.parse(buffer, LocalDate.FROM), LocalDate.of(2012, 7, 27));
+            assertEquals(buffer.position(), 15);
+            buffer.position(16);
+            assertEquals(DATE_FORMATTER.parse(buffer, LocalDate.FROM), LocalDate.of(2013, 8, 28));
+            assertEquals(buffer.position(), 29);
+        }
+    }
+
+    @Test
+    public void test_parse_Class_ByteBuffer_utf8() throws Exception {
+        DateTimeFormatter test = DateTimeFormatter.ofPattern("d MMMM uuuu", Locale.FRENCH);
+        byte[] bytes = "1 f\u00e9vrier 2012;".getBytes("UTF-8");
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertEquals(test.parse(direct, LocalDate.FROM), LocalDate.of(2012, 2, 1));
+        assertEquals(direct.position(), bytes.length - 1);
+    }
+
+    @Test
+    public void test_parse_Class_ByteBuffer_parseError() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap("ONE2012 07 XX".getBytes("US-ASCII"));
+        try {
+            DATE_FORMATTER.parse(buffer, LocalDate.FROM);
+            fail();
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getErrorIndex(), 11);
+            assertEquals(buffer.position(), 0);
+        }
+    }
+
     //-----------------------------------------------------------------------
     @Test
     public void test_parseBest_firstOption() throws Exception {
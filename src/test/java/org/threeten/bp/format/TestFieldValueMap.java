@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+import static org.threeten.bp.temporal.ChronoField.NANO_OF_SECOND;
+import static org.threeten.bp.temporal.ChronoField.YEAR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.temporal.IsoFields;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Test FieldValueMap.
+ */
+@Test
+public class TestFieldValueMap {
+
+    public void test_empty() {
+        FieldValueMap test = new FieldValueMap();
+        assertEquals(test.size(), 0);
+        assertTrue(test.isEmpty());
+        assertFalse(test.containsKey(YEAR));
+        assertFalse(test.contains(YEAR));
+        assertNull(test.get(YEAR));
+        assertNull(test.get(IsoFields.QUARTER_OF_YEAR));
+        assertNull(test.get("YEAR"));
+        assertEquals(test.toString(), "{}");
+    }
+
+    public void test_putGetRemove() {
+        FieldValueMap test = new FieldValueMap();
+        assertNull(test.put(YEAR, 2012L));
+        assertEquals(test.put(YEAR, 2013L), Long.valueOf(2012L));
+        test.putValue(NANO_OF_SECOND, 123456789L);
+        test.putValue(IsoFields.QUARTER_OF_YEAR, 3L);
+        assertEquals(test.size(), 3);
+        assertTrue(test.contains(YEAR));
+        assertEquals(test.getValue(YEAR), 2013L);
+        assertEquals(test.get(NANO_OF_SECOND), Long.valueOf(123456789L));
+        assertEquals(test.get(IsoFields.QUARTER_OF_YEAR), Long.valueOf(3L));
+        assertEquals(test.remove(YEAR), Long.valueOf(2013L));
+        assertNull(test.remove(YEAR));
+        assertEquals(test.remove(IsoFields.QUARTER_OF_YEAR), Long.valueOf(3L));
+        assertEquals(test.size(), 1);
+        test.clear();
+        assertEquals(test.size(), 0);
+    }
+
+    public void test_iterationOrder() {
+        FieldValueMap test = new FieldValueMap();
+        test.put(IsoFields.QUARTER_OF_YEAR, 3L);
+        test.put(YEAR, 2012L);
+        test.put(DAY_OF_MONTH, 30L);
+        test.put(NANO_OF_SECOND, 0L);
+        List<TemporalField> keys = new ArrayList<TemporalField>(test.keySet());
+        assertEquals(keys, Arrays.<TemporalField>asList(NANO_OF_SECOND, DAY_OF_MONTH, YEAR, IsoFields.QUARTER_OF_YEAR));
+        assertEquals(test.toString(), "{NanoOfSecond=0, DayOfMonth=30, Year=2012, QuarterOfYear=3}");
+    }
+
+    public void test_iteratorRemove() {
+        FieldValueMap test = new FieldValueMap();
+        test.put(YEAR, 2012L);
+        test.put(MONTH_OF_YEAR, 6L);
+        test.put(IsoFields.QUARTER_OF_YEAR, 2L);
+        Iterator<Entry<TemporalField, Long>> it = test.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<TemporalField, Long> entry = it.next();
+            if (entry.getKey() != MONTH_OF_YEAR) {
+                it.remove();
+            }
+        }
+        assertEquals(test.keySet(), Collections.singleton(MONTH_OF_YEAR));
+        test.put(YEAR, 2012L);
+        test.keySet().retainAll(Arrays.asList(YEAR));
+        assertEquals(test.size(), 1);
+        assertTrue(test.contains(YEAR));
+    }
+
+    public void test_entrySetValue() {
+        FieldValueMap test = new FieldValueMap();
+        test.put(YEAR, 2012L);
+        Entry<TemporalField, Long> entry = test.entrySet().iterator().next();
+        assertEquals(entry.setValue(2013L), Long.valueOf(2012L));
+        assertEquals(test.getValue(YEAR), 2013L);
+    }
+
+    public void test_putAll_equals() {
+        FieldValueMap base = new FieldValueMap();
+        base.put(YEAR, 2012L);
+        base.put(IsoFields.QUARTER_OF_YEAR, 2L);
+        FieldValueMap copy = new FieldValueMap();
+        copy.putAll(base);
+        FieldValueMap merged = new FieldValueMap();
+        merged.put(YEAR, 1999L);
+        merged.put(MONTH_OF_YEAR, 6L);
+        merged.putAll(base);
+
+        Map<TemporalField, Long> expected = new HashMap<TemporalField, Long>();
+        expected.put(YEAR, 2012L);
+        expected.put(IsoFields.QUARTER_OF_YEAR, 2L);
+        assertEquals(copy, expected);
+        assertEquals(expected, copy);
+        assertEquals(copy.hashCode(), expected.hashCode());
+        expected.put(MONTH_OF_YEAR, 6L);
+        assertEquals(merged, expected);
+
+        base.put(YEAR, 2000L);
+        assertEquals(copy.getValue(YEAR), 2012L);
+    }
+
+}
@@ -40,6 +40,7 @@ import java.io.ObjectOutputStream;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDateTime;
@@ -116,6 +117,38 @@ public class TestFixedZoneRules {
         assertEquals(test.getOffset((Instant) null), expectedOffset);
     }
 
+    @Test(dataProvider="rules")
+    public void test_memoized(ZoneRules test, ZoneOffset expectedOffset) {
+        assertEquals(test.memoized(), test);
+        assertEquals(test.memoized().getOffset(INSTANT), expectedOffset);
+    }
+
+    @Test(dataProvider="rules")
+    public void test_getOffset_epochSecond(ZoneRules test, ZoneOffset expectedOffset) {
+        assertEquals(test.getOffset(INSTANT.getEpochSecond()), expectedOffset);
+        assertEquals(test.getOffsetSeconds(INSTANT.getEpochSecond()), expectedOffset.getTotalSeconds());
+    }
+
+    @Test(dataProvider="rules")
+    public void test_getOffsetSeconds_bulk(ZoneRules test, ZoneOffset expectedOffset) {
+        long[] input = {Long.MIN_VALUE, 0, INSTANT.getEpochSecond(), Long.MAX_VALUE};
+        int total = expectedOffset.getTotalSeconds();
+        assertEquals(test.getOffsetSeconds(input), new int[] {total, total, total, total});
+        long[] localInput = {LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC), 0, INSTANT.getEpochSecond(), LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC)};
+        assertEquals(test.getLocalOffsetSeconds(localInput), new int[] {total, total, total, total});
+    }
+
+    @Test(dataProvider="rules", expectedExceptions=DateTimeException.class)
+    public void test_getLocalOffsetSeconds_bulk_outOfRange(ZoneRules test, ZoneOffset expectedOffset) {
+        test.getLocalOffsetSeconds(new long[] {0, Long.MAX_VALUE});
+    }
+
+    @Test(dataProvider="rules")
+    public void test_getTransitions_window(ZoneRules test, ZoneOffset expectedOffset) {
+        assertEquals(test.getTransitions(Instant.MIN, Instant.MAX).iterator().hasNext(), false);
+        assertEquals(test.getTransitionsDescending(Instant.MIN, Instant.MAX).iterator().hasNext(), false);
+    }
+
     @Test(dataProvider="rules")
     public void test_getOffset_LocalDateTime(ZoneRules test, ZoneOffset expectedOffset) {
         assertEquals(test.getOffset(LDT), expectedOffset);
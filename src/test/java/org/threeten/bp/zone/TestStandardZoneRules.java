@@ -35,16 +35,26 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.testng.annotations.Test;
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.DayOfWeek;
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
@@ -93,6 +103,49 @@ public class TestStandardZoneRules {
 
         assertEquals(result, test);
     }
+
+    public void test_serialization_dense_allZones() throws Exception {
+        int denseTotal = 0;
+        int standardTotal = 0;
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules test = ZoneRulesProvider.getRules(zoneId, false);
+            if (test instanceof StandardZoneRules == false) {
+                continue;
+            }
+            ByteArrayOutputStream dense = new ByteArrayOutputStream();
+            Ser.writeDense(test, new DataOutputStream(dense));
+            ByteArrayOutputStream standard = new ByteArrayOutputStream();
+            Ser.write(test, new DataOutputStream(standard));
+            denseTotal += dense.size();
+            standardTotal += standard.size();
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(dense.toByteArray()));
+            assertEquals(Ser.read(in), test, zoneId);
+            assertEquals(in.read(), -1, zoneId);
+        }
+        assertTrue(denseTotal < standardTotal, denseTotal + " " + standardTotal);
+    }
+
+    public void test_serialization_dense_manyOffsets() throws Exception {
+        long[] trans = new long[300];
+        int[] offsets = new int[301];
+        for (int i = 0; i < trans.length; i++) {
+            trans[i] = i * 86400L + 7;
+            offsets[i + 1] = i * 61 - 9000;
+        }
+        ZoneRules test = ZoneRules.of(new long[0], new int[] {0}, trans, offsets, new ZoneOffsetTransitionRule[0]);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Ser.writeDense(test, new DataOutputStream(baos));
+        assertEquals(Ser.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))), test);
+        assertSerialization(test);
+    }
+
+    @Test(expectedExceptions = StreamCorruptedException.class)
+    public void test_serialization_dense_invalidIndex() throws Exception {
+        // three offsets in the dictionary, no transitions, indices of two bits, the second index invalid
+        byte[] bytes = {Ser.SZR_DENSE, 3, 0, 4, 8, 0, 0, 0x0C, 0, 0};
+        Ser.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
     
     //-----------------------------------------------------------------------
     // Etc/GMT
@@ -179,6 +232,15 @@ public class TestStandardZoneRules {
         assertEquals(test.getOffset(createInstant(2008, 10, 26, 1, 0, 0, 0, ZoneOffset.UTC)), OFFSET_ZERO);
     }
 
+    public void test_London_getOffset_farFuture() {
+        ZoneRules test = europeLondon();
+        for (int year : new int[] {2099, 2100, 2101, 2500, 2101, 10000}) {
+            assertEquals(test.getOffset(createInstant(year, 1, 1, ZoneOffset.UTC)), OFFSET_ZERO);
+            assertEquals(test.getOffset(createInstant(year, 7, 1, ZoneOffset.UTC)), OFFSET_PONE);
+            assertEquals(test.getOffset(createInstant(year, 12, 1, ZoneOffset.UTC)), OFFSET_ZERO);
+        }
+    }
+
     public void test_London_getOffsetInfo() {
         ZoneRules test = europeLondon();
         checkOffset(test, createLDT(2008, 1, 1), OFFSET_ZERO, 1);
@@ -903,6 +965,295 @@ public class TestStandardZoneRules {
         assertEquals(test.nextTransition(last.getInstant()), null);
     }
 
+    //-------------------------------------------------------------------------
+    public void test_getOffset_epochSecond_matchesInstant() {
+        ZoneRules[] rules = {europeLondon(), europeParis(), americaNewYork(), asiaKathmandu()};
+        for (ZoneRules test : rules) {
+            for (long epochSec = -5000000000L; epochSec < 8000000000L; epochSec += 3600 * 137) {
+                Instant instant = Instant.ofEpochSecond(epochSec);
+                assertEquals(test.getOffset(epochSec), test.getOffset(instant));
+                assertEquals(test.getOffsetSeconds(epochSec), test.getOffset(instant).getTotalSeconds());
+            }
+        }
+    }
+
+    public void test_memoized() {
+        ZoneRules[] rules = {europeLondon(), europeParis(), americaNewYork(), asiaKathmandu()};
+        for (ZoneRules base : rules) {
+            ZoneRules test = base.memoized();
+            assertEquals(test, base);
+            assertEquals(base, test);
+            assertEquals(test.hashCode(), base.hashCode());
+            assertSame(test.memoized(), test);
+            // ascending, then jumping back and forth
+            for (long epochSec = -5000000000L; epochSec < 8000000000L; epochSec += 3600 * 13) {
+                assertEquals(test.getOffset(epochSec), base.getOffset(epochSec));
+            }
+            for (long epochSec = 8000000000L; epochSec > -5000000000L; epochSec -= 3600 * 29) {
+                assertEquals(test.getOffset(epochSec), base.getOffset(epochSec));
+                assertEquals(test.getOffset(Instant.ofEpochSecond(-epochSec)), base.getOffset(-epochSec));
+            }
+            for (ZoneOffsetTransition trans : base.getTransitions()) {
+                long epochSec = trans.toEpochSecond();
+                assertEquals(test.getOffset(epochSec - 1), trans.getOffsetBefore());
+                assertEquals(test.getOffset(epochSec), trans.getOffsetAfter());
+                assertEquals(test.getOffset(epochSec - 1), trans.getOffsetBefore());
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_noFutureTransitions() {
+        int count = 0;
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules test = ZoneRulesProvider.getRules(zoneId, false);
+            List<ZoneOffsetTransition> transitions = test.getTransitions();
+            if (test.getTransitionRules().isEmpty() == false || transitions.isEmpty()) {
+                continue;
+            }
+            count++;
+            ZoneOffsetTransition last = transitions.get(transitions.size() - 1);
+            long epochSec = last.toEpochSecond();
+            assertEquals(test.getOffset(epochSec - 1), last.getOffsetBefore(), zoneId);
+            assertEquals(test.getOffset(epochSec), last.getOffsetAfter(), zoneId);
+            assertEquals(test.getOffset(Instant.ofEpochSecond(8000000000L)), last.getOffsetAfter(), zoneId);
+            assertEquals(test.getOffset(last.getDateTimeBefore().minusNanos(1)), last.getOffsetBefore(), zoneId);
+            LocalDateTime lastLocal = (last.isGap() ? last.getDateTimeAfter() : last.getDateTimeBefore());
+            assertEquals(test.getValidOffsets(lastLocal), Collections.singletonList(last.getOffsetAfter()), zoneId);
+            assertEquals(test.getValidOffsets(LocalDateTime.of(2200, 1, 1, 0, 0)), Collections.singletonList(last.getOffsetAfter()), zoneId);
+            assertEquals(test.getTransition(lastLocal), null, zoneId);
+            if (last.isGap()) {
+                assertEquals(test.getTransition(last.getDateTimeBefore()), last, zoneId);
+            } else {
+                assertEquals(test.getTransition(last.getDateTimeBefore().minusSeconds(1)), last, zoneId);
+            }
+            ZoneOffset standard = test.getStandardOffset(Instant.ofEpochSecond(8000000000L));
+            assertEquals(test.getStandardOffset(Instant.MAX), standard, zoneId);
+            assertEquals(test.isDaylightSavings(Instant.ofEpochSecond(8000000000L)), standard.equals(last.getOffsetAfter()) == false, zoneId);
+        }
+        assertTrue(count > 100);
+    }
+
+    //-----------------------------------------------------------------------
+    private long[] bulkSeconds() {
+        // sorted across history and the last rules, including each side of every transition
+        List<Long> list = new ArrayList<Long>();
+        for (long sec = -5000000000L; sec < 8000000000L; sec += 3600 * 7 + 13) {
+            list.add(sec);
+        }
+        for (ZoneRules rules : new ZoneRules[] {europeLondon(), europeParis(), americaNewYork()}) {
+            for (ZoneOffsetTransition trans : rules.getTransitions()) {
+                for (long sec : new long[] {trans.toEpochSecond(), trans.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC),
+                        trans.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC)}) {
+                    list.add(sec - 1);
+                    list.add(sec);
+                    list.add(sec + 1);
+                }
+            }
+        }
+        Collections.sort(list);
+        long[] array = new long[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    public void test_getOffsetSeconds_bulk() {
+        long[] sorted = bulkSeconds();
+        long[] shuffled = sorted.clone();
+        Random random = new Random(42);
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long temp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = temp;
+        }
+        ZoneRules[] rules = {europeLondon(), europeParis(), americaNewYork(), asiaKathmandu(), europeLondon().memoized()};
+        for (ZoneRules test : rules) {
+            for (long[] input : new long[][] {sorted, shuffled}) {
+                int[] offsets = test.getOffsetSeconds(input);
+                int[] localOffsets = test.getLocalOffsetSeconds(input);
+                for (int i = 0; i < input.length; i++) {
+                    assertEquals(offsets[i], test.getOffset(input[i]).getTotalSeconds());
+                    LocalDateTime ldt = LocalDateTime.ofEpochSecond(input[i], 0, ZoneOffset.UTC);
+                    assertEquals(localOffsets[i], test.getOffset(ldt).getTotalSeconds(), "" + ldt);
+                }
+            }
+        }
+    }
+
+    public void test_getOffsetSeconds_bulk_range() {
+        ZoneRules test = europeLondon();
+        long[] input = {createInstant(2008, 1, 1, ZoneOffset.UTC).getEpochSecond(), createInstant(2008, 7, 1, ZoneOffset.UTC).getEpochSecond()};
+        int[] offsets = {-1, -1, -1, -1};
+        test.getOffsetSeconds(input, 1, offsets, 2, 1);
+        assertEquals(offsets, new int[] {-1, -1, 3600, -1});
+        test.getLocalOffsetSeconds(input, 0, offsets, 0, 2);
+        assertEquals(offsets, new int[] {0, 3600, 3600, -1});
+    }
+
+    @Test(expectedExceptions=IndexOutOfBoundsException.class)
+    public void test_getOffsetSeconds_bulk_badRange() {
+        europeLondon().getOffsetSeconds(new long[2], 1, new int[2], 0, 2);
+    }
+
+    @Test(expectedExceptions=IndexOutOfBoundsException.class)
+    public void test_getLocalOffsetSeconds_bulk_badRange() {
+        europeLondon().getLocalOffsetSeconds(new long[2], 0, new int[2], -1, 1);
+    }
+
+    public void test_getLocalOffsetSeconds_bulk_limits() {
+        long min = LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC);
+        long max = LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC);
+        for (ZoneRules test : new ZoneRules[] {europeLondon(), asiaKathmandu()}) {
+            int[] offsets = test.getLocalOffsetSeconds(new long[] {min, 0, max});
+            assertEquals(offsets[0], test.getOffset(LocalDateTime.MIN).getTotalSeconds());
+            assertEquals(offsets[2], test.getOffset(LocalDateTime.MAX).getTotalSeconds());
+            for (long invalid : new long[] {Long.MIN_VALUE, min - 1, max + 1, Long.MAX_VALUE}) {
+                try {
+                    test.getLocalOffsetSeconds(new long[] {min, max, invalid});
+                    fail("Expected DateTimeException for " + invalid);
+                } catch (DateTimeException ex) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private List<ZoneOffsetTransition> transitionsBetween(ZoneRules rules, Instant start, Instant end) {
+        List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>();
+        ZoneOffsetTransition trans = rules.nextTransition(start.minusNanos(1));
+        while (trans != null && trans.getInstant().isBefore(end)) {
+            list.add(trans);
+            trans = rules.nextTransition(trans.getInstant());
+        }
+        return list;
+    }
+
+    private List<ZoneOffsetTransition> toList(Iterable<ZoneOffsetTransition> iterable) {
+        List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>();
+        for (ZoneOffsetTransition trans : iterable) {
+            list.add(trans);
+        }
+        return list;
+    }
+
+    public void test_getTransitions_window_allZones() {
+        Instant start = createInstant(1900, 1, 1, ZoneOffset.UTC);
+        Instant end = createInstant(2100, 1, 1, ZoneOffset.UTC);
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules test = ZoneRulesProvider.getRules(zoneId, false);
+            List<ZoneOffsetTransition> expected = transitionsBetween(test, start, end);
+            assertEquals(toList(test.getTransitions(start, end)), expected, zoneId);
+            List<ZoneOffsetTransition> reversed = new ArrayList<ZoneOffsetTransition>(expected);
+            Collections.reverse(reversed);
+            assertEquals(toList(test.getTransitionsDescending(start, end)), reversed, zoneId);
+        }
+    }
+
+    public void test_getTransitions_window_boundaries() {
+        ZoneRules test = europeLondon();
+        List<ZoneOffsetTransition> all = transitionsBetween(test, Instant.ofEpochSecond(-5000000000L), Instant.ofEpochSecond(5000000000L));
+        ZoneOffsetTransition lastHistoric = test.getTransitions().get(test.getTransitions().size() - 1);
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            ZoneOffsetTransition trans = all.get(random.nextInt(all.size()));
+            if (i == 0) {
+                trans = lastHistoric;
+            }
+            Instant start = trans.getInstant().plusSeconds(random.nextInt(3) - 1).plusNanos(random.nextInt(2));
+            Instant end = start.plusSeconds(random.nextInt(3 * 366 * 86400));
+            List<ZoneOffsetTransition> expected = transitionsBetween(test, start, end);
+            assertEquals(toList(test.getTransitions(start, end)), expected, start + " " + end);
+            Collections.reverse(expected);
+            assertEquals(toList(test.getTransitionsDescending(start, end)), expected, start + " " + end);
+        }
+    }
+
+    public void test_getTransitions_window_inclusiveExclusive() {
+        ZoneRules test = europeLondon();
+        ZoneOffsetTransition trans = test.nextTransition(createInstant(2008, 1, 1, ZoneOffset.UTC));
+        ZoneOffsetTransition next = test.nextTransition(trans.getInstant());
+        assertEquals(toList(test.getTransitions(trans.getInstant(), next.getInstant())), Collections.singletonList(trans));
+        assertEquals(toList(test.getTransitionsDescending(trans.getInstant(), next.getInstant())), Collections.singletonList(trans));
+        assertEquals(toList(test.getTransitions(trans.getInstant(), trans.getInstant())).isEmpty(), true);
+        assertEquals(toList(test.getTransitions(trans.getInstant().plusNanos(1), next.getInstant().plusNanos(1))), Collections.singletonList(next));
+        assertEquals(toList(test.getTransitionsDescending(trans.getInstant().plusNanos(1), next.getInstant().plusNanos(1))), Collections.singletonList(next));
+    }
+
+    public void test_getTransitions_window_extremes() {
+        ZoneRules test = europeLondon();
+        Iterator<ZoneOffsetTransition> it = test.getTransitions(Instant.MIN, Instant.MAX).iterator();
+        assertEquals(it.next(), test.getTransitions().get(0));
+        it = test.getTransitionsDescending(Instant.MIN, Instant.MAX).iterator();
+        ZoneOffsetTransition last = it.next();
+        assertEquals(last.getDateTimeBefore().getYear(), Year.MAX_VALUE);
+        assertEquals(it.next(), test.previousTransition(last.getInstant()));
+        assertEquals(toList(asiaKathmandu().getTransitions(Instant.MIN, Instant.MAX)), asiaKathmandu().getTransitions());
+    }
+
+    public void test_getTransitions_window_iterator() {
+        ZoneRules test = europeLondon();
+        Iterable<ZoneOffsetTransition> iterable = test.getTransitions(createInstant(2008, 1, 1, ZoneOffset.UTC), createInstant(2009, 1, 1, ZoneOffset.UTC));
+        assertEquals(toList(iterable).size(), 2);
+        assertEquals(toList(iterable), toList(iterable));
+        Iterator<ZoneOffsetTransition> it = iterable.iterator();
+        it.next();
+        it.next();
+        assertFalse(it.hasNext());
+        try {
+            it.next();
+            fail();
+        } catch (NoSuchElementException ex) {
+            // expected
+        }
+    }
+
+    @Test(expectedExceptions=UnsupportedOperationException.class)
+    public void test_getTransitions_window_remove() {
+        Iterator<ZoneOffsetTransition> it = europeLondon().getTransitions(Instant.EPOCH, Instant.MAX).iterator();
+        it.next();
+        it.remove();
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_getTransitions_window_endBeforeStart() {
+        europeLondon().getTransitions(Instant.EPOCH, Instant.EPOCH.minusNanos(1));
+    }
+
+    @Test(expectedExceptions=NullPointerException.class)
+    public void test_getTransitionsDescending_window_null() {
+        europeLondon().getTransitionsDescending(Instant.EPOCH, null);
+    }
+
+    public void test_memoized_fixed() {
+        ZoneRules test = etcGmt();
+        assertSame(test.memoized(), test);
+    }
+
+    public void test_getTransition_LocalDateTime_historic() {
+        ZoneRules[] rules = {europeLondon(), europeParis(), americaNewYork(), asiaKathmandu()};
+        for (ZoneRules test : rules) {
+            for (ZoneOffsetTransition trans : test.getTransitions()) {
+                LocalDateTime before = trans.getDateTimeBefore();
+                LocalDateTime after = trans.getDateTimeAfter();
+                if (before.equals(after)) {
+                    continue;
+                }
+                LocalDateTime start = (trans.isGap() ? before : after);
+                LocalDateTime end = (trans.isGap() ? after : before);
+                assertEquals(test.getTransition(start), trans);
+                assertEquals(test.getTransition(start.plusNanos(1)), trans);
+                assertEquals(test.getTransition(end.minusNanos(1)), trans);
+                assertEquals(test.getTransition(start.minusNanos(1)), null);
+                assertEquals(test.getValidOffsets(end).size(), 1);
+                assertSame(test.getTransition(start), test.getTransition(start));
+            }
+        }
+    }
+
     //-------------------------------------------------------------------------
     @Test(expectedExceptions=UnsupportedOperationException.class)
     public void test_getTransitions_immutable() {
@@ -916,6 +1267,34 @@ public class TestStandardZoneRules {
         test.getTransitionRules().clear();
     }
 
+    //-----------------------------------------------------------------------
+    public void test_of_arrays() {
+        ZoneRules test = ZoneRules.of(
+                new long[0], new int[] {3600},
+                new long[] {1000L * 3600}, new int[] {3600, 7200},
+                new ZoneOffsetTransitionRule[0]);
+        assertEquals(test.getOffset(Instant.ofEpochSecond(999L * 3600)), OFFSET_PONE);
+        assertEquals(test.getOffset(Instant.ofEpochSecond(1000L * 3600)), OFFSET_PTWO);
+        assertEquals(test.getStandardOffset(Instant.ofEpochSecond(1000L * 3600)), OFFSET_PONE);
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_of_arrays_badOffsetCount() {
+        ZoneRules.of(new long[0], new int[] {3600}, new long[] {1000L * 3600}, new int[] {3600}, new ZoneOffsetTransitionRule[0]);
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_of_arrays_unsortedTransitions() {
+        ZoneRules.of(new long[0], new int[] {3600},
+                new long[] {2000L * 3600, 1000L * 3600}, new int[] {3600, 7200, 3600}, new ZoneOffsetTransitionRule[0]);
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_of_arrays_duplicateTransitions() {
+        ZoneRules.of(new long[] {1000L * 3600, 1000L * 3600}, new int[] {3600, 7200, 3600},
+                new long[0], new int[] {3600}, new ZoneOffsetTransitionRule[0]);
+    }
+
     //-----------------------------------------------------------------------
     // equals() / hashCode()
     //-----------------------------------------------------------------------
@@ -32,13 +32,32 @@
 package org.threeten.bp.zone;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 import org.threeten.bp.DayOfWeek;
 import org.threeten.bp.LocalDate;
@@ -457,4 +476,235 @@ public class TestTzdbZoneRulesCompiler {
         }
     }
 
+    //-----------------------------------------------------------------------
+    // outputJava()
+    //-----------------------------------------------------------------------
+    private SortedMap<String, ZoneRules> builtZones(String... regionIds) {
+        SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
+        for (String regionId : regionIds) {
+            builtZones.put(regionId, ZoneRulesProvider.getRules(regionId, false));
+        }
+        return builtZones;
+    }
+
+    @Test
+    public void test_outputJava_allRegions() throws Exception {
+        SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
+        for (String regionId : ZoneRulesProvider.getAvailableZoneIds()) {
+            builtZones.put(regionId, ZoneRulesProvider.getRules(regionId, false));
+        }
+        StringBuilder buf = new StringBuilder();
+        TzdbZoneRulesCompiler.outputJava(buf, "com.example.TzdbRules", "2099z", builtZones);
+        String source = buf.toString();
+        assertEquals(source.startsWith("package com.example;"), true);
+        assertEquals(source.contains("public final class TzdbRules extends ZoneRulesProvider {"), true);
+        assertEquals(source.contains("\"Europe/London\","), true);
+    }
+
+    @Test
+    public void test_outputJava_compiled() throws Exception {
+        assertCompiledProvider("GeneratedRules", builtZones(
+                "Europe/London", "Europe/Paris", "America/New_York", "Asia/Kathmandu", "Australia/Lord_Howe", "Etc/GMT"));
+    }
+
+    @Test
+    public void test_outputJava_compiled_allRegions() throws Exception {
+        SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
+        for (String regionId : ZoneRulesProvider.getAvailableZoneIds()) {
+            builtZones.put(regionId, ZoneRulesProvider.getRules(regionId, false));
+        }
+        assertCompiledProvider("com.example.TzdbRules", builtZones);
+    }
+
+    private void assertCompiledProvider(String className, SortedMap<String, ZoneRules> builtZones) throws Exception {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new SkipException("No Java compiler available");
+        }
+        File dir = createTempDir("tzdbjava");
+        try {
+            File srcFile = new File(dir, className.replace('.', File.separatorChar) + ".java");
+            srcFile.getParentFile().mkdirs();
+            Writer out = new OutputStreamWriter(new FileOutputStream(srcFile), "UTF-8");
+            try {
+                TzdbZoneRulesCompiler.outputJava(out, className, "2099z", builtZones);
+            } finally {
+                out.close();
+            }
+            String classPath = new File(ZoneRules.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+            int result = javac.run(null, null, null, "-cp", classPath, "-d", dir.getPath(), srcFile.getPath());
+            assertEquals(result, 0);
+
+            URLClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, ZoneRules.class.getClassLoader());
+            ZoneRulesProvider provider = (ZoneRulesProvider) loader.loadClass(className).newInstance();
+            assertEquals(provider.provideZoneIds(), builtZones.keySet());
+            for (String regionId : builtZones.keySet()) {
+                ZoneRules rules = provider.provideRules(regionId, false);
+                assertEquals(rules, builtZones.get(regionId));
+                assertEquals(provider.provideVersions(regionId).get("2099z"), rules);
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static File createTempDir(String prefix) throws Exception {
+        File dir = File.createTempFile(prefix, "");
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
+    private static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+
+    //-----------------------------------------------------------------------
+    // parallel and incremental compilation
+    //-----------------------------------------------------------------------
+    private static final String EUROPE =
+            "# Rule\tNAME\tFROM\tTO\t-\tIN\tON\tAT\tSAVE\tLETTER/S\n" +
+            "Rule\tEU\t1977\t1980\t-\tApr\tSun>=1\t 1:00u\t1:00\tS\n" +
+            "Rule\tEU\t1977\tonly\t-\tSep\tlastSun\t 1:00u\t0\t-\n" +
+            "Rule\tEU\t1978\tonly\t-\tOct\t 1\t 1:00u\t0\t-\n" +
+            "Rule\tEU\t1979\t1995\t-\tSep\tlastSun\t 1:00u\t0\t-\n" +
+            "Rule\tEU\t1981\tmax\t-\tMar\tlastSun\t 1:00u\t1:00\tS\n" +
+            "Rule\tEU\t1996\tmax\t-\tOct\tlastSun\t 1:00u\t0\t-\n" +
+            "Zone\tEurope/London\t-0:01:15 -\tLMT\t1847 Dec  1\n" +
+            "\t\t\t 0:00\t-\tGMT\t1996\n" +
+            "\t\t\t 0:00\tEU\tGMT/BST\n" +
+            "Zone\tEurope/Paris\t0:09:21 -\tLMT\t1891 Mar 16\n" +
+            "\t\t\t1:00\tEU\tCE%sT\n";
+    private static final String NORTH_AMERICA =
+            "Rule\tUS\t1967\t2006\t-\tOct\tlastSun\t2:00\t0\tS\n" +
+            "Rule\tUS\t1987\t2006\t-\tApr\tSun>=1\t2:00\t1:00\tD\n" +
+            "Rule\tUS\t2007\tmax\t-\tMar\tSun>=8\t2:00\t1:00\tD\n" +
+            "Rule\tUS\t2007\tmax\t-\tNov\tSun>=1\t2:00\t0\tS\n" +
+            "Zone\tAmerica/New_York\t-4:56:02 -\tLMT\t1883 Nov 18 12:03:58\n" +
+            "\t\t\t-5:00\t-\tEST\t1987\n" +
+            "\t\t\t-5:00\tUS\tE%sT\n" +
+            "Zone\tAmerica/Chicago\t-5:50:36 -\tLMT\t1883 Nov 18 12:09:24\n" +
+            "\t\t\t-6:00\tUS\tC%sT\n";
+    private static final String BACKWARD =
+            "Link\tEurope/London\tEurope/Belfast\n" +
+            "Link\tAmerica/New_York\tUS/Eastern\n";
+
+    private static File createSourceDir(String version) throws Exception {
+        File baseDir = createTempDir("tzdbsrc");
+        File srcDir = new File(baseDir, version);
+        srcDir.mkdirs();
+        writeFile(new File(srcDir, "europe"), EUROPE);
+        writeFile(new File(srcDir, "northamerica"), NORTH_AMERICA);
+        writeFile(new File(srcDir, "backward"), BACKWARD);
+        return srcDir;
+    }
+
+    private static void writeFile(File file, String content) throws Exception {
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static List<File> sourceFiles(File srcDir) {
+        return Arrays.asList(new File(srcDir, "europe"), new File(srcDir, "northamerica"), new File(srcDir, "backward"));
+    }
+
+    private static SortedMap<String, ZoneRules> compile(File srcDir, ExecutorService executor) throws Exception {
+        TzdbZoneRulesCompiler compiler = new TzdbZoneRulesCompiler(srcDir.getName(), sourceFiles(srcDir), null, false);
+        compiler.setExecutor(executor);
+        compiler.compile();
+        return compiler.getZones();
+    }
+
+    @Test
+    public void test_compile_parallelMatchesSequential() throws Exception {
+        File srcDir = createSourceDir("2099a");
+        try {
+            SortedMap<String, ZoneRules> sequential = compile(srcDir, null);
+            assertEquals(sequential.keySet(), new TreeSet<String>(Arrays.asList(
+                    "America/Chicago", "America/New_York", "Europe/Belfast", "Europe/London", "Europe/Paris", "US/Eastern")));
+            assertSame(sequential.get("Europe/Belfast"), sequential.get("Europe/London"));
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                SortedMap<String, ZoneRules> parallel = compile(srcDir, executor);
+                assertEquals(parallel, sequential);
+                assertSame(parallel.get("US/Eastern"), parallel.get("America/New_York"));
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            deleteTree(srcDir.getParentFile());
+        }
+    }
+
+    @Test
+    public void test_fingerprint() throws Exception {
+        File srcDir = createSourceDir("2099a");
+        try {
+            RegionFilter all = RegionFilter.parse(null, null);
+            String fingerprint = TzdbZoneRulesCompiler.fingerprint(sourceFiles(srcDir), null, 1, all);
+            assertEquals(fingerprint.length(), 64);
+            assertEquals(TzdbZoneRulesCompiler.fingerprint(sourceFiles(srcDir), null, 1, all), fingerprint);
+            assertNotEquals(TzdbZoneRulesCompiler.fingerprint(sourceFiles(srcDir), null, 2, all), fingerprint);
+            assertNotEquals(TzdbZoneRulesCompiler.fingerprint(sourceFiles(srcDir), null, 1, RegionFilter.parse("Europe/*", null)), fingerprint);
+            writeFile(new File(srcDir, "backward"), BACKWARD + "Link\tEurope/Paris\tEurope/Monaco\n");
+            assertNotEquals(TzdbZoneRulesCompiler.fingerprint(sourceFiles(srcDir), null, 1, all), fingerprint);
+        } finally {
+            deleteTree(srcDir.getParentFile());
+        }
+    }
+
+    @Test
+    public void test_run_incremental() throws Exception {
+        File srcDir = createSourceDir("2099a");
+        try {
+            File dstDir = new File(srcDir.getParentFile(), "out");
+            String[] args = {"-srcdir", srcDir.getParent(), "-dstdir", dstDir.getPath(),
+                    "-incremental", "-threads", "2", "europe", "northamerica", "backward"};
+            TzdbZoneRulesCompiler.run(args);
+            File jarFile = new File(dstDir, "threeten-TZDB-2099a.jar");
+            assertTrue(jarFile.isFile());
+            assertTrue(new File(dstDir, "threeten-TZDB-2099a.fingerprint").isFile());
+            SortedMap<String, ZoneRules> compiled = compile(srcDir, null);
+            assertEquals(TzdbZoneRulesCompiler.readZones(jarFile), compiled);
+
+            // unchanged sources leave the version jar alone
+            jarFile.setLastModified(1000000000000L);
+            TzdbZoneRulesCompiler.run(args);
+            assertEquals(jarFile.lastModified(), 1000000000000L);
+            assertEquals(TzdbZoneRulesCompiler.readZones(new File(dstDir, "threeten-TZDB-all.jar")), compiled);
+
+            // changed sources rebuild it
+            writeFile(new File(srcDir, "backward"), BACKWARD + "Link\tEurope/Paris\tEurope/Monaco\n");
+            TzdbZoneRulesCompiler.run(args);
+            assertTrue(jarFile.lastModified() != 1000000000000L);
+            assertEquals(TzdbZoneRulesCompiler.readZones(jarFile).get("Europe/Monaco"), compiled.get("Europe/Paris"));
+        } finally {
+            deleteTree(srcDir.getParentFile());
+        }
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void test_run_invalidSourceThrows() throws Exception {
+        File srcDir = createSourceDir("2099a");
+        try {
+            writeFile(new File(srcDir, "europe"), EUROPE + "Zone\tEurope/Bad\tnot-an-offset -\tLMT\n");
+            File dstDir = new File(srcDir.getParentFile(), "out");
+            TzdbZoneRulesCompiler.run(new String[] {"-srcdir", srcDir.getParent(), "-dstdir", dstDir.getPath(),
+                    "europe", "northamerica", "backward"});
+        } finally {
+            deleteTree(srcDir.getParentFile());
+        }
+    }
+
 }
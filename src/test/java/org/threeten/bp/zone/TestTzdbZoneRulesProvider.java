@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDateTime;
+
+/**
+ * Test TzdbZoneRulesProvider.
+ */
+@Test
+public class TestTzdbZoneRulesProvider {
+
+    private static final String TZDB = "org/threeten/bp/TZDB.dat";
+
+    private byte[] tzdbBytes() throws Exception {
+        InputStream in = TzdbZoneRulesProvider.class.getClassLoader().getResourceAsStream(TZDB);
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                baos.write(chunk, 0, read);
+            }
+            return baos.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private void assertProvider(TzdbZoneRulesProvider test) {
+        assertTrue(test.provideZoneIds().size() > 400);
+        for (String zoneId : new String[] {"Europe/London", "America/New_York", "Asia/Kathmandu", "Etc/GMT"}) {
+            assertEquals(test.provideRules(zoneId, false), ZoneRulesProvider.getRules(zoneId, false));
+        }
+        assertTrue(test.provideVersions("Europe/Paris").size() >= 1);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_load_classLoader() {
+        assertProvider(new TzdbZoneRulesProvider());
+    }
+
+    public void test_load_stream() throws Exception {
+        InputStream in = TzdbZoneRulesProvider.class.getClassLoader().getResourceAsStream(TZDB);
+        try {
+            assertProvider(new TzdbZoneRulesProvider(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    public void test_load_heapBuffer() throws Exception {
+        byte[] bytes = tzdbBytes();
+        byte[] padded = new byte[bytes.length + 7];
+        System.arraycopy(bytes, 0, padded, 3, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(padded, 3, bytes.length);
+        assertProvider(new TzdbZoneRulesProvider(buffer));
+        assertEquals(buffer.position(), 3);
+        assertEquals(buffer.limit(), bytes.length + 3);
+    }
+
+    public void test_load_directBuffer() throws Exception {
+        byte[] bytes = tzdbBytes();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        assertProvider(new TzdbZoneRulesProvider(buffer));
+    }
+
+    public void test_load_fileUrl() throws Exception {
+        File file = File.createTempFile("TZDB", ".dat");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(tzdbBytes());
+        } finally {
+            out.close();
+        }
+        URL url = file.toURI().toURL();
+        assertProvider(new TzdbZoneRulesProvider(url));
+    }
+
+    //-----------------------------------------------------------------------
+    private byte[] indexedBytes(TzdbZoneRulesProvider provider) throws Exception {
+        Map<String, SortedMap<String, ZoneRules>> allBuiltZones = new TreeMap<String, SortedMap<String, ZoneRules>>();
+        Set<String> allRegionIds = new HashSet<String>();
+        Set<ZoneRules> allRules = new HashSet<ZoneRules>();
+        for (String regionId : provider.provideZoneIds()) {
+            for (Map.Entry<String, ZoneRules> entry : provider.provideVersions(regionId).entrySet()) {
+                SortedMap<String, ZoneRules> builtZones = allBuiltZones.get(entry.getKey());
+                if (builtZones == null) {
+                    builtZones = new TreeMap<String, ZoneRules>();
+                    allBuiltZones.put(entry.getKey(), builtZones);
+                }
+                builtZones.put(regionId, entry.getValue());
+                allRegionIds.add(regionId);
+                allRules.add(entry.getValue());
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        TzdbZoneRulesCompiler.outputTzdbDatIndexed(baos, allBuiltZones, allRegionIds, allRules);
+        return baos.toByteArray();
+    }
+
+    public void test_load_indexedFormat() throws Exception {
+        TzdbZoneRulesProvider original = new TzdbZoneRulesProvider();
+        byte[] bytes = indexedBytes(original);
+        assertEquals(bytes[0], 2);
+        assertTrue(bytes.length < tzdbBytes().length);
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(ByteBuffer.wrap(bytes));
+        assertProvider(test);
+        assertEquals(test.provideZoneIds(), original.provideZoneIds());
+        for (String regionId : original.provideZoneIds()) {
+            assertEquals(test.provideRules(regionId, false), original.provideRules(regionId, false));
+            assertEquals(test.provideVersions(regionId), original.provideVersions(regionId));
+        }
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_load_indexedFormat_unknownRegion() throws Exception {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(ByteBuffer.wrap(indexedBytes(new TzdbZoneRulesProvider())));
+        test.provideRules("Europe/Lon", false);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_load_indexedFormat_truncated() throws Exception {
+        byte[] bytes = indexedBytes(new TzdbZoneRulesProvider());
+        new TzdbZoneRulesProvider(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_load_invalidBuffer() {
+        new TzdbZoneRulesProvider(ByteBuffer.wrap(new byte[] {2, 0, 4}));
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_load_truncatedBuffer() throws Exception {
+        byte[] bytes = tzdbBytes();
+        new TzdbZoneRulesProvider(ByteBuffer.wrap(bytes, 0, bytes.length / 2));
+    }
+
+    //-----------------------------------------------------------------------
+    private byte[] versionBytes(String version, String... regionIds) throws Exception {
+        SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
+        for (String regionId : regionIds) {
+            builtZones.put(regionId, ZoneRulesProvider.getRules(regionId, false));
+        }
+        Map<String, SortedMap<String, ZoneRules>> allBuiltZones = new TreeMap<String, SortedMap<String, ZoneRules>>();
+        allBuiltZones.put(version, builtZones);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        TzdbZoneRulesCompiler.outputTzdbDatIndexed(
+                baos, allBuiltZones, builtZones.keySet(), new HashSet<ZoneRules>(builtZones.values()));
+        return baos.toByteArray();
+    }
+
+    private void writeFile(File file, byte[] bytes) throws Exception {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    public void test_refresh_modifiedFile() throws Exception {
+        File file = File.createTempFile("TZDB", ".dat");
+        file.deleteOnExit();
+        writeFile(file, versionBytes("2000a", "Europe/London"));
+        file.setLastModified(1000000000000L);
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(file.toURI().toURL());
+        assertEquals(test.provideZoneIds(), new HashSet<String>(Arrays.asList("Europe/London")));
+        assertEquals(test.provideRefresh(), false);
+
+        // replace by renaming a new file over it
+        File newFile = File.createTempFile("TZDB", ".dat");
+        newFile.deleteOnExit();
+        writeFile(newFile, versionBytes("2000b", "Europe/London", "Europe/Paris"));
+        newFile.setLastModified(1000000001000L);
+        assertTrue(newFile.renameTo(file));
+        assertEquals(test.provideRefresh(), true);
+        assertEquals(test.provideZoneIds(), new HashSet<String>(Arrays.asList("Europe/London", "Europe/Paris")));
+        assertEquals(test.provideVersions("Europe/London").keySet(), new HashSet<String>(Arrays.asList("2000a", "2000b")));
+        assertEquals(test.provideRules("Europe/Paris", false), ZoneRulesProvider.getRules("Europe/Paris", false));
+        assertEquals(test.provideRefresh(), false);
+    }
+
+    public void test_refresh_modifiedFile_sameVersion() throws Exception {
+        File file = File.createTempFile("TZDB", ".dat");
+        file.deleteOnExit();
+        writeFile(file, versionBytes("2000a", "Europe/London"));
+        file.setLastModified(1000000000000L);
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(file.toURI().toURL());
+        assertEquals(test.provideVersions("Europe/Paris").isEmpty(), true);
+
+        // a file rewritten in place replaces the version it was loaded with
+        writeFile(file, versionBytes("2000a", "Europe/London", "Europe/Paris"));
+        file.setLastModified(1000000001000L);
+        assertEquals(test.provideRefresh(), true);
+        assertEquals(test.provideZoneIds(), new HashSet<String>(Arrays.asList("Europe/London", "Europe/Paris")));
+        assertEquals(test.provideVersions("Europe/Paris").keySet(), new HashSet<String>(Arrays.asList("2000a")));
+        assertEquals(test.provideRules("Europe/Paris", false), ZoneRulesProvider.getRules("Europe/Paris", false));
+        assertEquals(test.provideRefresh(), false);
+    }
+
+    public void test_refresh_rewrittenInPlace_loadedDataUnaltered() throws Exception {
+        File file = File.createTempFile("TZDB", ".dat");
+        file.deleteOnExit();
+        writeFile(file, versionBytes("2000a", "Europe/London", "Europe/Paris", "America/New_York"));
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(file.toURI().toURL());
+
+        // rules not yet decoded still come from the data as it was loaded
+        writeFile(file, new byte[] {2});
+        assertEquals(test.provideRules("America/New_York", false), ZoneRulesProvider.getRules("America/New_York", false));
+        assertEquals(test.provideRules("Europe/Paris", false), ZoneRulesProvider.getRules("Europe/Paris", false));
+    }
+
+    public void test_provideRules_sameInstanceAcrossThreads() throws Exception {
+        final TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(ByteBuffer.wrap(tzdbBytes()));
+        final ZoneRules[] results = new ZoneRules[8];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    results[index] = test.provideRules("Europe/Madrid", false);
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (ZoneRules result : results) {
+            assertSame(result, results[0]);
+        }
+    }
+
+    public void test_refresh_classLoader() {
+        assertEquals(new TzdbZoneRulesProvider().provideRefresh(), false);
+    }
+
+    public void test_refresh_buffer() throws Exception {
+        assertEquals(new TzdbZoneRulesProvider(ByteBuffer.wrap(tzdbBytes())).provideRefresh(), false);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_regionFilter() {
+        RegionFilter test = RegionFilter.parse("Europe/*, America/New_York", "Europe/London");
+        assertTrue(test.matches("Europe/Paris"));
+        assertTrue(test.matches("America/New_York"));
+        assertFalse(test.matches("Europe/London"));
+        assertFalse(test.matches("America/Chicago"));
+        assertFalse(test.isAll());
+        assertSame(RegionFilter.parse(null, " "), RegionFilter.ALL);
+        assertTrue(RegionFilter.ALL.matches("Asia/Tokyo"));
+    }
+
+    public void test_load_subset() {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(Arrays.asList("Europe/*"), Arrays.asList("Europe/London"));
+        assertTrue(test.provideZoneIds().contains("Europe/Paris"));
+        assertFalse(test.provideZoneIds().contains("Europe/London"));
+        assertFalse(test.provideZoneIds().contains("America/New_York"));
+        assertEquals(test.provideRules("Europe/Paris", false), ZoneRulesProvider.getRules("Europe/Paris", false));
+        assertEquals(test.provideVersions("America/New_York").size(), 0);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_load_subset_excluded() {
+        new TzdbZoneRulesProvider(null, Arrays.asList("Europe/*")).provideRules("Europe/Paris", false);
+    }
+
+    public void test_load_subset_indexedFormat() throws Exception {
+        byte[] bytes = indexedBytes(new TzdbZoneRulesProvider(Arrays.asList("Europe/*"), null));
+        assertTrue(bytes.length < indexedBytes(new TzdbZoneRulesProvider()).length / 4);
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(ByteBuffer.wrap(bytes));
+        assertTrue(test.provideZoneIds().contains("Europe/Paris"));
+        assertFalse(test.provideZoneIds().contains("America/New_York"));
+        assertEquals(test.provideRules("Europe/Paris", false), ZoneRulesProvider.getRules("Europe/Paris", false));
+    }
+
+    public void test_filterZones() {
+        SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
+        builtZones.put("Europe/London", ZoneRulesProvider.getRules("Europe/London", false));
+        builtZones.put("Europe/Paris", ZoneRulesProvider.getRules("Europe/Paris", false));
+        builtZones.put("Asia/Tokyo", ZoneRulesProvider.getRules("Asia/Tokyo", false));
+        SortedMap<String, ZoneRules> test = TzdbZoneRulesCompiler.filterZones(builtZones, RegionFilter.parse("Europe/*", "Europe/London"));
+        assertEquals(test.keySet(), new HashSet<String>(Arrays.asList("Europe/Paris")));
+        assertSame(TzdbZoneRulesCompiler.filterZones(builtZones, RegionFilter.ALL), builtZones);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_sharedOffsetsAndRules() {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider();
+        ZoneRules paris = test.provideRules("Europe/Paris", false);
+        ZoneRules berlin = test.provideRules("Europe/Berlin", false);
+        assertSame(paris.getTransitionRules().get(0), berlin.getTransitionRules().get(0));
+        assertSame(paris.getTransitionRules().get(1), berlin.getTransitionRules().get(1));
+        ZoneRules amsterdam = test.provideRules("Europe/Amsterdam", false);
+        ZoneRules brussels = test.provideRules("Europe/Brussels", false);
+        assertSame(amsterdam.getStandardOffset(Instant.EPOCH), brussels.getStandardOffset(Instant.EPOCH));
+    }
+
+    public void test_footprint_allRegions() throws Exception {
+        TzdbZoneRulesProvider provider = new TzdbZoneRulesProvider();
+        List<ZoneRules> loaded = new ArrayList<ZoneRules>();
+        List<ZoneRules> separate = new ArrayList<ZoneRules>();
+        for (String regionId : provider.provideZoneIds()) {
+            ZoneRules rules = provider.provideRules(regionId, false);
+            rules.getOffset(Instant.EPOCH);
+            loaded.add(rules);
+            // decoded without sharing, with the local transitions created
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Ser.write(rules, new DataOutputStream(baos));
+            ZoneRules copy = (ZoneRules) Ser.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+            copy.getOffset(LocalDateTime.of(2000, 1, 1, 0, 0));
+            separate.add(copy);
+        }
+        long loadedBytes = footprint(loaded);
+        long separateBytes = footprint(separate);
+        // shared and lazily created state takes under 40% of the memory
+        assertTrue(loadedBytes * 5 < separateBytes * 2, loadedBytes + " " + separateBytes);
+    }
+
+    /**
+     * Estimates the retained size of an object graph, assuming compressed references.
+     * Only fields of classes in this project are followed.
+     */
+    private static long footprint(Object root) throws Exception {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        Deque<Object> stack = new ArrayDeque<Object>();
+        stack.push(root);
+        long total = 0;
+        while (stack.isEmpty() == false) {
+            Object obj = stack.pop();
+            if (seen.add(obj) == false) {
+                continue;
+            }
+            Class<?> cls = obj.getClass();
+            if (cls.isArray()) {
+                int length = Array.getLength(obj);
+                Class<?> component = cls.getComponentType();
+                total += align(16 + (long) length * fieldSize(component));
+                if (component.isPrimitive() == false) {
+                    for (int i = 0; i < length; i++) {
+                        Object element = Array.get(obj, i);
+                        if (element != null) {
+                            stack.push(element);
+                        }
+                    }
+                }
+            } else if (obj instanceof Collection) {
+                total += align(16 + ((Collection<?>) obj).size() * 4L);
+                for (Object element : (Collection<?>) obj) {
+                    stack.push(element);
+                }
+            } else if (obj instanceof AtomicReferenceArray) {
+                AtomicReferenceArray<?> array = (AtomicReferenceArray<?>) obj;
+                total += 16 + align(16 + array.length() * 4L);
+                for (int i = 0; i < array.length(); i++) {
+                    if (array.get(i) != null) {
+                        stack.push(array.get(i));
+                    }
+                }
+            } else if (obj instanceof String) {
+                total += 24 + align(16 + ((String) obj).length());
+            } else {
+                long size = 12;
+                for (Class<?> c = cls; c != null && c.getName().startsWith("org.threeten."); c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        size += fieldSize(field.getType());
+                        if (field.getType().isPrimitive() == false) {
+                            field.setAccessible(true);
+                            Object value = field.get(obj);
+                            if (value != null) {
+                                stack.push(value);
+                            }
+                        }
+                    }
+                }
+                total += align(size);
+            }
+        }
+        return total;
+    }
+
+    private static long fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 4;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.DayOfWeek;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.LocalTime;
+import org.threeten.bp.Month;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.temporal.TemporalAdjusters;
+import org.threeten.bp.zone.ZoneOffsetTransitionRule.TimeDefinition;
+
+/**
+ * Test TzifZoneRulesProvider.
+ */
+@Test
+public class TestTzifZoneRulesProvider {
+
+    private File tzifDirectory() throws Exception {
+        return new File(TestTzifZoneRulesProvider.class.getResource("/tzif/+VERSION").toURI()).getParentFile();
+    }
+
+    private ByteBuffer readFile(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int pos = 0;
+            while (pos < bytes.length) {
+                pos += in.read(bytes, pos, bytes.length - pos);
+            }
+            return ByteBuffer.wrap(bytes);
+        } finally {
+            in.close();
+        }
+    }
+
+    private void writeFile(File file, byte[] bytes) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private List<ZoneOffsetTransition> toList(Iterable<ZoneOffsetTransition> iterable) {
+        List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>();
+        for (ZoneOffsetTransition trans : iterable) {
+            list.add(trans);
+        }
+        return list;
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_load() throws Exception {
+        TzifZoneRulesProvider test = new TzifZoneRulesProvider(tzifDirectory());
+        assertEquals(test.provideZoneIds(), new HashSet<String>(Arrays.asList(
+                "Europe/London", "America/New_York", "America/Nuuk", "Australia/Sydney",
+                "Asia/Jerusalem", "Asia/Kathmandu", "UTC")));
+        assertEquals(test.provideVersions("Europe/London").keySet(), new HashSet<String>(Arrays.asList("2025b")));
+        assertEquals(test.provideVersions("Europe/Paris").isEmpty(), true);
+        assertSame(test.provideRules("Europe/London", false), test.provideRules("Europe/London", false));
+    }
+
+    public void test_matchesTzdb() throws Exception {
+        // transitions since 1990 are unchanged between the bundled TZDB and the TZif files
+        TzifZoneRulesProvider test = new TzifZoneRulesProvider(tzifDirectory());
+        Instant start = Instant.parse("1990-01-01T00:00:00Z");
+        Instant end = Instant.parse("2100-01-01T00:00:00Z");
+        for (String zoneId : new String[] {"Europe/London", "America/New_York", "Australia/Sydney", "Asia/Jerusalem", "Asia/Kathmandu"}) {
+            ZoneRules expected = ZoneRulesProvider.getRules(zoneId, false);
+            ZoneRules rules = test.provideRules(zoneId, false);
+            assertEquals(toList(rules.getTransitions(start, end)), toList(expected.getTransitions(start, end)), zoneId);
+            for (long epochSec = start.getEpochSecond(); epochSec < end.getEpochSecond(); epochSec += 86400 * 3 + 3607) {
+                Instant instant = Instant.ofEpochSecond(epochSec);
+                assertEquals(rules.getOffset(instant), expected.getOffset(instant), zoneId + " " + instant);
+                assertEquals(rules.getStandardOffset(instant), expected.getStandardOffset(instant), zoneId + " " + instant);
+            }
+        }
+        ZoneRules utc = test.provideRules("UTC", false);
+        assertEquals(utc.getOffset(Instant.EPOCH), ZoneOffset.UTC);
+        assertEquals(utc.getTransitions().isEmpty(), true);
+        assertEquals(utc.getTransitionRules().isEmpty(), true);
+    }
+
+    public void test_footer_beyondData() throws Exception {
+        // M3.5.0/-1 is 23:00 on the Saturday before the last Sunday in March
+        ZoneRules rules = new TzifZoneRulesProvider(tzifDirectory()).provideRules("America/Nuuk", false);
+        for (int year = 2040; year < 2060; year++) {
+            LocalDate lastSunday = LocalDate.of(year, 3, 1).with(TemporalAdjusters.lastInMonth(DayOfWeek.SUNDAY));
+            Instant expected = lastSunday.minusDays(1).atTime(23, 0).toInstant(ZoneOffset.ofHours(-2));
+            ZoneOffsetTransition trans = rules.nextTransition(LocalDate.of(year, 1, 1).atStartOfDay().toInstant(ZoneOffset.UTC));
+            assertEquals(trans.getInstant(), expected);
+            assertEquals(trans.getOffsetBefore(), ZoneOffset.ofHours(-2));
+            assertEquals(trans.getOffsetAfter(), ZoneOffset.ofHours(-1));
+        }
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_unknownRegion() throws Exception {
+        new TzifZoneRulesProvider(tzifDirectory()).provideRules("Europe/Paris", false);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_ignoredFile() throws Exception {
+        new TzifZoneRulesProvider(tzifDirectory()).provideRules("posixrules", false);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_notDirectory() throws Exception {
+        new TzifZoneRulesProvider(new File(tzifDirectory(), "UTC"));
+    }
+
+    @Test(expectedExceptions=StreamCorruptedException.class)
+    public void test_decode_leapSeconds() throws Exception {
+        TzifZoneRulesProvider.decodeRules(readFile(new File(tzifDirectory(), "right/UTC")));
+    }
+
+    @Test(expectedExceptions=StreamCorruptedException.class)
+    public void test_decode_truncated() throws Exception {
+        ByteBuffer buf = readFile(new File(tzifDirectory(), "Europe/London"));
+        buf.limit(buf.limit() - 20);
+        TzifZoneRulesProvider.decodeRules(buf);
+    }
+
+    public void test_decode_version1() throws Exception {
+        ByteBuffer buf = ByteBuffer.allocate(44 + 4 + 1 + 12 + 8);
+        buf.put(new byte[] {'T', 'Z', 'i', 'f', 0});
+        buf.position(20);
+        buf.putInt(0).putInt(0).putInt(0).putInt(1).putInt(2).putInt(8);
+        buf.putInt(1000000000);
+        buf.put((byte) 1);
+        buf.putInt(0).put((byte) 0).put((byte) 0);
+        buf.putInt(3600).put((byte) 1).put((byte) 4);
+        buf.put("AAA\0BBB\0".getBytes("US-ASCII"));
+        buf.flip();
+        ZoneRules test = TzifZoneRulesProvider.decodeRules(buf);
+        assertEquals(test.getOffset(Instant.ofEpochSecond(999999999)), ZoneOffset.UTC);
+        assertEquals(test.getOffset(Instant.ofEpochSecond(1000000000)), ZoneOffset.ofHours(1));
+        assertEquals(test.getStandardOffset(Instant.ofEpochSecond(1000000000)), ZoneOffset.UTC);
+        assertEquals(test.isDaylightSavings(Instant.ofEpochSecond(1000000000)), true);
+        assertEquals(test.getTransitionRules().isEmpty(), true);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_parseFooter() {
+        ZoneOffset gmt = ZoneOffset.UTC;
+        ZoneOffset bst = ZoneOffset.ofHours(1);
+        ZoneOffsetTransitionRule[] rules = TzifZoneRulesProvider.parseFooter("GMT0BST,M3.5.0/1,M10.5.0");
+        assertEquals(rules.length, 2);
+        assertEquals(rules[0], ZoneOffsetTransitionRule.of(Month.MARCH, -1, DayOfWeek.SUNDAY,
+                LocalTime.of(1, 0), false, TimeDefinition.WALL, gmt, gmt, bst));
+        assertEquals(rules[1], ZoneOffsetTransitionRule.of(Month.OCTOBER, -1, DayOfWeek.SUNDAY,
+                LocalTime.of(2, 0), false, TimeDefinition.WALL, gmt, bst, gmt));
+    }
+
+    public void test_parseFooter_southernHemisphere() {
+        ZoneOffset aest = ZoneOffset.ofHours(10);
+        ZoneOffset aedt = ZoneOffset.ofHours(11);
+        ZoneOffsetTransitionRule[] rules = TzifZoneRulesProvider.parseFooter("AEST-10AEDT,M10.1.0,M4.1.0/3");
+        assertEquals(rules[0], ZoneOffsetTransitionRule.of(Month.APRIL, 1, DayOfWeek.SUNDAY,
+                LocalTime.of(3, 0), false, TimeDefinition.WALL, aest, aedt, aest));
+        assertEquals(rules[1], ZoneOffsetTransitionRule.of(Month.OCTOBER, 1, DayOfWeek.SUNDAY,
+                LocalTime.of(2, 0), false, TimeDefinition.WALL, aest, aest, aedt));
+    }
+
+    public void test_parseFooter_timeOutsideDay() {
+        ZoneOffset ist = ZoneOffset.ofHours(2);
+        ZoneOffset idt = ZoneOffset.ofHours(3);
+        ZoneOffsetTransitionRule[] rules = TzifZoneRulesProvider.parseFooter("IST-2IDT,M3.4.4/26,M10.5.0");
+        assertEquals(rules[0], ZoneOffsetTransitionRule.of(Month.MARCH, 23, DayOfWeek.FRIDAY,
+                LocalTime.of(2, 0), false, TimeDefinition.WALL, ist, ist, idt));
+        rules = TzifZoneRulesProvider.parseFooter("<-02>2<-01>,M3.5.0/-1,M10.5.0/24");
+        ZoneOffset minus2 = ZoneOffset.ofHours(-2);
+        ZoneOffset minus1 = ZoneOffset.ofHours(-1);
+        assertEquals(rules[0], ZoneOffsetTransitionRule.of(Month.MARCH, -2, DayOfWeek.SATURDAY,
+                LocalTime.of(23, 0), false, TimeDefinition.WALL, minus2, minus2, minus1));
+        assertEquals(rules[1], ZoneOffsetTransitionRule.of(Month.OCTOBER, -1, DayOfWeek.SUNDAY,
+                LocalTime.MIDNIGHT, true, TimeDefinition.WALL, minus2, minus1, minus2));
+    }
+
+    public void test_parseFooter_julian() {
+        ZoneOffsetTransitionRule[] rules = TzifZoneRulesProvider.parseFooter("XXX3YYY,J60,31/0:30:15");
+        assertEquals(rules[0].getMonth(), Month.FEBRUARY);
+        assertEquals(rules[0].getDayOfMonthIndicator(), 1);
+        assertEquals(rules[0].getDayOfWeek(), null);
+        assertEquals(rules[0].getLocalTime(), LocalTime.of(0, 30, 15));
+        assertEquals(rules[0].getOffsetAfter(), ZoneOffset.ofHours(-3));
+        assertEquals(rules[1].getMonth(), Month.MARCH);
+        assertEquals(rules[1].getDayOfMonthIndicator(), 1);
+        assertEquals(rules[1].getLocalTime(), LocalTime.of(2, 0));
+        assertEquals(rules[1].getOffsetAfter(), ZoneOffset.ofHours(-2));
+    }
+
+    public void test_parseFooter_noSavings() {
+        assertEquals(TzifZoneRulesProvider.parseFooter("<+0545>-5:45").length, 0);
+        assertEquals(TzifZoneRulesProvider.parseFooter("UTC0").length, 0);
+        assertEquals(TzifZoneRulesProvider.parseFooter("EST5EDT,0/0,J365/25").length, 0);
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_parseFooter_invalid() {
+        TzifZoneRulesProvider.parseFooter("GMT0BST,M3.5.0/1");
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_parseFooter_unsupported() {
+        TzifZoneRulesProvider.parseFooter("XXX3YYY,M3.5.0/25,M10.5.0");
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_refresh() throws Exception {
+        File dir = File.createTempFile("tzif", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+        File versionFile = new File(dir, "+VERSION");
+        File utcFile = new File(dir, "UTC");
+        try {
+            writeFile(versionFile, "2025a\n".getBytes("US-ASCII"));
+            writeFile(utcFile, readFile(new File(tzifDirectory(), "UTC")).array());
+            TzifZoneRulesProvider test = new TzifZoneRulesProvider(dir);
+            assertEquals(test.provideVersions("UTC").keySet(), new HashSet<String>(Arrays.asList("2025a")));
+            assertFalse(test.provideRefresh());
+
+            writeFile(versionFile, "2025b\n".getBytes("US-ASCII"));
+            assertTrue(test.provideRefresh());
+            assertEquals(test.provideVersions("UTC").keySet(), new HashSet<String>(Arrays.asList("2025b")));
+            assertEquals(test.provideRules("UTC", false).getOffset(Instant.EPOCH), ZoneOffset.UTC);
+        } finally {
+            versionFile.delete();
+            utcFile.delete();
+            dir.delete();
+        }
+    }
+
+}
@@ -37,11 +37,15 @@ import java.io.IOException;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.AbstractTest;
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.DayOfWeek;
+import org.threeten.bp.LocalDate;
 import org.threeten.bp.LocalDateTime;
 import org.threeten.bp.LocalTime;
 import org.threeten.bp.Month;
+import org.threeten.bp.Year;
 import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.temporal.TemporalAdjusters;
 import org.threeten.bp.zone.ZoneOffsetTransitionRule.TimeDefinition;
 
 /**
@@ -278,6 +282,67 @@ public class TestZoneOffsetTransitionRule extends AbstractTest {
         assertEquals(test.createTransition(2000), trans);
     }
 
+    private LocalDateTime createTransitionDateTime(ZoneOffsetTransitionRule rule, int year) {
+        LocalDate date;
+        if (rule.getDayOfMonthIndicator() < 0) {
+            date = LocalDate.of(year, rule.getMonth(),
+                    rule.getMonth().length(Year.isLeap(year)) + 1 + rule.getDayOfMonthIndicator());
+            if (rule.getDayOfWeek() != null) {
+                date = date.with(TemporalAdjusters.previousOrSame(rule.getDayOfWeek()));
+            }
+        } else {
+            date = LocalDate.of(year, rule.getMonth(), rule.getDayOfMonthIndicator());
+            if (rule.getDayOfWeek() != null) {
+                date = date.with(TemporalAdjusters.nextOrSame(rule.getDayOfWeek()));
+            }
+        }
+        if (rule.isMidnightEndOfDay()) {
+            date = date.plusDays(1);
+        }
+        return rule.getTimeDefinition().createDateTime(
+                LocalDateTime.of(date, rule.getLocalTime()), rule.getStandardOffset(), rule.getOffsetBefore());
+    }
+
+    @Test
+    public void test_createTransitionEpochSecond_allZones() {
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            for (ZoneOffsetTransitionRule rule : ZoneRulesProvider.getRules(zoneId, false).getTransitionRules()) {
+                for (int year = 1800; year <= 2300; year += 7) {
+                    LocalDateTime expected = createTransitionDateTime(rule, year);
+                    assertEquals(rule.createTransitionEpochSecond(year), expected.toEpochSecond(rule.getOffsetBefore()), zoneId + " " + year);
+                    assertEquals(rule.createTransition(year).getDateTimeBefore(), expected, zoneId + " " + year);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_createTransitionEpochSecond_allVariants() {
+        for (Month month : Month.values()) {
+            for (int dom : new int[] {-28, -7, -1, 1, 8, 28}) {
+                for (DayOfWeek dow : new DayOfWeek[] {null, DayOfWeek.MONDAY, DayOfWeek.THURSDAY, DayOfWeek.SUNDAY}) {
+                    for (TimeDefinition timeDefinition : TimeDefinition.values()) {
+                        ZoneOffsetTransitionRule rule = ZoneOffsetTransitionRule.of(
+                                month, dom, dow, LocalTime.MIDNIGHT, true, timeDefinition,
+                                OFFSET_0200, OFFSET_0200, OFFSET_0300);
+                        for (int year : new int[] {-2001, -1, 0, 1, 1900, 2000, 2001, 2012, 2100, 9999}) {
+                            LocalDateTime expected = createTransitionDateTime(rule, year);
+                            assertEquals(rule.createTransitionEpochSecond(year), expected.toEpochSecond(OFFSET_0200), rule + " " + year);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expectedExceptions=DateTimeException.class)
+    public void test_createTransition_invalidDayOfMonth() {
+        ZoneOffsetTransitionRule test = ZoneOffsetTransitionRule.of(
+                Month.FEBRUARY, 29, null, TIME_0100, false, TimeDefinition.WALL,
+                OFFSET_0200, OFFSET_0200, OFFSET_0300);
+        test.createTransition(2001);
+    }
+
     //-----------------------------------------------------------------------
     // equals()
     //-----------------------------------------------------------------------
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+import java.util.Collections;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+/**
+ * Test ZoneRulesMetrics.
+ */
+@Test
+public class TestZoneRulesMetrics {
+
+    @AfterMethod
+    public void tearDown() {
+        ZoneRulesMetrics.reset();
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_disabledByDefault() {
+        assertEquals(ZoneRulesMetrics.isCounting(), false);
+        ZoneRulesMetrics.reset();
+        ZoneRules rules = ZoneRulesProvider.getRules("Europe/London", false);
+        rules.getOffset(Instant.ofEpochSecond(8000000000L));
+        ZoneRulesMetrics.Snapshot test = ZoneRulesMetrics.snapshot();
+        assertEquals(test.getRulesLookups(), 0);
+        assertEquals(test.getLastRulesCacheHits() + test.getLastRulesCacheMisses(), 0);
+    }
+
+    public void test_record() {
+        ZoneRulesMetrics.recordRulesLoad("Europe/London", 100);
+        ZoneRulesMetrics.recordRulesLoad("Europe/London", 50);
+        ZoneRulesMetrics.recordRulesLoad("Europe/Paris", 10);
+        ZoneRulesMetrics.recordLastRulesCacheHit();
+        ZoneRulesMetrics.recordLastRulesCacheHit();
+        ZoneRulesMetrics.recordLastRulesCacheMiss();
+        ZoneRulesMetrics.recordUncachedYearLookup();
+        ZoneRulesMetrics.recordRulesLookup();
+        ZoneRulesMetrics.Snapshot test = ZoneRulesMetrics.snapshot();
+        assertEquals(test.getRulesLoadCounts().get("Europe/London"), Long.valueOf(2));
+        assertEquals(test.getRulesLoadCounts().get("Europe/Paris"), Long.valueOf(1));
+        assertEquals(test.getRulesLoadCount(), 3);
+        assertEquals(test.getRulesLoadNanos(), 160);
+        assertEquals(test.getLastRulesCacheHits(), 2);
+        assertEquals(test.getLastRulesCacheMisses(), 1);
+        assertEquals(test.getUncachedYearLookups(), 1);
+        assertEquals(test.getRulesLookups(), 1);
+        assertNotNull(test.toString());
+    }
+
+    public void test_reset() {
+        ZoneRulesMetrics.recordRulesLoad("Europe/London", 100);
+        ZoneRulesMetrics.recordRulesLookup();
+        ZoneRulesMetrics.reset();
+        ZoneRulesMetrics.Snapshot test = ZoneRulesMetrics.snapshot();
+        assertEquals(test.getRulesLoadCounts(), Collections.emptyMap());
+        assertEquals(test.getRulesLoadNanos(), 0);
+        assertEquals(test.getRulesLookups(), 0);
+    }
+
+    @Test(expectedExceptions=UnsupportedOperationException.class)
+    public void test_snapshot_immutable() {
+        ZoneRulesMetrics.snapshot().getRulesLoadCounts().put("Europe/London", 1L);
+    }
+
+}
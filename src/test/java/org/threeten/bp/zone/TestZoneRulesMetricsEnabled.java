@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneOffset;
+
+/**
+ * Test ZoneRulesMetrics with the counters enabled.
+ * <p>
+ * This runs in its own surefire execution, which sets the system property
+ * {@code org.threeten.bp.zone.ZoneRulesMetrics.enabled} to true.
+ */
+@Test
+public class TestZoneRulesMetricsEnabled {
+
+    @BeforeMethod
+    public void setUp() {
+        if (ZoneRulesMetrics.isCounting() == false) {
+            throw new SkipException("ZoneRulesMetrics not enabled");
+        }
+        ZoneRulesMetrics.reset();
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_ZoneRulesProvider_getRules() {
+        ZoneRulesProvider.getRules("Europe/London", false);
+        ZoneRulesProvider.getRules("Europe/Paris", true);
+        assertEquals(ZoneRulesMetrics.snapshot().getRulesLookups(), 2);
+    }
+
+    public void test_StandardZoneRules_lastRulesCache() {
+        ZoneRules rules = new TzdbZoneRulesProvider().provideRules("Europe/London", false);
+        assertTrue(rules instanceof StandardZoneRules);
+        rules.getOffset(LocalDateTime.of(2050, 6, 1, 0, 0).toInstant(ZoneOffset.UTC));
+        ZoneRulesMetrics.Snapshot first = ZoneRulesMetrics.snapshot();
+        assertEquals(first.getLastRulesCacheMisses(), 1);
+        assertEquals(first.getLastRulesCacheHits(), 0);
+
+        rules.getOffset(LocalDateTime.of(2050, 7, 1, 0, 0).toInstant(ZoneOffset.UTC));
+        ZoneRulesMetrics.Snapshot second = ZoneRulesMetrics.snapshot();
+        assertEquals(second.getLastRulesCacheMisses(), 1);
+        assertEquals(second.getLastRulesCacheHits(), 1);
+        assertEquals(second.getUncachedYearLookups(), 0);
+
+        rules.getOffset(LocalDateTime.of(2200, 6, 1, 0, 0).toInstant(ZoneOffset.UTC));
+        assertEquals(ZoneRulesMetrics.snapshot().getUncachedYearLookups(), 1);
+    }
+
+    public void test_TzdbZoneRulesProvider_rulesLoad() {
+        TzdbZoneRulesProvider provider = new TzdbZoneRulesProvider();
+        ZoneRules rules = provider.provideRules("Europe/Paris", false);
+        assertSame(provider.provideRules("Europe/Paris", false), rules);
+        ZoneRulesMetrics.Snapshot test = ZoneRulesMetrics.snapshot();
+        assertEquals(test.getRulesLoadCounts(), Collections.singletonMap("Europe/Paris", 1L));
+        assertTrue(test.getRulesLoadNanos() > 0);
+    }
+
+    public void test_TzdbZoneRulesProvider_indexedFormat_rulesLoad() throws Exception {
+        SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
+        builtZones.put("Europe/London", ZoneRulesProvider.getRules("Europe/London", false));
+        builtZones.put("Europe/Paris", ZoneRulesProvider.getRules("Europe/Paris", false));
+        Map<String, SortedMap<String, ZoneRules>> allBuiltZones = Collections.singletonMap("2099z", builtZones);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        TzdbZoneRulesCompiler.outputTzdbDatIndexed(
+                baos, allBuiltZones, builtZones.keySet(), new HashSet<ZoneRules>(builtZones.values()));
+        ZoneRulesMetrics.reset();
+
+        TzdbZoneRulesProvider provider = new TzdbZoneRulesProvider(ByteBuffer.wrap(baos.toByteArray()));
+        provider.provideRules("Europe/London", false);
+        provider.provideRules("Europe/London", false);
+        assertEquals(ZoneRulesMetrics.snapshot().getRulesLoadCounts(), Collections.singletonMap("Europe/London", 1L));
+    }
+
+    public void test_TzifZoneRulesProvider_rulesLoad() throws Exception {
+        File directory = new File(TestZoneRulesMetricsEnabled.class.getResource("/tzif/+VERSION").toURI()).getParentFile();
+        TzifZoneRulesProvider provider = new TzifZoneRulesProvider(directory);
+        provider.provideRules("Asia/Kathmandu", false);
+        provider.provideRules("Asia/Kathmandu", false);
+        assertEquals(ZoneRulesMetrics.snapshot().getRulesLoadCounts(), Collections.singletonMap("Asia/Kathmandu", 1L));
+    }
+
+}
@@ -33,16 +33,23 @@ package org.threeten.bp.zone;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.testng.annotations.Test;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZoneOffset;
 
 /**
@@ -124,6 +131,108 @@ public class TestZoneRulesProvider {
         assertEquals(ZoneRulesProvider.refresh(), false);
     }
 
+    @Test
+    public void test_refresh_newZoneIds() {
+        MockDynamicProvider provider = new MockDynamicProvider();
+        ZoneRulesProvider.registerProvider(provider);
+        Set<String> pre = ZoneRulesProvider.getAvailableZoneIds();
+        assertEquals(pre.contains("DynamicLocation1"), true);
+        assertEquals(pre.contains("DynamicLocation2"), false);
+        ZoneId cached = ZoneId.of("DynamicLocation1");
+        assertSame(ZoneId.of("DynamicLocation1"), cached);
+
+        provider.zoneIds.add("DynamicLocation2");
+        assertEquals(ZoneRulesProvider.refresh(), true);
+        Set<String> post = ZoneRulesProvider.getAvailableZoneIds();
+        assertNotSame(post, pre);
+        assertNotSame(ZoneId.of("DynamicLocation1"), cached);
+        assertEquals(post.contains("DynamicLocation2"), true);
+        assertEquals(pre.contains("DynamicLocation2"), false);
+        assertEquals(ZoneRulesProvider.getRules("DynamicLocation2", false), provider.rules);
+    }
+
+    @Test
+    public void test_registerProvider_duplicateIsAtomic() {
+        MockDynamicProvider provider = new MockDynamicProvider();
+        provider.zoneIds.clear();
+        provider.zoneIds.add("AtomicLocation");
+        provider.zoneIds.add("Europe/London");
+        try {
+            ZoneRulesProvider.registerProvider(provider);
+            fail();
+        } catch (ZoneRulesException ex) {
+            // expected
+        }
+        assertEquals(ZoneRulesProvider.getAvailableZoneIds().contains("AtomicLocation"), false);
+    }
+
+    static class MockDynamicProvider extends ZoneRulesProvider {
+        final Set<String> zoneIds = new HashSet<String>(Collections.singleton("DynamicLocation1"));
+        final ZoneRules rules = ZoneOffset.of("+02:15").getRules();
+        boolean refreshed;
+        @Override
+        public synchronized Set<String> provideZoneIds() {
+            return new HashSet<String>(zoneIds);
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("BarVersion", rules);
+            return result;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            return rules;
+        }
+        @Override
+        protected boolean provideRefresh() {
+            boolean changed = (refreshed == false && zoneIds.size() > 1);
+            refreshed |= changed;
+            return changed;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // preload()
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_preload() {
+        ZoneRulesProvider.PreloadReport report = ZoneRulesProvider.preload(Arrays.asList("Europe/London", "America/New_York"), 2000, 2050, null);
+        assertEquals(report.getZoneCount(), 2);
+        assertTrue(report.getElapsed().isNegative() == false);
+        assertNotNull(report.toString());
+    }
+
+    @Test
+    public void test_preload_executor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ZoneRulesProvider.PreloadReport report = ZoneRulesProvider.preload(Collections.singleton("Europe/Paris"), 2010, 2010, executor);
+            assertEquals(report.getZoneCount(), 1);
+            assertEquals(executor.isShutdown(), false);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_preloadAll() {
+        ZoneRulesProvider.PreloadReport report = ZoneRulesProvider.preloadAll(1970, 2100);
+        assertEquals(report.getZoneCount(), ZoneRulesProvider.getAvailableZoneIds().size());
+        ZoneRules rules = ZoneRulesProvider.getRules("Europe/London", false);
+        assertEquals(rules.getOffset(LocalDateTime.of(2099, 7, 1, 12, 0)), ZoneOffset.ofHours(1));
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_preload_unknownId() {
+        ZoneRulesProvider.preload(Arrays.asList("Europe/London", "Unknown"), 2000, 2050, null);
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_preload_badYears() {
+        ZoneRulesProvider.preload(Arrays.asList("Europe/London"), 2050, 2000, null);
+    }
+
     //-----------------------------------------------------------------------
     // registerProvider()
     //-----------------------------------------------------------------------